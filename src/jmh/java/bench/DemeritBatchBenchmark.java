@@ -0,0 +1,105 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * DemeritBatchBenchmark.java
+ *
+ * Bulk addDemeritPoints(String[], int[]) against a loop of
+ * addDemeritPoints(String, int) over the same batch: 500 offenses for one
+ * new person, spread over the two years up to 31-12-2024 (so none is
+ * evicted), either in date order or shuffled as camera files arrive.
+ *
+ * Scores are per offense; the person is created inside each invocation,
+ * the same for both.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DemeritBatchBenchmark {
+
+    private static final int BATCH = 500;
+
+    private static final MethodHandle NEW_PERSON = Repo.constructor(Repo.PERSON, Repo.PERSON_STORE);
+    private static final MethodHandle ADD_PERSON = Repo.method(Repo.PERSON, "addPerson", boolean.class,
+            String.class, String.class, String.class, String.class, String.class);
+    private static final MethodHandle ADD_DEMERIT = Repo.method(Repo.PERSON, "addDemeritPoints",
+            String.class, String.class, int.class);
+    private static final MethodHandle ADD_DEMERITS = Repo.method(Repo.PERSON, "addDemeritPoints",
+            boolean[].class, String[].class, int[].class);
+
+    @Param({ "sorted", "shuffled" })
+    public String order;
+
+    private Object none;
+    private String[] dates;
+    private int[] points;
+
+    @Setup
+    public void setUp() throws Throwable {
+        none = Repo.PERSON_STORE.getField("NONE").get(null);
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        LocalDate newest = LocalDate.of(2024, 12, 31);
+        dates = new String[BATCH];
+        points = new int[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            dates[i] = newest.minusDays(2L * (BATCH - 1 - i) * 730 / (2 * BATCH)).format(fmt);
+            points[i] = 1 + i % 6;
+        }
+        if (order.equals("shuffled")) {
+            Random rnd = new Random(3);
+            for (int i = BATCH - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                String d = dates[i];
+                dates[i] = dates[j];
+                dates[j] = d;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object batch() throws Throwable {
+        Object person = newPerson();
+        return (boolean[]) ADD_DEMERITS.invokeExact(person, dates, points);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void loop(Blackhole bh) throws Throwable {
+        Object person = newPerson();
+        for (int i = 0; i < BATCH; i++) {
+            bh.consume((String) ADD_DEMERIT.invokeExact(person, dates[i], points[i]));
+        }
+    }
+
+    private Object newPerson() throws Throwable {
+        Object person = NEW_PERSON.invoke(none);
+        if (!(boolean) ADD_PERSON.invoke(person, "56s_d%&fAB", "John", "Doe",
+                "32|Highland Street|Melbourne|Victoria|Australia", "15-11-1990")) {
+            throw new IllegalStateException("addPerson failed");
+        }
+        return person;
+    }
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DemeritBenchmark.java
+ *
+ * Cost of addDemeritPoints(...) — parse, ledger insert and the two-year
+ * countDemerits(...) window — for a person who already has 10, 100 or 730
+ * offenses, one per day up to 31-12-2024. Person's ledger keeps only the two
+ * years up to its newest offense, so 730 days is about the largest it
+ * holds, and every prior offense here stays inside that horizon.
+ *
+ * Both benchmarks re-record a day that is already in the ledger, so the
+ * offense count stays fixed however many invocations run and nothing is
+ * evicted: "Newest" hits the end of the ledger (the common, in-order case),
+ * "Oldest" its start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DemeritBenchmark {
+
+    private static final MethodHandle NEW_PERSON = Repo.constructor(Repo.PERSON, Repo.PERSON_STORE);
+    private static final MethodHandle ADD_PERSON = Repo.method(Repo.PERSON, "addPerson", boolean.class,
+            String.class, String.class, String.class, String.class, String.class);
+    private static final MethodHandle ADD_DEMERIT = Repo.method(Repo.PERSON, "addDemeritPoints",
+            String.class, String.class, int.class);
+    private static final MethodHandle ADD_DEMERITS = Repo.method(Repo.PERSON, "addDemeritPoints",
+            boolean[].class, String[].class, int[].class);
+
+    @Param({ "10", "100", "730" })
+    public int priorOffenses;
+
+    private Object person;
+    private String newestDate;
+    private String oldestDate;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Object none = Repo.PERSON_STORE.getField("NONE").get(null);
+        person = NEW_PERSON.invoke(none);
+        if (!(boolean) ADD_PERSON.invoke(person, "56s_d%&fAB", "John", "Doe",
+                "32|Highland Street|Melbourne|Victoria|Australia", "15-11-1990")) {
+            throw new IllegalStateException("addPerson failed");
+        }
+
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+        LocalDate newest = LocalDate.of(2024, 12, 31);
+        String[] dates = new String[priorOffenses];
+        int[] points = new int[priorOffenses];
+        for (int i = 0; i < priorOffenses; i++) {
+            dates[i] = newest.minusDays(priorOffenses - 1 - i).format(fmt);
+            points[i] = 1 + i % 6;
+        }
+        boolean[] accepted = (boolean[]) ADD_DEMERITS.invoke(person, dates, points);
+        for (boolean a : accepted) {
+            if (!a) {
+                throw new IllegalStateException("prior offense rejected");
+            }
+        }
+        oldestDate = dates[0];
+        newestDate = dates[priorOffenses - 1];
+    }
+
+    @Benchmark
+    public String addDemeritPointsNewest() throws Throwable {
+        return (String) ADD_DEMERIT.invokeExact(person, newestDate, 3);
+    }
+
+    @Benchmark
+    public String addDemeritPointsOldest() throws Throwable {
+        return (String) ADD_DEMERIT.invokeExact(person, oldestDate, 3);
+    }
+}
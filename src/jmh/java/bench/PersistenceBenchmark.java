@@ -0,0 +1,107 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PersistenceBenchmark.java
+ *
+ * End-to-end cost of addPerson(...) and updatePersonalDetails(...),
+ * including writing the result to disk:
+ *
+ * "details" — a Person with no store, overwriting Details.txt in the working
+ * directory (the Maven profile runs in target/jmh).
+ * "registry" — a Person saving to a RegistryStore log in a temp directory.
+ *
+ * The update alternates between two last names, so every call is a real
+ * change and the person's state does not drift between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    private static final String ID = "56s_d%&fAB";
+    private static final String ADDRESS = "32|Highland Street|Melbourne|Victoria|Australia";
+    private static final String BIRTHDATE = "15-11-1990";
+
+    private static final MethodHandle NEW_LEGACY_PERSON = Repo.constructor(Repo.PERSON);
+    private static final MethodHandle NEW_PERSON = Repo.constructor(Repo.PERSON, Repo.PERSON_STORE);
+    private static final MethodHandle NEW_REGISTRY_STORE = Repo.constructor(Repo.REGISTRY_STORE, Path.class);
+    private static final MethodHandle CLOSE_REGISTRY_STORE = Repo.method(Repo.REGISTRY_STORE, "close",
+            void.class);
+    private static final MethodHandle ADD_PERSON = Repo.method(Repo.PERSON, "addPerson", boolean.class,
+            String.class, String.class, String.class, String.class, String.class);
+    private static final MethodHandle UPDATE = Repo.method(Repo.PERSON, "updatePersonalDetails",
+            boolean.class, String.class, String.class, String.class, String.class, String.class);
+
+    @Param({ "details", "registry" })
+    public String store;
+
+    private Path dir;
+    private Object registryStore;
+    private Object person;
+    private boolean flip;
+
+    @Setup
+    public void setUp() throws Throwable {
+        if (store.equals("registry")) {
+            dir = Files.createTempDirectory("bench-registry");
+            registryStore = NEW_REGISTRY_STORE.invoke(dir.resolve("registry.log"));
+        }
+        person = newPerson();
+        if (!(boolean) ADD_PERSON.invoke(person, ID, "John", "Doe", ADDRESS, BIRTHDATE)) {
+            throw new IllegalStateException("addPerson failed");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        if (registryStore != null) {
+            CLOSE_REGISTRY_STORE.invoke(registryStore);
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean addPerson() throws Throwable {
+        return (boolean) ADD_PERSON.invokeExact(newPerson(), ID, "John", "Doe", ADDRESS, BIRTHDATE);
+    }
+
+    @Benchmark
+    public boolean updatePersonalDetails() throws Throwable {
+        flip = !flip;
+        String last = flip ? "Smith" : "Doe";
+        return (boolean) UPDATE.invokeExact(person, ID, "John", last, ADDRESS, BIRTHDATE);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private Object newPerson() throws Throwable {
+        return registryStore == null ? NEW_LEGACY_PERSON.invoke() : NEW_PERSON.invoke(registryStore);
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Repo.java
+ *
+ * Method handles onto the application classes for the benchmarks.
+ *
+ * JMH refuses to generate benchmarks for classes in the default package, so
+ * the benchmarks live in "bench" and cannot name Person, Validation, etc.
+ * directly; they reach them through these static final handles instead,
+ * which the JIT treats as constants and inlines like a direct call.
+ */
+final class Repo {
+
+    static final Class<?> PERSON = load("Person");
+    static final Class<?> PERSON_STORE = load("PersonStore");
+    static final Class<?> REGISTRY_STORE = load("RegistryStore");
+    static final Class<?> COLUMNAR_SNAPSHOT = load("ColumnarSnapshot");
+    static final Class<?> SNAPSHOT_BUILDER = load("ColumnarSnapshot$Builder");
+    static final Class<?> SNAPSHOT_QUERY = load("ColumnarSnapshot$Query");
+
+    private Repo() {
+    }
+
+    /** A handle on a public static method of the named class. */
+    static MethodHandle staticMethod(String className, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            return MethodHandles.publicLookup().findStatic(load(className), name,
+                    MethodType.methodType(returnType, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** A handle on a public instance method; the receiver is typed Object. */
+    static MethodHandle method(Class<?> owner, String name, Class<?> returnType, Class<?>... params) {
+        try {
+            MethodHandle mh = MethodHandles.publicLookup().findVirtual(owner, name,
+                    MethodType.methodType(returnType, params));
+            return mh.asType(mh.type().changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** A handle on a public constructor; the result is typed Object. */
+    static MethodHandle constructor(Class<?> owner, Class<?>... params) {
+        try {
+            MethodHandle mh = MethodHandles.publicLookup().findConstructor(owner,
+                    MethodType.methodType(void.class, params));
+            return mh.asType(mh.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
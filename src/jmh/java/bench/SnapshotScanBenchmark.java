@@ -0,0 +1,103 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SnapshotScanBenchmark.java
+ *
+ * Full scans of a ColumnarSnapshot of 10M synthetic drivers (birthdates
+ * spread over 70 years, 0-14 window points, 1 in 10 suspended, 64 cities):
+ *
+ * count "under 21, 5-6 points, not suspended" (all four columns)
+ * countByCity drivers aged 21+ with more than 9 points, per city
+ * rows the same filter as count, returning the row numbers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+@State(Scope.Benchmark)
+public class SnapshotScanBenchmark {
+
+    private static final MethodHandle NEW_BUILDER = Repo.constructor(Repo.SNAPSHOT_BUILDER, int.class, int.class);
+    private static final MethodHandle ADD = Repo.method(Repo.SNAPSHOT_BUILDER, "add", Repo.SNAPSHOT_BUILDER,
+            String.class, int.class, boolean.class, int.class, String.class);
+    private static final MethodHandle BUILD = Repo.method(Repo.SNAPSHOT_BUILDER, "build", Repo.COLUMNAR_SNAPSHOT);
+    private static final MethodHandle ALL = Repo.staticMethod("ColumnarSnapshot$Query", "all", Repo.SNAPSHOT_QUERY);
+    private static final MethodHandle UNDER_21 = Repo.method(Repo.SNAPSHOT_QUERY, "under21On", Repo.SNAPSHOT_QUERY,
+            int.class);
+    private static final MethodHandle AGED_21 = Repo.method(Repo.SNAPSHOT_QUERY, "aged21OrOverOn",
+            Repo.SNAPSHOT_QUERY, int.class);
+    private static final MethodHandle POINTS = Repo.method(Repo.SNAPSHOT_QUERY, "pointsBetween",
+            Repo.SNAPSHOT_QUERY, int.class, int.class);
+    private static final MethodHandle SUSPENDED = Repo.method(Repo.SNAPSHOT_QUERY, "suspended",
+            Repo.SNAPSHOT_QUERY, boolean.class);
+    private static final MethodHandle COUNT = scan("count", int.class);
+    private static final MethodHandle COUNT_BY_CITY = scan("countByCity", int[].class);
+    private static final MethodHandle ROWS = scan("rows", int[].class);
+
+    @Param({ "10000000" })
+    public int drivers;
+
+    private Object snapshot;
+    private Object young;
+    private Object risky;
+
+    @Setup
+    public void setUp() throws Throwable {
+        int today = (int) LocalDate.of(2024, 12, 1).toEpochDay();
+        String[] cities = new String[64];
+        for (int i = 0; i < cities.length; i++) {
+            cities[i] = "City " + i;
+        }
+        SplittableRandom rnd = new SplittableRandom(15);
+        Object builder = NEW_BUILDER.invoke(today, drivers);
+        for (int i = 0; i < drivers; i++) {
+            ADD.invoke(builder, (String) null, today - 6000 - rnd.nextInt(25000), rnd.nextInt(10) == 0,
+                    rnd.nextInt(15), cities[rnd.nextInt(cities.length)]);
+        }
+        snapshot = BUILD.invoke(builder);
+
+        Object all = ALL.invoke();
+        young = SUSPENDED.invoke(POINTS.invoke(UNDER_21.invoke(all, today), 5, 6), false);
+        risky = POINTS.invoke(AGED_21.invoke(all, today), 10, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int count() throws Throwable {
+        return (int) COUNT.invokeExact(snapshot, young);
+    }
+
+    @Benchmark
+    public int[] countByCity() throws Throwable {
+        return (int[]) COUNT_BY_CITY.invokeExact(snapshot, risky);
+    }
+
+    @Benchmark
+    public int[] rows() throws Throwable {
+        return (int[]) ROWS.invokeExact(snapshot, young);
+    }
+
+    /** A (snapshot, query) handle on a scan method, both typed Object. */
+    private static MethodHandle scan(String name, Class<?> returnType) {
+        MethodHandle mh = Repo.method(Repo.COLUMNAR_SNAPSHOT, name, returnType, Repo.SNAPSHOT_QUERY);
+        return mh.asType(MethodType.methodType(returnType, Object.class, Object.class));
+    }
+}
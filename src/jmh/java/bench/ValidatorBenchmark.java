@@ -0,0 +1,100 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ValidatorBenchmark.java
+ *
+ * Cost of the ID, address and date rules on valid and invalid input.
+ *
+ * The rules are measured through Validation, which Person.checkID(...),
+ * checkAddress(...) and checkDate(...) wrap; the Person methods only add a
+ * println on failure, and timing System.out would drown out the rules
+ * themselves. Each invalid input fails the last rule its check tests, so the
+ * whole check runs.
+ *
+ * checkIDsBatch checks 1024 packed IDs per call (half of them invalid);
+ * divide its score by 1024 for the per-ID cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+
+    private static final MethodHandle CHECK_ID =
+            Repo.staticMethod("Validation", "checkID", int.class, CharSequence.class);
+    private static final MethodHandle CHECK_IDS =
+            Repo.staticMethod("Validation", "checkIDs", int.class, byte[].class, int.class, int.class, int[].class);
+    private static final MethodHandle CHECK_ADDRESS =
+            Repo.staticMethod("Validation", "checkAddress", int.class, CharSequence.class);
+    private static final MethodHandle CHECK_DATE =
+            Repo.staticMethod("Validation", "checkDate", int.class, CharSequence.class);
+
+    // Non-final fields, so the JIT cannot constant-fold the inputs
+    private String validID = "56s_d%&fAB";
+    private String invalidID = "56s_d%&fAb";
+    private byte[] packedIDs = packed(1024);
+    private int[] results = new int[1024];
+    private String validAddress = "32|Highland Street|Melbourne|Victoria|Australia";
+    private String invalidAddress = "32|Highland Street|Melbourne|Victoria|Austria";
+    private String validDate = "15-11-1990";
+    private String invalidDate = "31-13-1990";
+
+    @Benchmark
+    public int checkIDValid() throws Throwable {
+        return (int) CHECK_ID.invokeExact((CharSequence) validID);
+    }
+
+    @Benchmark
+    public int checkIDInvalid() throws Throwable {
+        return (int) CHECK_ID.invokeExact((CharSequence) invalidID);
+    }
+
+    @Benchmark
+    public int checkIDsBatch() throws Throwable {
+        return (int) CHECK_IDS.invokeExact(packedIDs, 0, 1024, results);
+    }
+
+    @Benchmark
+    public int checkAddressValid() throws Throwable {
+        return (int) CHECK_ADDRESS.invokeExact((CharSequence) validAddress);
+    }
+
+    @Benchmark
+    public int checkAddressInvalid() throws Throwable {
+        return (int) CHECK_ADDRESS.invokeExact((CharSequence) invalidAddress);
+    }
+
+    @Benchmark
+    public int checkDateValid() throws Throwable {
+        return (int) CHECK_DATE.invokeExact((CharSequence) validDate);
+    }
+
+    @Benchmark
+    public int checkDateInvalid() throws Throwable {
+        return (int) CHECK_DATE.invokeExact((CharSequence) invalidDate);
+    }
+
+    private byte[] packed(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i % 2 == 0 ? validID : invalidID);
+        }
+        return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
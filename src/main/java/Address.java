@@ -0,0 +1,196 @@
+/**
+ * Address.java
+ *
+ * Single-pass view over a pipe-delimited address
+ * "streetNumber|street|city|state|country", e.g.
+ * "32|Highland Street|Melbourne|Victoria|Australia".
+ *
+ * check(...) gives the same accept/reject result as the original
+ * address.split("\\|") rule in Person.checkAddress(...) without allocating:
+ * the text is scanned once for '|' and the last two fields are compared in
+ * place. Like String.split, trailing empty fields are ignored, so
+ * "1|St|City|Victoria|Australia|" has five parts, while leading and inner
+ * empty fields count.
+ *
+ * An Address instance remembers the delimiter positions of the last text it
+ * was reset(...) to, so callers can read the fields repeatedly without
+ * re-splitting, and can reuse one instance across many addresses.
+ */
+public final class Address {
+
+    /** check(...) results */
+    public static final int VALID = 0;
+    public static final int WRONG_PART_COUNT = 1;
+    public static final int NOT_VICTORIA_AUSTRALIA = 2;
+
+    public static final int STREET_NUMBER = 0;
+    public static final int STREET = 1;
+    public static final int CITY = 2;
+    public static final int STATE = 3;
+    public static final int COUNTRY = 4;
+
+    private static final String STATE_VALUE = "Victoria";
+    private static final String COUNTRY_VALUE = "Australia";
+
+    private CharSequence text;
+    // Field i spans [start[i], end[i])
+    private final int[] start = new int[5];
+    private final int[] end = new int[5];
+    private int result = WRONG_PART_COUNT;
+
+    /**
+     * check(address) returns VALID, WRONG_PART_COUNT or
+     * NOT_VICTORIA_AUSTRALIA for a non-null address.
+     */
+    public static int check(CharSequence address) {
+        int len = address.length();
+        int pipes = 0;
+        int p0 = -1, p1 = -1, p2 = -1, p3 = -1;
+        int lastNonPipe = -1;
+        for (int i = 0; i < len; i++) {
+            if (address.charAt(i) == '|') {
+                switch (pipes++) {
+                    case 0:
+                        p0 = i;
+                        break;
+                    case 1:
+                        p1 = i;
+                        break;
+                    case 2:
+                        p2 = i;
+                        break;
+                    case 3:
+                        p3 = i;
+                        break;
+                    default:
+                        break;
+                }
+            } else {
+                lastNonPipe = i;
+            }
+        }
+        // Trailing pipes only delimit empty fields, which split(...) drops
+        int fieldEnd = lastNonPipe + 1;
+        if (pipes - (len - fieldEnd) != 4) {
+            return WRONG_PART_COUNT;
+        }
+        if (!regionEquals(address, p2 + 1, p3, STATE_VALUE)
+                || !regionEquals(address, p3 + 1, fieldEnd, COUNTRY_VALUE)) {
+            return NOT_VICTORIA_AUSTRALIA;
+        }
+        return VALID;
+    }
+
+    public static boolean isValid(CharSequence address) {
+        return address != null && check(address) == VALID;
+    }
+
+    /**
+     * parse(address) returns a view of a valid address, or null.
+     */
+    public static Address parse(CharSequence address) {
+        Address a = new Address();
+        return a.reset(address) ? a : null;
+    }
+
+    /**
+     * reset(address) points this view at address and returns whether it is
+     * valid. Fields can only be read after a successful reset.
+     */
+    public boolean reset(CharSequence address) {
+        this.text = address;
+        if (address == null) {
+            result = WRONG_PART_COUNT;
+            return false;
+        }
+        result = check(address);
+        if (result == VALID) {
+            int field = 0;
+            start[0] = 0;
+            for (int i = 0; field < 4; i++) {
+                if (address.charAt(i) == '|') {
+                    end[field] = i;
+                    start[++field] = i + 1;
+                }
+            }
+            end[4] = start[4] + COUNTRY_VALUE.length();
+        }
+        return result == VALID;
+    }
+
+    /**
+     * result() is the check(...) result for the text of the last reset.
+     */
+    public int result() {
+        return result;
+    }
+
+    public int fieldStart(int field) {
+        requireValid();
+        return start[field];
+    }
+
+    public int fieldEnd(int field) {
+        requireValid();
+        return end[field];
+    }
+
+    /**
+     * fieldEquals(field, value) compares one field in place.
+     */
+    public boolean fieldEquals(int field, CharSequence value) {
+        requireValid();
+        return regionEquals(text, start[field], end[field], value);
+    }
+
+    /**
+     * field(field) copies one field out as a String.
+     */
+    public String field(int field) {
+        requireValid();
+        return text.subSequence(start[field], end[field]).toString();
+    }
+
+    public String streetNumber() {
+        return field(STREET_NUMBER);
+    }
+
+    public String street() {
+        return field(STREET);
+    }
+
+    public String city() {
+        return field(CITY);
+    }
+
+    public String state() {
+        return field(STATE);
+    }
+
+    public String country() {
+        return field(COUNTRY);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private void requireValid() {
+        if (result != VALID) {
+            throw new IllegalStateException("Address is not valid");
+        }
+    }
+
+    private static boolean regionEquals(CharSequence s, int from, int to, CharSequence value) {
+        int n = value.length();
+        if (to - from != n) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(from + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
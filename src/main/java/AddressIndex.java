@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * AddressIndex.java
+ *
+ * Secondary indexes over the parsed address of every person in a
+ * PersonRegistry:
+ *
+ * city → persons whose address has that city
+ * street address → persons at "number|street|city"
+ *
+ * so "all drivers in Geelong" or "everyone at 32 Highland Street,
+ * Melbourne" is one hash lookup plus a copy of the matching IDs, never a
+ * scan.
+ *
+ * Each person gets a dense int number when first seen. A posting list is
+ * an int[] of those numbers (4 bytes per entry, grown by half when full)
+ * in no particular order; each person also remembers its position in its
+ * two lists, so moving a person to another address is an O(1) swap-remove
+ * plus an append, whatever the size of the lists.
+ *
+ * The index follows the registry as a RegistryListener: personAdded(...)
+ * inserts, personUpdated(...) re-files a person whose address changed
+ * (Person only lets that happen for drivers aged 18 or over) and
+ * re-labels one whose ID changed. Attach it with addListener(...) before
+ * the registry is used, or call addAll(registry) afterwards. All methods
+ * are thread-safe; queries share a read lock.
+ */
+public class AddressIndex implements RegistryListener {
+
+    /**
+     * Postings is one growable list of person numbers, with the key it is
+     * filed under so an emptied list is dropped by key.
+     */
+    private static final class Postings {
+        final String key;
+        int[] persons = new int[4];
+        int size;
+
+        Postings(String key) {
+            this.key = key;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<String, Integer> numbers = new HashMap<>();
+    private final List<String> IDs = new ArrayList<>();
+    private final HashMap<String, Postings> byCity = new HashMap<>();
+    private final HashMap<String, Postings> byStreet = new HashMap<>();
+    // Per person number: its two lists and its position in each
+    private Postings[] cityOf = new Postings[16];
+    private Postings[] streetOf = new Postings[16];
+    private int[] cityPos = new int[16];
+    private int[] streetPos = new int[16];
+    private final Address parser = new Address();
+
+    /**
+     * addAll(registry) indexes every person already in registry (persons
+     * already indexed are skipped).
+     */
+    public void addAll(PersonRegistry registry) {
+        registry.forEach(this::personAdded);
+    }
+
+    /**
+     * inCity(city) are the IDs of the persons whose address has city.
+     */
+    public String[] inCity(String city) {
+        return ids(byCity, city);
+    }
+
+    /**
+     * at(streetNumber, street, city) are the IDs of the persons at that
+     * street address.
+     */
+    public String[] at(String streetNumber, String street, String city) {
+        return ids(byStreet, streetKey(streetNumber, street, city));
+    }
+
+    public int countInCity(String city) {
+        lock.readLock().lock();
+        try {
+            Postings p = byCity.get(city);
+            return p == null ? 0 : p.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of distinct cities with at least one person. */
+    public int cityCount() {
+        lock.readLock().lock();
+        try {
+            return byCity.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return numbers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // RegistryListener: follow a registry's persons
+
+    @Override
+    public void personAdded(Person person) {
+        lock.writeLock().lock();
+        try {
+            if (numbers.containsKey(person.personID)) {
+                return;
+            }
+            int n = IDs.size();
+            IDs.add(person.personID);
+            numbers.put(person.personID, n);
+            ensureCapacity(n + 1);
+            file(n, person.getAddress());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void personUpdated(String previousID, Person person) {
+        lock.writeLock().lock();
+        try {
+            Integer n = numbers.get(previousID);
+            if (n == null) {
+                return;
+            }
+            if (!previousID.equals(person.personID)) {
+                numbers.remove(previousID);
+                numbers.put(person.personID, n);
+                IDs.set(n, person.personID);
+            }
+            parser.reset(person.getAddress());
+            String city = parser.city();
+            String street = streetKey(parser.streetNumber(), parser.street(), city);
+            if (byCity.get(city) != cityOf[n] || byStreet.get(street) != streetOf[n]) {
+                unfile(n);
+                file(n, person.getAddress());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void demeritAdded(Person person, String offenseDate, int points) {
+        // addresses do not change here
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private String[] ids(HashMap<String, Postings> index, String key) {
+        lock.readLock().lock();
+        try {
+            Postings p = index.get(key);
+            if (p == null) {
+                return new String[0];
+            }
+            String[] out = new String[p.size];
+            for (int i = 0; i < p.size; i++) {
+                out[i] = IDs.get(p.persons[i]);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * file(n, address) appends person n to the lists of its address.
+     */
+    private void file(int n, String address) {
+        parser.reset(address);
+        String city = parser.city();
+        Postings c = byCity.computeIfAbsent(city, Postings::new);
+        cityOf[n] = c;
+        cityPos[n] = append(c, n);
+        Postings s = byStreet.computeIfAbsent(streetKey(parser.streetNumber(), parser.street(), city),
+                Postings::new);
+        streetOf[n] = s;
+        streetPos[n] = append(s, n);
+    }
+
+    /**
+     * unfile(n) swap-removes person n from its two lists, dropping lists
+     * that become empty.
+     */
+    private void unfile(int n) {
+        if (remove(cityOf[n], cityPos[n], cityPos)) {
+            byCity.remove(cityOf[n].key);
+        }
+        if (remove(streetOf[n], streetPos[n], streetPos)) {
+            byStreet.remove(streetOf[n].key);
+        }
+        cityOf[n] = null;
+        streetOf[n] = null;
+    }
+
+    private static int append(Postings p, int n) {
+        if (p.size == p.persons.length) {
+            p.persons = Arrays.copyOf(p.persons, p.size + (p.size >> 1) + 1);
+        }
+        p.persons[p.size] = n;
+        return p.size++;
+    }
+
+    /**
+     * remove(p, at, positions) moves p's last entry into slot at, keeping
+     * positions in step. Returns true if p is now empty.
+     */
+    private static boolean remove(Postings p, int at, int[] positions) {
+        int last = p.persons[--p.size];
+        p.persons[at] = last;
+        positions[last] = at;
+        return p.size == 0;
+    }
+
+    private void ensureCapacity(int persons) {
+        if (persons > cityOf.length) {
+            int grown = Math.max(persons, cityOf.length + (cityOf.length >> 1));
+            cityOf = Arrays.copyOf(cityOf, grown);
+            streetOf = Arrays.copyOf(streetOf, grown);
+            cityPos = Arrays.copyOf(cityPos, grown);
+            streetPos = Arrays.copyOf(streetPos, grown);
+        }
+    }
+
+    private static String streetKey(String streetNumber, String street, String city) {
+        return streetNumber + '|' + street + '|' + city;
+    }
+}
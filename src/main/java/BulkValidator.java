@@ -0,0 +1,368 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * BulkValidator.java
+ *
+ * Command-line bulk mode: validates a CSV or TSV file of persons against
+ * exactly the rules of Person.addPerson(...) and splits it into accepted and
+ * rejected rows.
+ *
+ * Usage: java BulkValidator <input.csv|input.tsv> [accepted] [rejected] [threads]
+ *
+ * Each row is "ID,First Name,Last Name,Address,Birthdate" (tab-separated for
+ * a .tsv input; no quoting — addresses use '|' internally). A first row whose
+ * first field is "ID" is treated as a header and copied to both outputs.
+ * Accepted rows are copied byte for byte up to their line ending; every
+ * output line ends in '\n' (a "\r\n" ending becomes '\n'). Rejected rows
+ * get one extra field naming every failed rule (Validation.describe(...),
+ * or FIELD_COUNT for a row without exactly five fields). Empty lines are
+ * not rows: they are left out of both outputs and counted separately.
+ * Defaults: <input>.accepted, <input>.rejected, one thread per core.
+ *
+ * The input is memory-mapped and cut into chunks on line boundaries; chunks
+ * are validated on a ForkJoinPool using the silent Validation checks (no
+ * console I/O, no shared state) and their outputs are written back in input
+ * order. At most two chunks per thread are in flight, so memory stays bounded
+ * regardless of the input size.
+ */
+public class BulkValidator {
+
+    static final long DEFAULT_CHUNK_SIZE = 32L << 20;
+    static final String FIELD_COUNT = "FIELD_COUNT";
+
+    private static final Validation.Rule[] RULES = Validation.Rule.values();
+
+    /**
+     * Result holds the totals of one run. ruleCounts[r] counts rejected rows
+     * that failed Validation.Rule r; fieldCountErrors counts malformed rows;
+     * emptyLines counts the skipped empty lines (not included in rows).
+     */
+    public static final class Result {
+        public long rows;
+        public long accepted;
+        public long rejected;
+        public long fieldCountErrors;
+        public long emptyLines;
+        public final long[] ruleCounts = new long[RULES.length];
+        public long elapsedNanos;
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+        }
+
+        void add(Result r) {
+            rows += r.rows;
+            accepted += r.accepted;
+            rejected += r.rejected;
+            fieldCountErrors += r.fieldCountErrors;
+            emptyLines += r.emptyLines;
+            for (int i = 0; i < ruleCounts.length; i++) {
+                ruleCounts[i] += r.ruleCounts[i];
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java BulkValidator <input.csv|input.tsv> [accepted] [rejected] [threads]");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Path accepted = Paths.get(args.length > 1 ? args[1] : args[0] + ".accepted");
+        Path rejected = Paths.get(args.length > 2 ? args[2] : args[0] + ".rejected");
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+
+        Result r = validate(input, accepted, rejected, threads, DEFAULT_CHUNK_SIZE);
+
+        System.out.println("Rows: " + r.rows + " (accepted " + r.accepted + ", rejected " + r.rejected + ")");
+        if (r.emptyLines > 0) {
+            System.out.println("Empty lines skipped: " + r.emptyLines);
+        }
+        if (r.fieldCountErrors > 0) {
+            System.out.println("  " + FIELD_COUNT + ": " + r.fieldCountErrors);
+        }
+        for (Validation.Rule rule : RULES) {
+            if (r.ruleCounts[rule.ordinal()] > 0) {
+                System.out.println("  " + rule.name() + ": " + r.ruleCounts[rule.ordinal()]);
+            }
+        }
+        System.out.printf("Elapsed: %.3f s, %.0f rows/sec on %d threads%n",
+                r.elapsedNanos / 1e9, r.rowsPerSecond(), threads);
+    }
+
+    /**
+     * validate(...) runs one bulk validation. chunkSize is the target size of
+     * each unit of work, in bytes (a chunk always ends on a line boundary).
+     */
+    public static Result validate(Path input, Path acceptedOut, Path rejectedOut,
+            int threads, long chunkSize) throws IOException {
+        long started = System.nanoTime();
+        byte delimiter = input.getFileName().toString().endsWith(".tsv") ? (byte) '\t' : (byte) ',';
+        Result total = new Result();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                OutputStream accepted = new BufferedOutputStream(Files.newOutputStream(acceptedOut), 1 << 16);
+                OutputStream rejected = new BufferedOutputStream(Files.newOutputStream(rejectedOut), 1 << 16)) {
+            long[] bounds = chunkBounds(in, chunkSize);
+            ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            int chunks = bounds.length - 1;
+            while (next < chunks || !inFlight.isEmpty()) {
+                // Keep at most two chunks per thread queued or waiting to be written
+                while (next < chunks && inFlight.size() < 2 * threads) {
+                    long from = bounds[next];
+                    long to = bounds[next + 1];
+                    boolean first = next == 0;
+                    MappedByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+                    inFlight.add(pool.submit(() -> validateChunk(buf, delimiter, first)));
+                    next++;
+                }
+                Chunk c = join(inFlight.poll());
+                accepted.write(c.accepted.bytes, 0, c.accepted.size);
+                rejected.write(c.rejected.bytes, 0, c.rejected.size);
+                total.add(c.result);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        total.elapsedNanos = System.nanoTime() - started;
+        return total;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * Chunk is the output of one unit of work.
+     */
+    private static final class Chunk {
+        final ByteSink accepted = new ByteSink();
+        final ByteSink rejected = new ByteSink();
+        final Result result = new Result();
+    }
+
+    /**
+     * chunkBounds(...) cuts the file into pieces of about chunkSize bytes, each
+     * extended to just past the next '\n'. A piece is mapped as one buffer,
+     * so one that would still exceed Integer.MAX_VALUE bytes (a line of
+     * about 2 GB) fails with an IOException.
+     */
+    static long[] chunkBounds(FileChannel in, long chunkSize) throws IOException {
+        long size = in.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = 0;
+        while (pos < size) {
+            long end = Math.min(size, pos + Math.min(chunkSize, Integer.MAX_VALUE - 4096));
+            // Move end forward to the byte after the next newline
+            scan: while (end < size) {
+                probe.clear();
+                int n = in.read(probe, end);
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        end += i + 1;
+                        break scan;
+                    }
+                }
+                end += n;
+                if (end - pos > Integer.MAX_VALUE) {
+                    throw new IOException("Line starting before byte " + (pos + Integer.MAX_VALUE)
+                            + " is longer than a chunk can map (" + Integer.MAX_VALUE + " bytes)");
+                }
+            }
+            bounds.add(end);
+            pos = end;
+        }
+        long[] out = new long[bounds.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = bounds.get(i);
+        }
+        return out;
+    }
+
+    private static Chunk validateChunk(ByteBuffer buf, byte delimiter, boolean firstChunk) {
+        Chunk chunk = new Chunk();
+        AsciiView[] fields = { new AsciiView(), new AsciiView(), new AsciiView(), new AsciiView(),
+                new AsciiView() };
+        int[] cuts = new int[6];
+        int limit = buf.limit();
+        int lineStart = 0;
+        boolean header = firstChunk;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buf.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd < limit ? lineEnd + 1 : lineEnd;
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buf.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+
+            if (contentEnd > lineStart) {
+                // Split on the delimiter; cuts[i] is where field i starts
+                int count = 0;
+                cuts[0] = lineStart;
+                for (int i = lineStart; i < contentEnd && count < 5; i++) {
+                    if (buf.get(i) == delimiter) {
+                        cuts[++count] = i + 1;
+                    }
+                }
+                if (header && count == 4 && isHeader(buf, lineStart)) {
+                    chunk.accepted.write(buf, lineStart, contentEnd);
+                    chunk.accepted.write('\n');
+                    chunk.rejected.write(buf, lineStart, contentEnd);
+                    chunk.rejected.write('\n');
+                } else if (count != 4) {
+                    chunk.result.rows++;
+                    chunk.result.rejected++;
+                    chunk.result.fieldCountErrors++;
+                    reject(chunk, buf, lineStart, contentEnd, delimiter, FIELD_COUNT);
+                } else {
+                    cuts[5] = contentEnd + 1;
+                    for (int f = 0; f < 5; f++) {
+                        fields[f].reset(buf, cuts[f], cuts[f + 1] - 1);
+                    }
+                    int errors = Validation.checkPerson(fields[0].text(), fields[3].text(), fields[4].text());
+                    chunk.result.rows++;
+                    if (errors == 0) {
+                        chunk.result.accepted++;
+                        chunk.accepted.write(buf, lineStart, contentEnd);
+                        chunk.accepted.write('\n');
+                    } else {
+                        chunk.result.rejected++;
+                        for (int m = errors; m != 0; m &= m - 1) {
+                            chunk.result.ruleCounts[Integer.numberOfTrailingZeros(m)]++;
+                        }
+                        reject(chunk, buf, lineStart, contentEnd, delimiter, Validation.describe(errors));
+                    }
+                }
+            } else {
+                chunk.result.emptyLines++;
+            }
+            header = false;
+            lineStart = next;
+        }
+        return chunk;
+    }
+
+    private static boolean isHeader(ByteBuffer buf, int at) {
+        return buf.get(at) == 'I' && buf.get(at + 1) == 'D'
+                && (buf.get(at + 2) == ',' || buf.get(at + 2) == '\t');
+    }
+
+    private static void reject(Chunk chunk, ByteBuffer buf, int from, int to, byte delimiter, String reasons) {
+        chunk.rejected.write(buf, from, to);
+        chunk.rejected.write(delimiter);
+        for (int i = 0; i < reasons.length(); i++) {
+            chunk.rejected.write((byte) reasons.charAt(i));
+        }
+        chunk.rejected.write('\n');
+    }
+
+    private static Chunk join(Future<Chunk> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Validation task failed", e.getCause());
+        }
+    }
+
+    /**
+     * ByteSink is a growable byte array for one chunk's output.
+     */
+    private static final class ByteSink {
+        byte[] bytes = new byte[1 << 12];
+        int size;
+
+        void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(ByteBuffer buf, int from, int to) {
+            ensure(to - from);
+            buf.get(from, bytes, size, to - from);
+            size += to - from;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * AsciiView presents one field of the mapped file as a CharSequence
+     * without copying when it is pure ASCII; other fields are decoded as
+     * UTF-8 so non-ASCII characters are validated exactly as Strings are.
+     */
+    private static final class AsciiView implements CharSequence {
+        private ByteBuffer buf;
+        private int from;
+        private int length;
+
+        void reset(ByteBuffer buf, int from, int to) {
+            this.buf = buf;
+            this.from = from;
+            this.length = to - from;
+        }
+
+        CharSequence text() {
+            for (int i = 0; i < length; i++) {
+                if (buf.get(from + i) < 0) {
+                    byte[] raw = new byte[length];
+                    buf.get(from, raw);
+                    return new String(raw, StandardCharsets.UTF_8);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buf.get(from + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            byte[] raw = new byte[length];
+            buf.get(from, raw);
+            return new String(raw, StandardCharsets.US_ASCII);
+        }
+    }
+}
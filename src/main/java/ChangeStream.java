@@ -0,0 +1,622 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ChangeStream.java
+ *
+ * Change-data-capture feed of a PersonRegistry for downstream systems: one
+ * Event per successful addPerson, updatePersonalDetails and
+ * addDemeritPoints, carrying the old and new details and the suspension
+ * state before and after.
+ *
+ * Attach it with registry.addListener(stream). Events go into a ring of
+ * capacity pre-allocated Event slots: publishing copies field references
+ * (the Strings the registry already holds) into the next slot, so nothing
+ * is allocated per event. Publishing happens under the registry's stripe
+ * locks, behind a short publish lock, which makes the ring single-producer
+ * and numbers events in one global order (sequence 0, 1, 2, ...).
+ *
+ * Consumers never take the publish lock. Each Subscription has its own cursor and sees every
+ * event published after it subscribed: poll(consumer, max) copies a slot
+ * into the subscription's own Event under a seqlock (the slot's version is
+ * read before and after the copy, so a slot overwritten mid-copy is
+ * detected) and hands that to the consumer. start(name, consumer) runs the
+ * polling on a daemon thread.
+ *
+ * Policy says what happens when the producer is a full ring ahead of the
+ * slowest subscription:
+ *
+ * BLOCK — the producer waits for it (and with it the registry operation
+ * and its stripe lock).
+ * DROP — the producer overwrites; the lagging subscription skips to the
+ * oldest event still in the ring and counts the rest in lost().
+ * SPILL — before overwriting, the producer appends the unread event to a
+ * spill file; the lagging subscription reads its backlog from there, in
+ * order, then continues from the ring. Nothing is lost. Appends are
+ * buffered, not flushed one by one: a subscription that reaches the end of
+ * what is on disk flushes the rest itself. Once every subscription has read
+ * past the last spilled event the file is truncated, so it only holds what
+ * was spilled since the subscriptions last all caught up; close() deletes
+ * it. Spill writes and spill reads share a spill lock, never held while a
+ * consumer runs.
+ *
+ * For a batch addDemeritPoints(String[], ...), a person's suspension
+ * transition over the whole batch is reported on its first accepted row.
+ */
+public class ChangeStream implements RegistryListener, Closeable {
+
+    public enum Policy {
+        BLOCK, DROP, SPILL
+    }
+
+    public enum Type {
+        ADDED, UPDATED, DEMERIT
+    }
+
+    /**
+     * Event is one change. A consumer gets a reused instance: it must copy
+     * whatever it keeps. old* fields are null for ADDED; offenseDate is
+     * null and points 0 unless DEMERIT.
+     */
+    public static final class Event {
+        public long sequence;
+        public Type type;
+        public String personID;
+        public String previousID;
+        public String oldFirstName;
+        public String oldLastName;
+        public String oldAddress;
+        public String oldBirthdate;
+        public String firstName;
+        public String lastName;
+        public String address;
+        public String birthdate;
+        public String offenseDate;
+        public int points;
+        public boolean wasSuspended;
+        public boolean suspended;
+
+        /** suspensionChanged() is true when this change flipped isSuspended. */
+        public boolean suspensionChanged() {
+            return wasSuspended != suspended;
+        }
+
+        void copyFrom(Event e) {
+            sequence = e.sequence;
+            type = e.type;
+            personID = e.personID;
+            previousID = e.previousID;
+            oldFirstName = e.oldFirstName;
+            oldLastName = e.oldLastName;
+            oldAddress = e.oldAddress;
+            oldBirthdate = e.oldBirthdate;
+            firstName = e.firstName;
+            lastName = e.lastName;
+            address = e.address;
+            birthdate = e.birthdate;
+            offenseDate = e.offenseDate;
+            points = e.points;
+            wasSuspended = e.wasSuspended;
+            suspended = e.suspended;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(sequence);
+            out.writeByte(type.ordinal());
+            writeString(out, personID);
+            writeString(out, previousID);
+            writeString(out, oldFirstName);
+            writeString(out, oldLastName);
+            writeString(out, oldAddress);
+            writeString(out, oldBirthdate);
+            writeString(out, firstName);
+            writeString(out, lastName);
+            writeString(out, address);
+            writeString(out, birthdate);
+            writeString(out, offenseDate);
+            out.writeInt(points);
+            out.writeBoolean(wasSuspended);
+            out.writeBoolean(suspended);
+        }
+
+        void readFrom(DataInputStream in) throws IOException {
+            sequence = in.readLong();
+            type = TYPES[in.readByte()];
+            personID = readString(in);
+            previousID = readString(in);
+            oldFirstName = readString(in);
+            oldLastName = readString(in);
+            oldAddress = readString(in);
+            oldBirthdate = readString(in);
+            firstName = readString(in);
+            lastName = readString(in);
+            address = readString(in);
+            birthdate = readString(in);
+            offenseDate = readString(in);
+            points = in.readInt();
+            wasSuspended = in.readBoolean();
+            suspended = in.readBoolean();
+        }
+
+        private static void writeString(DataOutputStream out, String s) throws IOException {
+            out.writeBoolean(s != null);
+            if (s != null) {
+                out.writeUTF(s);
+            }
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+    }
+
+    /**
+     * Consumer handles events, in sequence order, on its subscription's
+     * polling thread.
+     */
+    @FunctionalInterface
+    public interface Consumer {
+        void onEvent(Event event);
+    }
+
+    private static final Type[] TYPES = Type.values();
+    private static final long WRITING = -1; // slot version while being overwritten
+
+    private final Policy policy;
+    private final int mask;
+    private final Event[] slots;
+    private final AtomicLongArray versions; // sequence held by each slot
+    private final ReentrantLock publishLock = new ReentrantLock();
+    // Replaced, never changed in place, under subscriptionsLock; read with
+    // an indexed loop so scanning it allocates nothing
+    private final Object subscriptionsLock = new Object();
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private final ThreadLocal<Event> before = ThreadLocal.withInitial(Event::new);
+    private final Path spillPath;
+    private final ReentrantLock spillLock = new ReentrantLock();
+    // Guarded by spillLock
+    private DataOutputStream spill;
+    private int spilled; // events in the spill file
+    private int spillGeneration; // bumped when the file is truncated
+    private volatile long spillEnd; // sequence after the last spilled event
+    private volatile long next; // sequence of the next event
+    private long gate; // cached slowest cursor, producer only
+
+    /**
+     * ChangeStream(capacity, policy) is a ring of capacity events (rounded
+     * up to a power of two) with BLOCK or DROP as its slow-consumer policy.
+     */
+    public ChangeStream(int capacity, Policy policy) {
+        this(capacity, policy, null);
+    }
+
+    /**
+     * ChangeStream(capacity, policy, spillPath) also names the spill file
+     * used by Policy.SPILL (required for it, ignored otherwise).
+     */
+    public ChangeStream(int capacity, Policy policy, Path spillPath) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be 2.." + (1 << 30));
+        }
+        if (policy == Policy.SPILL && spillPath == null) {
+            throw new IllegalArgumentException("Policy.SPILL needs a spill file");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.policy = policy;
+        this.mask = size - 1;
+        this.slots = new Event[size];
+        this.versions = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Event();
+            versions.set(i, WRITING);
+        }
+        this.spillPath = policy == Policy.SPILL ? spillPath : null;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /** Number of events published so far. */
+    public long published() {
+        return next;
+    }
+
+    /**
+     * subscribe() starts a subscription at the next event to be published.
+     */
+    public Subscription subscribe() {
+        publishLock.lock();
+        try {
+            Subscription s = new Subscription(next);
+            synchronized (subscriptionsLock) {
+                Subscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+                grown[grown.length - 1] = s;
+                subscriptions = grown;
+            }
+            gate = Math.min(gate, s.cursor);
+            return s;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * start(name, consumer) subscribes consumer and polls for it on a daemon
+     * thread until the subscription is closed.
+     */
+    public Subscription start(String name, Consumer consumer) {
+        Subscription s = subscribe();
+        Thread t = new Thread(() -> {
+            int idle = 0;
+            while (!s.closed) {
+                if (s.poll(consumer, 1024) > 0) {
+                    idle = 0;
+                } else if (++idle < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+        }, name);
+        t.setDaemon(true);
+        s.thread = t;
+        t.start();
+        return s;
+    }
+
+    /**
+     * Subscription is one consumer's position in the stream.
+     */
+    public final class Subscription implements Closeable {
+        private final Event event = new Event();
+        private volatile long cursor; // next sequence to read
+        private volatile boolean closed;
+        private volatile long lost;
+        private DataInputStream spillIn;
+        private int spillInGeneration;
+        private Thread thread;
+
+        private Subscription(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * poll(consumer, max) hands up to max available events to consumer
+         * and returns how many it handed over.
+         */
+        public int poll(Consumer consumer, int max) {
+            int delivered = 0;
+            while (delivered < max && !closed) {
+                long seq = cursor;
+                if (seq >= next) {
+                    break;
+                }
+                int slot = (int) seq & mask;
+                long version = versions.get(slot);
+                if (version == seq) {
+                    event.copyFrom(slots[slot]);
+                    VarHandle.loadLoadFence();
+                    if (versions.get(slot) == seq) {
+                        consumer.onEvent(event);
+                        cursor = seq + 1;
+                        delivered++;
+                        continue;
+                    }
+                } else if (version < seq) {
+                    break; // claimed but not yet written
+                }
+                // overrun: the slot already holds a later event
+                if (policy == Policy.SPILL) {
+                    int read = readSpill(consumer, max - delivered);
+                    if (read == 0) {
+                        break;
+                    }
+                    delivered += read;
+                } else {
+                    long oldest = Math.max(seq + 1, next - slots.length);
+                    lost += oldest - seq;
+                    cursor = oldest;
+                }
+            }
+            return delivered;
+        }
+
+        /** Number of published events this subscription has not read yet. */
+        public long lag() {
+            return next - cursor;
+        }
+
+        /** Events skipped under Policy.DROP because this subscription fell behind. */
+        public long lost() {
+            return lost;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            synchronized (subscriptionsLock) {
+                Subscription[] all = subscriptions;
+                Subscription[] rest = new Subscription[all.length];
+                int n = 0;
+                for (Subscription s : all) {
+                    if (s != this) {
+                        rest[n++] = s;
+                    }
+                }
+                if (n < all.length) {
+                    subscriptions = Arrays.copyOf(rest, n);
+                }
+            }
+            if (thread != null && thread != Thread.currentThread()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            try {
+                if (spillIn != null) {
+                    spillIn.close();
+                }
+            } catch (IOException e) {
+                // nothing left to read
+            }
+        }
+
+        /**
+         * readSpill(consumer, max) delivers this subscription's backlog from
+         * the spill file: events already overwritten in the ring.
+         */
+        private int readSpill(Consumer consumer, int max) {
+            int delivered = 0;
+            while (delivered < max) {
+                spillLock.lock();
+                try {
+                    if (!readSpilled()) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    spillLock.unlock();
+                }
+                consumer.onEvent(event);
+                cursor = event.sequence + 1;
+                delivered++;
+                if (versions.get((int) cursor & mask) <= cursor) {
+                    break; // the rest is still in the ring
+                }
+            }
+            if (cursor >= spillEnd) {
+                releaseSpill();
+            }
+            return delivered;
+        }
+
+        /**
+         * readSpilled() reads the next spilled event at or after the cursor
+         * into event, flushing the producer's buffered appends if the file
+         * ends first. Returns false if there is none yet. The caller holds
+         * spillLock.
+         */
+        private boolean readSpilled() throws IOException {
+            if (spillIn != null && spillInGeneration != spillGeneration) {
+                spillIn.close(); // truncated: everything in it was read
+                spillIn = null;
+            }
+            if (spillIn == null) {
+                spillIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillPath), 1 << 16));
+                spillInGeneration = spillGeneration;
+            }
+            boolean flushed = false;
+            while (true) {
+                spillIn.mark(1 << 20);
+                try {
+                    event.readFrom(spillIn);
+                } catch (EOFException e) {
+                    spillIn.reset();
+                    if (flushed || spill == null) {
+                        return false;
+                    }
+                    spill.flush();
+                    flushed = true;
+                    continue;
+                }
+                if (event.sequence >= cursor) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    // RegistryListener: publish each change
+
+    @Override
+    public void beforeChange(Person person) {
+        Event b = before.get();
+        b.oldFirstName = person.getFirstName();
+        b.oldLastName = person.getLastName();
+        b.oldAddress = person.getAddress();
+        b.oldBirthdate = person.getBirthdate();
+        b.wasSuspended = person.isSuspended;
+    }
+
+    @Override
+    public void personAdded(Person person) {
+        publish(Type.ADDED, null, person, null, 0, null, false);
+    }
+
+    @Override
+    public void personUpdated(String previousID, Person person) {
+        Event b = before.get();
+        publish(Type.UPDATED, previousID, person, null, 0, b, b.wasSuspended);
+    }
+
+    @Override
+    public void demeritAdded(Person person, String offenseDate, int points) {
+        Event b = before.get();
+        publish(Type.DEMERIT, null, person, offenseDate, points, null, b.wasSuspended);
+        b.wasSuspended = person.isSuspended; // later rows of a batch
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Subscription s : subscriptions) {
+            s.close();
+        }
+        publishLock.lock();
+        spillLock.lock();
+        try {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+            }
+            if (spillPath != null) {
+                Files.deleteIfExists(spillPath);
+            }
+        } finally {
+            spillLock.unlock();
+            publishLock.unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * publish(...) writes one event into the next slot: mark the slot
+     * WRITING, write the fields, then release the slot's new version.
+     */
+    private void publish(Type type, String previousID, Person p, String offenseDate, int points, Event old,
+            boolean wasSuspended) {
+        publishLock.lock();
+        try {
+            long seq = next;
+            int slot = (int) seq & mask;
+            // DROP never waits or spills, so it need not know the slowest cursor
+            if (policy != Policy.DROP && seq - slots.length >= gate) {
+                makeRoom(seq - slots.length, slot);
+            }
+            versions.set(slot, WRITING);
+            VarHandle.storeStoreFence();
+            Event e = slots[slot];
+            e.sequence = seq;
+            e.type = type;
+            e.personID = p.personID;
+            e.previousID = previousID;
+            e.oldFirstName = old == null ? null : old.oldFirstName;
+            e.oldLastName = old == null ? null : old.oldLastName;
+            e.oldAddress = old == null ? null : old.oldAddress;
+            e.oldBirthdate = old == null ? null : old.oldBirthdate;
+            e.firstName = p.getFirstName();
+            e.lastName = p.getLastName();
+            e.address = p.getAddress();
+            e.birthdate = p.getBirthdate();
+            e.offenseDate = offenseDate;
+            e.points = points;
+            e.wasSuspended = type == Type.ADDED ? p.isSuspended : wasSuspended;
+            e.suspended = p.isSuspended;
+            versions.setRelease(slot, seq);
+            next = seq + 1;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * makeRoom(overwritten, slot) applies the policy before the event
+     * overwritten is replaced, if some subscription has not read it yet.
+     */
+    private void makeRoom(long overwritten, int slot) {
+        gate = slowestCursor();
+        if (overwritten < gate) {
+            return;
+        }
+        switch (policy) {
+            case BLOCK:
+                for (int spins = 0; overwritten >= (gate = slowestCursor()); spins++) {
+                    if (spins < 100) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(10_000);
+                    }
+                }
+                break;
+            case SPILL:
+                spillLock.lock();
+                try {
+                    if (spill == null) {
+                        spill = openSpill();
+                    } else if (spilled > 0 && spillEnd <= gate) {
+                        truncateSpill();
+                    }
+                    slots[slot].writeTo(spill);
+                    spilled++;
+                    spillEnd = overwritten + 1;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    spillLock.unlock();
+                }
+                break;
+            case DROP:
+                break; // publish() skips makeRoom
+        }
+    }
+
+    /**
+     * releaseSpill() truncates the spill file if every subscription has read
+     * past everything in it.
+     */
+    private void releaseSpill() {
+        spillLock.lock();
+        try {
+            if (spill != null && spilled > 0 && spillEnd <= slowestCursor()) {
+                truncateSpill();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    /**
+     * truncateSpill() empties the spill file; subscriptions reopen it by
+     * its new generation. The caller holds spillLock.
+     */
+    private void truncateSpill() throws IOException {
+        spill.close();
+        spill = openSpill();
+        spilled = 0;
+        spillGeneration++;
+    }
+
+    private DataOutputStream openSpill() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillPath), 1 << 16));
+    }
+
+    private long slowestCursor() {
+        Subscription[] all = subscriptions;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < all.length; i++) {
+            min = Math.min(min, all[i].cursor);
+        }
+        return min;
+    }
+}
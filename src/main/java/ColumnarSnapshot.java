@@ -0,0 +1,429 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * ColumnarSnapshot.java
+ *
+ * Point-in-time, column-per-field copy of a registry for analytics scans,
+ * e.g. "how many drivers under 21 are within 2 points of suspension".
+ *
+ * Row i of the snapshot is one driver, spread over primitive columns:
+ *
+ * birthDays int epoch day of the birthdate
+ * suspended byte 1 if Person.isSuspended, else 0
+ * points int demerit points in the two-year window ending on the
+ * snapshot day (offenses on or after day minus 2 years)
+ * cities int code of the address's city (see city(code))
+ * IDs String personID (not scanned; for reporting rows)
+ *
+ * Queries are answered by count(...), rows(...) and countByCity(...), each
+ * one pass of a plain indexed loop over the int/byte arrays with no
+ * per-row objects, calls or branches, which the JIT compiles to tight
+ * (and where it can, vectorized) code.
+ *
+ * write(path) / read(path) store the columns back to back in one
+ * little-endian file.
+ */
+public class ColumnarSnapshot {
+
+    private static final int MAGIC = 0x50435331; // "PCS1"
+    private static final int VERSION = 1;
+
+    private final int day;
+    private final int size;
+    private final int[] birthDays;
+    private final byte[] suspended;
+    private final int[] points;
+    private final int[] cities;
+    private final String[] cityNames;
+    private final String[] IDs;
+
+    private ColumnarSnapshot(int day, int size, int[] birthDays, byte[] suspended, int[] points, int[] cities,
+            String[] cityNames, String[] IDs) {
+        this.day = day;
+        this.size = size;
+        this.birthDays = birthDays;
+        this.suspended = suspended;
+        this.points = points;
+        this.cities = cities;
+        this.cityNames = cityNames;
+        this.IDs = IDs;
+    }
+
+    /**
+     * of(registry, day) snapshots every registered person, with window
+     * points as of day (an epoch day). Rows are in ID order. A person whose
+     * birthdate is past the int epoch-day range (years beyond ~5.8 million,
+     * which Person accepts) has no row.
+     */
+    public static ColumnarSnapshot of(PersonRegistry registry, int day) {
+        String[] ids = registry.ids();
+        Builder b = new Builder(day, ids.length);
+        int windowStart = (int) DateCodec.minusYears(day, 2);
+        Address address = new Address();
+        for (String id : ids) {
+            registry.read(id, p -> {
+                long birthDay = DateCodec.parse(p.getBirthdate());
+                if (birthDay != (int) birthDay) {
+                    return null;
+                }
+                address.reset(p.getAddress());
+                b.add(p.personID, (int) birthDay, p.isSuspended, p.pointsFrom(windowStart), address.city());
+                return null;
+            });
+        }
+        return b.build();
+    }
+
+    /**
+     * Builder collects rows one at a time.
+     */
+    public static final class Builder {
+        private final int day;
+        private int size;
+        private int[] birthDays;
+        private byte[] suspended;
+        private int[] points;
+        private int[] cities;
+        private String[] IDs;
+        private final HashMap<String, Integer> cityCodes = new HashMap<>();
+        private String[] cityNames = new String[16];
+
+        public Builder(int day, int expectedSize) {
+            this.day = day;
+            int capacity = Math.max(16, expectedSize);
+            birthDays = new int[capacity];
+            suspended = new byte[capacity];
+            points = new int[capacity];
+            cities = new int[capacity];
+            IDs = new String[capacity];
+        }
+
+        public Builder add(String ID, int birthDay, boolean isSuspended, int windowPoints, String city) {
+            if (size == birthDays.length) {
+                int grown = size + (size >> 1);
+                birthDays = Arrays.copyOf(birthDays, grown);
+                suspended = Arrays.copyOf(suspended, grown);
+                points = Arrays.copyOf(points, grown);
+                cities = Arrays.copyOf(cities, grown);
+                IDs = Arrays.copyOf(IDs, grown);
+            }
+            birthDays[size] = birthDay;
+            suspended[size] = (byte) (isSuspended ? 1 : 0);
+            points[size] = windowPoints;
+            cities[size] = cityCode(city);
+            IDs[size] = ID;
+            size++;
+            return this;
+        }
+
+        public ColumnarSnapshot build() {
+            return new ColumnarSnapshot(day, size, birthDays, suspended, points, cities,
+                    Arrays.copyOf(cityNames, cityCodes.size()), IDs);
+        }
+
+        private int cityCode(String city) {
+            Integer code = cityCodes.get(city);
+            if (code == null) {
+                code = cityCodes.size();
+                if (code == cityNames.length) {
+                    cityNames = Arrays.copyOf(cityNames, code * 2);
+                }
+                cityNames[code] = city;
+                cityCodes.put(city, code);
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Query is a conjunction of inclusive ranges over the columns. Every
+     * field starts unrestricted; the methods return narrowed copies.
+     */
+    public static final class Query {
+        final int minBirthDay, maxBirthDay;
+        final int minPoints, maxPoints;
+        final int minSuspended, maxSuspended;
+        final int minCity, maxCity;
+
+        private Query(int minBirthDay, int maxBirthDay, int minPoints, int maxPoints, int minSuspended,
+                int maxSuspended, int minCity, int maxCity) {
+            this.minBirthDay = minBirthDay;
+            this.maxBirthDay = maxBirthDay;
+            this.minPoints = minPoints;
+            this.maxPoints = maxPoints;
+            this.minSuspended = minSuspended;
+            this.maxSuspended = maxSuspended;
+            this.minCity = minCity;
+            this.maxCity = maxCity;
+        }
+
+        public static Query all() {
+            return new Query(Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                    0, 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        public Query bornBetween(int fromDay, int toDay) {
+            return new Query(fromDay, toDay, minPoints, maxPoints, minSuspended, maxSuspended, minCity, maxCity);
+        }
+
+        /**
+         * under21On(day): born after day minus 21 years, i.e. younger than
+         * 21 on day by Period.between's count.
+         */
+        public Query under21On(int day) {
+            return bornBetween((int) DateCodec.minusYears(day, 21) + 1, Integer.MAX_VALUE);
+        }
+
+        public Query aged21OrOverOn(int day) {
+            return bornBetween(Integer.MIN_VALUE, (int) DateCodec.minusYears(day, 21));
+        }
+
+        public Query pointsBetween(int min, int max) {
+            return new Query(minBirthDay, maxBirthDay, min, max, minSuspended, maxSuspended, minCity, maxCity);
+        }
+
+        public Query suspended(boolean value) {
+            int v = value ? 1 : 0;
+            return new Query(minBirthDay, maxBirthDay, minPoints, maxPoints, v, v, minCity, maxCity);
+        }
+
+        public Query city(int code) {
+            return new Query(minBirthDay, maxBirthDay, minPoints, maxPoints, minSuspended, maxSuspended, code, code);
+        }
+    }
+
+    /**
+     * count(q) is the number of rows matching q.
+     */
+    public int count(Query q) {
+        int[] b = birthDays;
+        byte[] s = suspended;
+        int[] p = points;
+        int[] c = cities;
+        int n = size;
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int match = inRange(b[i], q.minBirthDay, q.maxBirthDay)
+                    & inRange(p[i], q.minPoints, q.maxPoints)
+                    & inRange(s[i], q.minSuspended, q.maxSuspended)
+                    & inRange(c[i], q.minCity, q.maxCity);
+            count += match;
+        }
+        return count;
+    }
+
+    /**
+     * rows(q) are the matching row numbers, ascending.
+     */
+    public int[] rows(Query q) {
+        int[] b = birthDays;
+        byte[] s = suspended;
+        int[] p = points;
+        int[] c = cities;
+        int n = size;
+        int[] out = new int[Math.min(n, 1024)];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int match = inRange(b[i], q.minBirthDay, q.maxBirthDay)
+                    & inRange(p[i], q.minPoints, q.maxPoints)
+                    & inRange(s[i], q.minSuspended, q.maxSuspended)
+                    & inRange(c[i], q.minCity, q.maxCity);
+            if (k == out.length) {
+                out = Arrays.copyOf(out, Math.min(n, k * 2));
+            }
+            out[k] = i; // written unconditionally, kept only on a match
+            k += match;
+        }
+        return Arrays.copyOf(out, k);
+    }
+
+    /**
+     * countByCity(q)[code] is the number of rows matching q in each city.
+     */
+    public int[] countByCity(Query q) {
+        int[] b = birthDays;
+        byte[] s = suspended;
+        int[] p = points;
+        int[] c = cities;
+        int n = size;
+        int[] counts = new int[cityNames.length];
+        for (int i = 0; i < n; i++) {
+            int match = inRange(b[i], q.minBirthDay, q.maxBirthDay)
+                    & inRange(p[i], q.minPoints, q.maxPoints)
+                    & inRange(s[i], q.minSuspended, q.maxSuspended);
+            counts[c[i]] += match;
+        }
+        return counts;
+    }
+
+    /**
+     * cityCode(name) is the code of a city, or -1 if no row has it.
+     */
+    public int cityCode(String name) {
+        for (int i = 0; i < cityNames.length; i++) {
+            if (cityNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String city(int code) {
+        return cityNames[code];
+    }
+
+    public int cityCount() {
+        return cityNames.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The epoch day the points column was computed for. */
+    public int day() {
+        return day;
+    }
+
+    public String id(int row) {
+        return IDs[row];
+    }
+
+    public int birthDay(int row) {
+        return birthDays[row];
+    }
+
+    public int points(int row) {
+        return points[row];
+    }
+
+    public boolean isSuspended(int row) {
+        return suspended[row] != 0;
+    }
+
+    public int cityOf(int row) {
+        return cities[row];
+    }
+
+    /**
+     * write(path) stores the snapshot as: header (magic, version, rows, day,
+     * city count), the birthDays, suspended, points and cities columns, then
+     * the city names and IDs as length-prefixed UTF-8.
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = order(ByteBuffer.allocate(20));
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(day).putInt(cityNames.length).flip();
+            writeFully(ch, header);
+
+            ByteBuffer ints = order(ByteBuffer.allocate(size * 4));
+            ints.asIntBuffer().put(birthDays, 0, size);
+            writeFully(ch, ints);
+            writeFully(ch, ByteBuffer.wrap(suspended, 0, size));
+            ints.clear();
+            ints.asIntBuffer().put(points, 0, size);
+            writeFully(ch, ints);
+            ints.clear();
+            ints.asIntBuffer().put(cities, 0, size);
+            writeFully(ch, ints);
+
+            writeStrings(ch, cityNames, cityNames.length);
+            writeStrings(ch, IDs, size);
+        }
+    }
+
+    /**
+     * read(path) loads a snapshot stored by write(...).
+     */
+    public static ColumnarSnapshot read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = order(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                throw new IOException(path + " is not a columnar snapshot");
+            }
+            int size = buf.getInt();
+            int day = buf.getInt();
+            int cityCount = buf.getInt();
+
+            int[] birthDays = new int[size];
+            buf.asIntBuffer().get(birthDays);
+            buf.position(buf.position() + size * 4);
+            byte[] suspended = new byte[size];
+            buf.get(suspended);
+            int[] points = new int[size];
+            buf.asIntBuffer().get(points);
+            buf.position(buf.position() + size * 4);
+            int[] cities = new int[size];
+            buf.asIntBuffer().get(cities);
+            buf.position(buf.position() + size * 4);
+
+            String[] cityNames = readStrings(buf, cityCount);
+            String[] IDs = readStrings(buf, size);
+            return new ColumnarSnapshot(day, size, birthDays, suspended, points, cities, cityNames, IDs);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * inRange(v, lo, hi) is 1 if lo ≤ v ≤ hi, else 0, without a branch.
+     */
+    private static int inRange(int v, int lo, int hi) {
+        // (v - lo) and (hi - v) are both ≥ 0 exactly in range; compute in long to avoid overflow
+        return (int) ((~((v - (long) lo) | (hi - (long) v))) >>> 63);
+    }
+
+    private static ByteBuffer order(ByteBuffer buf) {
+        return buf.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    private static void writeStrings(FileChannel ch, String[] values, int n) throws IOException {
+        ByteBuffer buf = order(ByteBuffer.allocate(1 << 16));
+        for (int i = 0; i < n; i++) {
+            byte[] bytes = values[i] == null ? null : values[i].getBytes(StandardCharsets.UTF_8);
+            int need = 4 + (bytes == null ? 0 : bytes.length);
+            if (buf.remaining() < need) {
+                buf.flip();
+                writeFully(ch, buf);
+                buf = order(ByteBuffer.allocate(Math.max(1 << 16, need)));
+            }
+            if (bytes == null) {
+                buf.putInt(-1);
+            } else {
+                buf.putInt(bytes.length).put(bytes);
+            }
+        }
+        buf.flip();
+        writeFully(ch, buf);
+    }
+
+    private static String[] readStrings(ByteBuffer buf, int n) {
+        String[] values = new String[n];
+        for (int i = 0; i < n; i++) {
+            int length = buf.getInt();
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                buf.get(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,628 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * CompactPersonTable.java
+ *
+ * Memory-compact storage for a large number of persons: the same add /
+ * update / demerit rules as Person, with each person kept as a row of
+ * primitive columns instead of an object graph.
+ *
+ * Per row:
+ * - ID: 10 bytes (ISO-8859-1) in one shared byte[]. An ID with a character
+ * above U+00FF (checkID(...) accepts any Unicode digit or special character)
+ * is kept as a String on the side and its bytes are zero.
+ * - first name, last name, street number, street and city: int codes into
+ * one string dictionary, so each distinct value is stored once. State and
+ * country are not stored at all; a valid address is always
+ * "...|Victoria|Australia".
+ * - birthdate: an int epoch day (the string is rebuilt on demand).
+ * - demerits: a sorted int[] of offense days and a byte[] of each day's
+ * points (same-day offenses summed, capped at Byte.MAX_VALUE, far above any
+ * threshold), both allocated on the first offense and holding only the two
+ * years up to the newest offense, as a Person with History.TWO_YEARS does
+ * (an offense back-dated behind them is "Failure"); rows with no offenses
+ * cost two null references.
+ * - suspension: one bit.
+ * - an int slot in the open-addressing ID → row index.
+ *
+ * Read-back values are canonical: address(row) drops trailing '|'s that
+ * checkAddress(...) ignores, and birthdate(row) is the dd-MM-yyyy form of
+ * the stored day (so "31-02-2023" reads back as "28-02-2023"). Birthdates
+ * whose epoch day does not fit in an int (years past ~5.8 million) are
+ * rejected as DATE_FORMAT.
+ *
+ * Like Person, a table is not thread-safe.
+ */
+public class CompactPersonTable {
+
+    public static final String STATE = "Victoria";
+    public static final String COUNTRY = "Australia";
+
+    private static final int ID_LENGTH = 10;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int FIRST_OFFENSE_CAPACITY = 4;
+
+    private int size;
+
+    // Row columns
+    private byte[] ids;
+    private int[] firstNames;
+    private int[] lastNames;
+    private int[] streetNumbers;
+    private int[] streets;
+    private int[] cities;
+    private int[] birthDays;
+    private int[][] offenseDays; // per row: [0] = count, [1..count] = sorted days; null until first offense
+    private byte[][] offensePoints; // per row: points of offenseDays[row][i + 1] at [i]
+    private long[] suspended; // bit per row
+
+    // IDs with a character above U+00FF, by row
+    private final HashMap<Integer, String> wideIDs = new HashMap<>();
+
+    // ID → row + 1 (0 = empty), linear probing, at most 3/4 full
+    private int[] slots;
+
+    private final Dictionary strings = new Dictionary();
+    private final Address parsed = new Address();
+    // "Today" for the under-18 address rule
+    private final DayClock clock;
+
+    public CompactPersonTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * expectedSize rows can be added without growing any array.
+     */
+    public CompactPersonTable(int expectedSize) {
+        this(expectedSize, DayClock.SYSTEM);
+    }
+
+    /**
+     * A table created with a clock judges "today" (for the under-18 address
+     * rule) by it, as Person and PersonRegistry do.
+     */
+    public CompactPersonTable(int expectedSize, DayClock clock) {
+        this.clock = clock;
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        ids = new byte[capacity * ID_LENGTH];
+        firstNames = new int[capacity];
+        lastNames = new int[capacity];
+        streetNumbers = new int[capacity];
+        streets = new int[capacity];
+        cities = new int[capacity];
+        birthDays = new int[capacity];
+        offenseDays = new int[capacity][];
+        offensePoints = new byte[capacity][];
+        suspended = new long[(capacity + 63) >>> 6];
+        slots = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * addPerson(...) is Person.tryAddPerson(...) for a new row: 0 on
+     * success, Rule.REGISTRY_DUPLICATE_ID.bit if ID is already in the table,
+     * or the Validation bits of the failed checks.
+     */
+    public int addPerson(String ID, String first, String last, String address, String birthdate) {
+        int errors = Validation.checkPerson(ID, address, birthdate);
+        if (errors != 0) {
+            return errors;
+        }
+        long birthDay = DateCodec.parse(birthdate);
+        if (birthDay != (int) birthDay) {
+            return Validation.Rule.DATE_FORMAT.bit;
+        }
+        if (find(ID) >= 0) {
+            return Validation.Rule.REGISTRY_DUPLICATE_ID.bit;
+        }
+
+        ensureCapacity(size + 1);
+        int row = size++;
+        setID(row, ID);
+        setDetails(row, first, last, address);
+        birthDays[row] = (int) birthDay;
+        insertSlot(row);
+        return 0;
+    }
+
+    /**
+     * updatePersonalDetails(currentID, ...) applies
+     * Person.tryUpdatePersonalDetails(...) to the row registered as
+     * currentID, re-keying it if the ID changes. Returns 0 on success,
+     * Rule.REGISTRY_UNKNOWN_ID.bit / Rule.REGISTRY_DUPLICATE_ID.bit, or the
+     * Validation bits of the broken update rule.
+     */
+    public int updatePersonalDetails(String currentID, String newID, String newFirst, String newLast,
+            String newAddress, String newBirthday) {
+        int row = find(currentID);
+        if (row < 0) {
+            return Validation.Rule.REGISTRY_UNKNOWN_ID.bit;
+        }
+        if (newID == null) {
+            return Validation.Rule.UPDATE_NEW_ID_INVALID.bit | Validation.Rule.ID_LENGTH.bit;
+        }
+        boolean rekey = !newID.equals(currentID);
+        if (rekey && find(newID) >= 0) {
+            return Validation.Rule.REGISTRY_DUPLICATE_ID.bit;
+        }
+
+        // The rules live in Person; run them on a throwaway copy of the row
+        Person p = new Person(PersonStore.NONE, clock);
+        p.restore(currentID, firstName(row), lastName(row), address(row), birthdate(row));
+        int errors = p.tryUpdatePersonalDetails(newID, newFirst, newLast, newAddress, newBirthday);
+        if (errors != 0) {
+            return errors;
+        }
+        long birthDay = DateCodec.parse(p.getBirthdate());
+        if (birthDay != (int) birthDay) {
+            return Validation.Rule.UPDATE_BIRTHDATE_INVALID.bit;
+        }
+
+        if (rekey) {
+            removeSlot(row);
+            setID(row, newID);
+            insertSlot(row);
+        }
+        setDetails(row, p.getFirstName(), p.getLastName(), p.getAddress());
+        birthDays[row] = (int) birthDay;
+        return 0;
+    }
+
+    /**
+     * addDemeritPoints(ID, offenseDate, points) is
+     * Person.addDemeritPoints(offenseDate, points) for the row registered as
+     * ID; "Failure" if there is none.
+     *
+     * 1) Parse offenseDate and check points (1–6).
+     * 2) Record the offense, adding to any offense on the same day.
+     * 3) Suspended iff the points on or after offenseDate minus 2 years
+     * exceed 6 (under 21 at the offense) or 12.
+     * 4) Evict offenses dated before the newest offense minus 2 years.
+     *
+     * As in a Person with History.TWO_YEARS, an offense dated before that
+     * horizon is "Failure".
+     */
+    public String addDemeritPoints(String ID, String offenseDate, int points) {
+        int row = find(ID);
+        if (row < 0) {
+            return "Failure";
+        }
+        // 1) Parse + range check
+        long day = DateCodec.parse(offenseDate);
+        if (day == DateCodec.INVALID || day != (int) day) {
+            return "Failure";
+        }
+        if (points < 1 || points > 6) {
+            return "Failure";
+        }
+        int[] held = offenseDays[row];
+        if (held != null && held[0] > 0 && day < DateCodec.minusYears(held[held[0]], 2)) {
+            return "Failure";
+        }
+
+        // 2) Insert into the row's sorted offense arrays
+        putOffense(row, (int) day, (byte) points);
+
+        // 3) Two-year window relative to this offense
+        long age = DateCodec.yearsBetween(birthDays[row], day);
+        int threshold = (age < 21) ? 6 : 12;
+        setSuspended(row, sumFrom(row, (int) DateCodec.minusYears(day, 2)) > threshold);
+
+        // 4) Same two-year horizon as Person
+        evictOffenses(row);
+        return "Success";
+    }
+
+    /**
+     * find(ID) is the row registered as ID, or -1.
+     */
+    public int find(CharSequence ID) {
+        if (ID == null || ID.length() != ID_LENGTH) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int i = hash(ID) & mask;; i = (i + 1) & mask) {
+            int entry = slots[i];
+            if (entry == 0) {
+                return -1;
+            }
+            if (idEquals(entry - 1, ID)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    public boolean contains(CharSequence ID) {
+        return find(ID) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String id(int row) {
+        checkRow(row);
+        int base = row * ID_LENGTH;
+        if (ids[base] == 0) {
+            return wideIDs.get(row);
+        }
+        char[] c = new char[ID_LENGTH];
+        for (int i = 0; i < ID_LENGTH; i++) {
+            c[i] = (char) (ids[base + i] & 0xFF);
+        }
+        return new String(c);
+    }
+
+    public String firstName(int row) {
+        checkRow(row);
+        return strings.get(firstNames[row]);
+    }
+
+    public String lastName(int row) {
+        checkRow(row);
+        return strings.get(lastNames[row]);
+    }
+
+    public String address(int row) {
+        checkRow(row);
+        return strings.get(streetNumbers[row]) + '|' + strings.get(streets[row]) + '|'
+                + strings.get(cities[row]) + '|' + STATE + '|' + COUNTRY;
+    }
+
+    public String birthdate(int row) {
+        checkRow(row);
+        return DateCodec.format(birthDays[row]);
+    }
+
+    public int birthDay(int row) {
+        checkRow(row);
+        return birthDays[row];
+    }
+
+    public int offenseCount(int row) {
+        checkRow(row);
+        return offenseDays[row] == null ? 0 : offenseDays[row][0];
+    }
+
+    /**
+     * offenseDay(row, i) is the date (epoch day) of the row's i-th offense,
+     * in date order.
+     */
+    public int offenseDay(int row, int i) {
+        checkRow(row);
+        if (i < 0 || i >= offenseCount(row)) {
+            throw new IndexOutOfBoundsException("offense " + i + " of " + offenseCount(row));
+        }
+        return offenseDays[row][i + 1];
+    }
+
+    /**
+     * pointsFrom(row, day) is the total points of the row's offenses on or
+     * after day (an epoch day).
+     */
+    public int pointsFrom(int row, int day) {
+        checkRow(row);
+        return offenseDays[row] == null ? 0 : sumFrom(row, day);
+    }
+
+    public boolean isSuspended(int row) {
+        checkRow(row);
+        return (suspended[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * toPerson(row, store) is the row as a regular Person (with its offenses
+     * and suspension flag, and History.TWO_YEARS like the table). Later
+     * changes to the Person go to store, not back to this table.
+     */
+    public Person toPerson(int row, PersonStore store) {
+        checkRow(row);
+        Person p = new Person(store, clock, Person.History.TWO_YEARS);
+        p.restore(id(row), firstName(row), lastName(row), address(row), birthdate(row));
+        // Load the ledger as held: a day's summed points may exceed what one
+        // addDemeritPoints(...) call accepts
+        int n = offenseCount(row);
+        int[] days = new int[n];
+        int[] points = new int[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = offenseDays[row][i + 1];
+            points[i] = offensePoints[row][i];
+        }
+        p.restoreDemerits(days, points, n, isSuspended(row));
+        return p;
+    }
+
+    /**
+     * estimatedBytes() is the heap held by this table with compressed
+     * references (16-byte array headers, 4-byte references): every column at
+     * its current capacity, the offense arrays, the slot index and the
+     * dictionary's strings. HashMap overhead of the dictionary and of wide
+     * IDs is counted at 48 bytes per entry.
+     */
+    public long estimatedBytes() {
+        int capacity = firstNames.length;
+        long bytes = array(ids.length, 1)
+                + 6 * array(capacity, 4)
+                + 2 * array(capacity, 4) // offenseDays / offensePoints reference arrays
+                + array(suspended.length, 8)
+                + array(slots.length, 4);
+        for (int row = 0; row < size; row++) {
+            if (offenseDays[row] != null) {
+                bytes += array(offenseDays[row].length, 4) + array(offensePoints[row].length, 1);
+            }
+        }
+        for (String id : wideIDs.values()) {
+            bytes += 48 + stringBytes(id);
+        }
+        return bytes + strings.estimatedBytes();
+    }
+
+    public int distinctStrings() {
+        return strings.size();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+    }
+
+    private void setID(int row, String ID) {
+        int base = row * ID_LENGTH;
+        boolean wide = false;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            wide |= ID.charAt(i) > 0xFF;
+        }
+        if (wide) {
+            Arrays.fill(ids, base, base + ID_LENGTH, (byte) 0);
+            wideIDs.put(row, ID);
+            return;
+        }
+        // A Latin-1 ID starts with '0'–'9', so a zero first byte marks a wide ID
+        wideIDs.remove(row);
+        for (int i = 0; i < ID_LENGTH; i++) {
+            ids[base + i] = (byte) ID.charAt(i);
+        }
+    }
+
+    private boolean idEquals(int row, CharSequence ID) {
+        int base = row * ID_LENGTH;
+        if (ids[base] == 0) {
+            String wide = wideIDs.get(row);
+            return wide.contentEquals(ID);
+        }
+        for (int i = 0; i < ID_LENGTH; i++) {
+            if ((ids[base + i] & 0xFF) != ID.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setDetails(int row, String first, String last, String address) {
+        parsed.reset(address);
+        firstNames[row] = strings.code(first);
+        lastNames[row] = strings.code(last);
+        streetNumbers[row] = strings.code(parsed.streetNumber());
+        streets[row] = strings.code(parsed.street());
+        cities[row] = strings.code(parsed.city());
+    }
+
+    private void setSuspended(int row, boolean value) {
+        if (value) {
+            suspended[row >>> 6] |= 1L << row;
+        } else {
+            suspended[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    /**
+     * putOffense(row, day, points) inserts (day, points) into the row's
+     * sorted arrays, adding to the points of an existing day.
+     */
+    private void putOffense(int row, int day, byte points) {
+        int[] days = offenseDays[row];
+        if (days == null) {
+            days = new int[FIRST_OFFENSE_CAPACITY + 1];
+            offenseDays[row] = days;
+            offensePoints[row] = new byte[FIRST_OFFENSE_CAPACITY];
+        }
+        int n = days[0];
+        int at = Arrays.binarySearch(days, 1, n + 1, day);
+        if (at > 0) {
+            byte[] pts = offensePoints[row];
+            pts[at - 1] = (byte) Math.min(Byte.MAX_VALUE, pts[at - 1] + points);
+            return;
+        }
+        at = -at - 1; // insertion point in days[1..n]
+        if (n + 1 == days.length) {
+            days = Arrays.copyOf(days, n * 2 + 1);
+            offenseDays[row] = days;
+            offensePoints[row] = Arrays.copyOf(offensePoints[row], n * 2);
+        }
+        byte[] pts = offensePoints[row];
+        System.arraycopy(days, at, days, at + 1, n + 1 - at);
+        System.arraycopy(pts, at - 1, pts, at, n + 1 - at);
+        days[at] = day;
+        pts[at - 1] = points;
+        days[0] = n + 1;
+    }
+
+    /**
+     * evictOffenses(row) drops the row's offenses dated before its newest
+     * offense minus 2 years.
+     */
+    private void evictOffenses(int row) {
+        int[] days = offenseDays[row];
+        int n = days[0];
+        int horizon = (int) DateCodec.minusYears(days[n], 2);
+        int at = Arrays.binarySearch(days, 1, n + 1, horizon);
+        if (at < 0) {
+            at = -at - 1;
+        }
+        int evicted = at - 1; // days[1..at-1] are before the horizon
+        if (evicted > 0) {
+            System.arraycopy(days, at, days, 1, n + 1 - at);
+            System.arraycopy(offensePoints[row], evicted, offensePoints[row], 0, n - evicted);
+            days[0] = n - evicted;
+        }
+    }
+
+    /**
+     * sumFrom(row, day) is the total points of the row's offenses on or
+     * after day.
+     */
+    private int sumFrom(int row, int day) {
+        int[] days = offenseDays[row];
+        int n = days[0];
+        int at = Arrays.binarySearch(days, 1, n + 1, day);
+        if (at < 0) {
+            at = -at - 1;
+        }
+        int sum = 0;
+        for (int i = at; i <= n; i++) {
+            sum += offensePoints[row][i - 1];
+        }
+        return sum;
+    }
+
+    private void ensureCapacity(int needed) {
+        int capacity = firstNames.length;
+        if (needed <= capacity) {
+            return;
+        }
+        int grown = Math.max(needed, capacity + (capacity >> 1));
+        ids = Arrays.copyOf(ids, grown * ID_LENGTH);
+        firstNames = Arrays.copyOf(firstNames, grown);
+        lastNames = Arrays.copyOf(lastNames, grown);
+        streetNumbers = Arrays.copyOf(streetNumbers, grown);
+        streets = Arrays.copyOf(streets, grown);
+        cities = Arrays.copyOf(cities, grown);
+        birthDays = Arrays.copyOf(birthDays, grown);
+        offenseDays = Arrays.copyOf(offenseDays, grown);
+        offensePoints = Arrays.copyOf(offensePoints, grown);
+        suspended = Arrays.copyOf(suspended, (grown + 63) >>> 6);
+        if (tableSizeFor(grown) > slots.length) {
+            slots = new int[tableSizeFor(grown)];
+            for (int row = 0; row < size; row++) {
+                insertSlot(row);
+            }
+        }
+    }
+
+    private void insertSlot(int row) {
+        int mask = slots.length - 1;
+        int i = rowHash(row) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = row + 1;
+    }
+
+    /**
+     * removeSlot(row) deletes the row's index entry and shifts later entries
+     * of the probe run back, so no tombstones are needed.
+     */
+    private void removeSlot(int row) {
+        int mask = slots.length - 1;
+        int hole = rowHash(row) & mask;
+        while (slots[hole] != row + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int home = rowHash(slots[i] - 1) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slots[hole] = slots[i];
+                hole = i;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private int rowHash(int row) {
+        int base = row * ID_LENGTH;
+        if (ids[base] == 0) {
+            return hash(wideIDs.get(row));
+        }
+        int h = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            h = 31 * h + (ids[base + i] & 0xFF);
+        }
+        return spread(h);
+    }
+
+    private static int hash(CharSequence ID) {
+        int h = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            h = 31 * h + ID.charAt(i);
+        }
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int rows) {
+        // Keep the index at most 3/4 full
+        long wanted = (long) rows * 4 / 3 + 1;
+        return (int) Math.min(1 << 30, Long.highestOneBit(wanted - 1) << 1);
+    }
+
+    private static long array(long length, int elementBytes) {
+        return (16 + length * elementBytes + 7) & ~7L;
+    }
+
+    private static long stringBytes(String s) {
+        // String object + its Latin-1 or UTF-16 byte[]
+        boolean latin1 = s.chars().allMatch(c -> c <= 0xFF);
+        return 24 + array(s.length(), latin1 ? 1 : 2);
+    }
+
+    /**
+     * Dictionary assigns each distinct string (including null) one int code.
+     */
+    private static final class Dictionary {
+        private final HashMap<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[64];
+        private int size;
+
+        int code(String s) {
+            Integer code = codes.get(s);
+            if (code != null) {
+                return code;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = s;
+            codes.put(s, size);
+            return size++;
+        }
+
+        String get(int code) {
+            return values[code];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long estimatedBytes() {
+            long bytes = array(values.length, 4) + 48L * size;
+            for (int i = 0; i < size; i++) {
+                if (values[i] != null) {
+                    bytes += stringBytes(values[i]);
+                }
+            }
+            return bytes;
+        }
+    }
+}
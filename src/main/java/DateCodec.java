@@ -0,0 +1,262 @@
+/**
+ * DateCodec.java
+ *
+ * Allocation-free, exception-free "dd-MM-yyyy" parsing and epoch-day
+ * arithmetic.
+ *
+ * parse(...) accepts exactly the strings that
+ * LocalDate.parse(s, DateTimeFormatter.ofPattern("dd-MM-yyyy")) accepts and
+ * returns the same date as an epoch day, including the formatter's quirks:
+ *
+ * - dd and MM are exactly two ASCII digits, 01–31 and 01–12
+ * - a day past the end of its month is clamped to the last day (the default
+ * SMART resolver turns 31-02-2023 into 28-02-2023 and 31-04-2023 into
+ * 30-04-2023)
+ * - yyyy is exactly four ASCII digits (0001–9999), or '+' followed by 5–19
+ * digits for years 10000–999999999; year 0, a '-' sign and anything after
+ * the year are rejected
+ *
+ * Epoch days are longs because the formatter accepts years up to 999999999;
+ * callers that store int days range-check first.
+ */
+public final class DateCodec {
+
+    /** Returned by parse(...) for anything the formatter would reject. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long MAX_YEAR = 999_999_999L;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long DAYS_PER_CYCLE = 146_097L;
+
+    private DateCodec() {
+    }
+
+    /**
+     * parse(s) returns the epoch day of a "dd-MM-yyyy" date, or INVALID.
+     */
+    public static long parse(CharSequence s) {
+        if (s == null) {
+            return INVALID;
+        }
+        int len = s.length();
+        if (len < 10 || s.charAt(2) != '-' || s.charAt(5) != '-') {
+            return INVALID;
+        }
+        int day = twoDigits(s, 0);
+        int month = twoDigits(s, 3);
+        if (day < 1 || day > 31 || month < 1 || month > 12) {
+            return INVALID;
+        }
+
+        long year;
+        char c = s.charAt(6);
+        if (c == '+') {
+            // Sign only allowed when the year exceeds the four-digit pad
+            int digits = len - 7;
+            if (digits < 5 || digits > 19) {
+                return INVALID;
+            }
+            year = 0;
+            for (int i = 7; i < len; i++) {
+                int d = s.charAt(i) - '0';
+                if (d < 0 || d > 9) {
+                    return INVALID;
+                }
+                if (year <= MAX_YEAR) {
+                    year = year * 10 + d; // stops growing once out of range
+                }
+            }
+        } else {
+            if (len != 10) {
+                return INVALID;
+            }
+            int hi = twoDigits(s, 6);
+            int lo = twoDigits(s, 8);
+            if (hi < 0 || lo < 0) {
+                return INVALID;
+            }
+            year = hi * 100 + lo;
+        }
+        if (year < 1 || year > MAX_YEAR) {
+            return INVALID;
+        }
+
+        // SMART resolution: clamp the day to the end of the month
+        int monthLength = monthLength(year, month);
+        if (day > monthLength) {
+            day = monthLength;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * isValid(s) is true exactly when parse(s) would succeed.
+     */
+    public static boolean isValid(CharSequence s) {
+        return parse(s) != INVALID;
+    }
+
+    /**
+     * toEpochDay(year, month, day) for a valid ISO date, as
+     * LocalDate.of(year, month, day).toEpochDay().
+     */
+    public static long toEpochDay(long year, int month, int day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * minusYears(epochDay, years) as
+     * LocalDate.ofEpochDay(epochDay).minusYears(years).toEpochDay(): the same
+     * day and month, with 29 February clamped to 28 February.
+     */
+    public static long minusYears(long epochDay, int years) {
+        long civil = civil(epochDay);
+        long year = year(civil) - years;
+        int month = month(civil);
+        int day = Math.min(dayOfMonth(civil), monthLength(year, month));
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * yearsBetween(fromDay, toDay) as
+     * Period.between(LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay)).getYears():
+     * whole years, counted the same way for 29 February birthdays and for
+     * negative spans.
+     */
+    public static long yearsBetween(long fromDay, long toDay) {
+        long from = civil(fromDay);
+        long to = civil(toDay);
+        long totalMonths = (year(to) * 12 + month(to)) - (year(from) * 12 + month(from));
+        int days = dayOfMonth(to) - dayOfMonth(from);
+        if (totalMonths > 0 && days < 0) {
+            totalMonths--;
+        } else if (totalMonths < 0 && days > 0) {
+            totalMonths++;
+        }
+        return totalMonths / 12;
+    }
+
+    /**
+     * birthday(birthDay, years) is the first day on which someone born on
+     * birthDay is years old by yearsBetween(...): the same day and month,
+     * except that a 29 February birth comes of age on 1 March in non-leap
+     * years. "age < years on day" is then just day < birthday(...).
+     */
+    public static long birthday(long birthDay, int years) {
+        long day = minusYears(birthDay, -years);
+        while (yearsBetween(birthDay, day) < years) {
+            day++;
+        }
+        return day;
+    }
+
+    /**
+     * format(epochDay) is the "dd-MM-yyyy" form of a day that parse(...) can
+     * return, as LocalDate.ofEpochDay(epochDay).format(...): years past 9999
+     * get a leading '+'.
+     */
+    public static String format(long epochDay) {
+        long civil = civil(epochDay);
+        int day = dayOfMonth(civil);
+        int month = month(civil);
+        long year = year(civil);
+        StringBuilder sb = new StringBuilder(11);
+        sb.append((char) ('0' + day / 10)).append((char) ('0' + day % 10)).append('-')
+                .append((char) ('0' + month / 10)).append((char) ('0' + month % 10)).append('-');
+        if (year > 9999) {
+            sb.append('+').append(year);
+        } else {
+            sb.append((char) ('0' + year / 1000)).append((char) ('0' + year / 100 % 10))
+                    .append((char) ('0' + year / 10 % 10)).append((char) ('0' + year % 10));
+        }
+        return sb.toString();
+    }
+
+    public static boolean isLeapYear(long year) {
+        return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+    }
+
+    public static int monthLength(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * twoDigits(s, at) decodes two ASCII digits, or returns -1.
+     */
+    private static int twoDigits(CharSequence s, int at) {
+        int a = s.charAt(at) - '0';
+        int b = s.charAt(at + 1) - '0';
+        if (a < 0 || a > 9 || b < 0 || b > 9) {
+            return -1;
+        }
+        return a * 10 + b;
+    }
+
+    /**
+     * civil(epochDay) packs (year, month, dayOfMonth) into one long as
+     * year << 9 | month << 5 | day, using the same algorithm as
+     * LocalDate.ofEpochDay(...).
+     */
+    static long civil(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60; // days since 0000-03-01
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        yearEst += marchMonth0 / 10;
+        return (yearEst << 9) | (month << 5) | dom;
+    }
+
+    static long year(long civil) {
+        return civil >> 9;
+    }
+
+    static int month(long civil) {
+        return (int) (civil >> 5) & 0xF;
+    }
+
+    static int dayOfMonth(long civil) {
+        return (int) civil & 0x1F;
+    }
+}
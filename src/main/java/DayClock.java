@@ -0,0 +1,50 @@
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * DayClock.java
+ *
+ * Source of "today" as an epoch day, for the rules that depend on the
+ * current date (Person's under-18 address rule).
+ *
+ * SYSTEM is today in the system default time zone, as LocalDate.now(). It
+ * resolves the date once and then only compares System.currentTimeMillis()
+ * against the next midnight, so asking it is cheap; a change of the
+ * default zone is seen from the next midnight on. fixed(day) always
+ * answers day: use it to pin tests to a date, or sample SYSTEM once and
+ * apply one "today" to a whole batch.
+ */
+@FunctionalInterface
+public interface DayClock {
+
+    DayClock SYSTEM = new DayClock() {
+        private volatile long[] cached = { 0, Long.MIN_VALUE, Long.MIN_VALUE }; // day, from, until (ms)
+
+        @Override
+        public long today() {
+            long now = System.currentTimeMillis();
+            long[] c = cached;
+            if (now >= c[1] && now < c[2]) {
+                return c[0];
+            }
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone);
+            long from = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            long until = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            cached = new long[] { date.toEpochDay(), from, until };
+            return date.toEpochDay();
+        }
+    };
+
+    /** today() is the current date as an epoch day. */
+    long today();
+
+    static DayClock fixed(long epochDay) {
+        return () -> epochDay;
+    }
+
+    static DayClock fixed(LocalDate date) {
+        return fixed(date.toEpochDay());
+    }
+}
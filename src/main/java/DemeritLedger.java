@@ -0,0 +1,248 @@
+import java.util.Arrays;
+
+/**
+ * DemeritLedger.java
+ *
+ * Date-ordered record of a driver's offenses, bucketed by day: offense date
+ * (as an epoch day) → total demerit points of that day's offenses, so a
+ * second offense on the same date adds to the first instead of replacing
+ * it.
+ *
+ * Dates are kept in a sorted int[] with a parallel points[] and a Fenwick
+ * (binary indexed) tree of prefix sums over the positions, so
+ *
+ * - sumFrom(day) ("points of every offense on or after day") is a binary
+ * search plus a prefix query: O(log N)
+ * - add(...) of a date later than every existing one (the usual case) is an
+ * append: O(log N)
+ * - add(...) of an existing date adds to its bucket: O(log N)
+ * - add(...) of an earlier, new date shifts the arrays and rebuilds the
+ * tree: O(N), with no per-entry allocation
+ * - addAll(...) merges a sorted batch of M offenses in one O(N + M) pass and
+ * rebuilds the tree once
+ * - evictBefore(...) drops (or hands to an Archive) the buckets older than
+ * a day that no window can reach any more, so a ledger holds only the
+ * offenses inside its owner's horizon; the arrays shrink as it empties.
+ */
+public class DemeritLedger {
+
+    /**
+     * Archive receives the buckets removed by evictBefore(...), oldest
+     * first.
+     */
+    @FunctionalInterface
+    public interface Archive {
+        void archive(int day, int points);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+
+    private int[] days = new int[MIN_CAPACITY];
+    private int[] points = new int[MIN_CAPACITY];
+    private int[] tree = new int[MIN_CAPACITY + 1]; // 1-based Fenwick tree over positions
+    private int size;
+    private int total;
+
+    /**
+     * add(day, pts) records an offense of pts on day, on top of any offenses
+     * already recorded that day. Returns the day's new total.
+     */
+    public int add(int day, int pts) {
+        int i = Arrays.binarySearch(days, 0, size, day);
+        if (i >= 0) {
+            points[i] += pts;
+            addToTree(i + 1, pts);
+            total += pts;
+            return points[i];
+        }
+
+        int at = -i - 1;
+        if (size == days.length) {
+            grow();
+        }
+        if (at == size) {
+            // Append: the new tree node covers (n - lowbit(n), n]
+            days[size] = day;
+            points[size] = pts;
+            size++;
+            int n = size;
+            tree[n] = pts + prefix(n - 1) - prefix(n - (n & -n));
+        } else {
+            System.arraycopy(days, at, days, at + 1, size - at);
+            System.arraycopy(points, at, points, at + 1, size - at);
+            days[at] = day;
+            points[at] = pts;
+            size++;
+            rebuild();
+        }
+        total += pts;
+        return pts;
+    }
+
+    /**
+     * addAll(batchDays, batchPoints, n) records the first n entries of a batch
+     * whose days are strictly increasing. A batch day that is already in the
+     * ledger adds to its bucket, exactly as add(...) would.
+     */
+    public void addAll(int[] batchDays, int[] batchPoints, int n) {
+        if (n == 0) {
+            return;
+        }
+        int cap = Math.max(days.length, size + n);
+        int[] mergedDays = new int[cap];
+        int[] mergedPoints = new int[cap];
+        int i = 0, j = 0, k = 0;
+        while (i < size || j < n) {
+            if (j == n || (i < size && days[i] < batchDays[j])) {
+                mergedDays[k] = days[i];
+                mergedPoints[k++] = points[i++];
+            } else {
+                int pts = batchPoints[j];
+                if (i < size && days[i] == batchDays[j]) {
+                    pts += points[i++]; // same day: one bucket
+                }
+                mergedDays[k] = batchDays[j++];
+                mergedPoints[k++] = pts;
+            }
+        }
+        days = mergedDays;
+        points = mergedPoints;
+        tree = new int[cap + 1];
+        size = k;
+        total = 0;
+        for (int m = 0; m < size; m++) {
+            total += points[m];
+        }
+        rebuild();
+    }
+
+    /**
+     * evictBefore(day, archive) removes the buckets dated before day,
+     * passing each to archive (if not null) oldest first. Returns the number
+     * removed.
+     */
+    public int evictBefore(int day, Archive archive) {
+        int n = lowerBound(day);
+        if (n == 0) {
+            return 0;
+        }
+        for (int i = 0; i < n; i++) {
+            if (archive != null) {
+                archive.archive(days[i], points[i]);
+            }
+            total -= points[i];
+        }
+        size -= n;
+        int cap = days.length;
+        while (cap > MIN_CAPACITY && size <= cap / 4) {
+            cap /= 2;
+        }
+        if (cap != days.length) {
+            days = Arrays.copyOfRange(days, n, n + cap);
+            points = Arrays.copyOfRange(points, n, n + cap);
+            tree = new int[cap + 1];
+        } else {
+            System.arraycopy(days, n, days, 0, size);
+            System.arraycopy(points, n, points, 0, size);
+        }
+        rebuild();
+        return n;
+    }
+
+    /**
+     * sumFrom(day) returns the total points of all offenses whose date is
+     * on or after day (inclusive).
+     */
+    public int sumFrom(int day) {
+        return total - prefix(lowerBound(day));
+    }
+
+    /**
+     * indexFrom(day) is the position of the earliest offense on or after
+     * day; size() if there is none.
+     */
+    public int indexFrom(int day) {
+        return lowerBound(day);
+    }
+
+    /**
+     * lastDay() is the date of the newest offense; only valid if size() > 0.
+     */
+    public int lastDay() {
+        return dayAt(size - 1);
+    }
+
+    /**
+     * dayAt(i) is the date of the i-th offense in date order (0 = oldest).
+     */
+    public int dayAt(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("offense " + i + " of " + size);
+        }
+        return days[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * lowerBound(day) is the number of offenses dated strictly before day.
+     */
+    private int lowerBound(int day) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * prefix(n) is the sum of points at positions 0..n-1.
+     */
+    private int prefix(int n) {
+        int sum = 0;
+        for (; n > 0; n -= n & -n) {
+            sum += tree[n];
+        }
+        return sum;
+    }
+
+    private void addToTree(int n, int delta) {
+        for (; n <= size; n += n & -n) {
+            tree[n] += delta;
+        }
+    }
+
+    private void rebuild() {
+        for (int n = 1; n <= size; n++) {
+            tree[n] = points[n - 1];
+        }
+        for (int n = 1; n <= size; n++) {
+            int parent = n + (n & -n);
+            if (parent <= size) {
+                tree[parent] += tree[n];
+            }
+        }
+    }
+
+    private void grow() {
+        int cap = days.length * 2;
+        days = Arrays.copyOf(days, cap);
+        points = Arrays.copyOf(points, cap);
+        tree = Arrays.copyOf(tree, cap + 1);
+    }
+}
@@ -0,0 +1,454 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * DetailsImporter.java
+ *
+ * Streams legacy Details.txt files (the five-line format written by
+ * Person.writeDetails(...)) into a registry:
+ *
+ * ID: 56s_d%&fAB
+ * First Name: John
+ * Last Name: Doe
+ * Address: 32|Highland Street|Melbourne|Victoria|Australia
+ * Birthdate: 15-11-1990
+ *
+ * Usage: java DetailsImporter <file|directory>...
+ *
+ * A file may hold one record or many concatenated ones (blank lines between
+ * records are skipped). Each record is re-checked with addPerson(...)'s
+ * rules (Validation.checkPerson(...)) and accepted ones are handed to a
+ * Sink, e.g. PersonRegistry::addPerson. A record with a missing, extra or
+ * out-of-order line, or a line longer than the read buffer, is counted as
+ * malformed and skipped; parsing resumes at the next "ID: " line.
+ *
+ * Memory stays constant however large the input is:
+ *
+ * - one reader thread parses every input through a single reusable byte
+ * buffer, decoding only the five field values of each record
+ * - parsed records travel to the calling thread in fixed-size batches over
+ * a bounded queue; when the sink falls behind the reader blocks on the
+ * full queue, so at most (queueBatches + 2) * batchSize records exist at
+ * any time
+ */
+public class DetailsImporter {
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    static final int DEFAULT_QUEUE_BATCHES = 8;
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final Validation.Rule[] RULES = Validation.Rule.values();
+    private static final byte[][] PREFIXES = {
+            ascii("ID: "), ascii("First Name: "), ascii("Last Name: "), ascii("Address: "), ascii("Birthdate: ") };
+    private static final String[][] END = new String[0][];
+
+    /**
+     * Sink receives each valid record and returns 0 if it took it, or the
+     * Validation bits explaining why not (as PersonRegistry.addPerson does).
+     */
+    @FunctionalInterface
+    public interface Sink {
+        int accept(String ID, String first, String last, String address, String birthdate);
+    }
+
+    /**
+     * Result holds the totals of one import. ruleCounts[r] counts rejected
+     * records that failed Validation.Rule r, whether the importer or the
+     * sink rejected them.
+     */
+    public static final class Result {
+        public long records;
+        public long accepted;
+        public long rejected;
+        public long malformed;
+        public final long[] ruleCounts = new long[RULES.length];
+        public long elapsedNanos;
+
+        public double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+        }
+
+        void reject(int errors) {
+            rejected++;
+            for (int m = errors; m != 0; m &= m - 1) {
+                ruleCounts[Integer.numberOfTrailingZeros(m)]++;
+            }
+        }
+
+        void add(Result r) {
+            records += r.records;
+            accepted += r.accepted;
+            rejected += r.rejected;
+            malformed += r.malformed;
+            for (int i = 0; i < ruleCounts.length; i++) {
+                ruleCounts[i] += r.ruleCounts[i];
+            }
+        }
+    }
+
+    private final int bufferSize;
+    private final int queueBatches;
+    private final int batchSize;
+
+    /** Records handed to the queue so far by the current import (for tests). */
+    volatile long produced;
+
+    public DetailsImporter() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_BATCHES, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * bufferSize bounds the length of one line, in bytes; queueBatches and
+     * batchSize bound how far the reader may run ahead of the sink.
+     */
+    public DetailsImporter(int bufferSize, int queueBatches, int batchSize) {
+        if (bufferSize < 64 || queueBatches < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("bufferSize >= 64, queueBatches >= 1 and batchSize >= 1 required");
+        }
+        this.bufferSize = bufferSize;
+        this.queueBatches = queueBatches;
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java DetailsImporter <file|directory>...");
+            return;
+        }
+        List<Path> roots = new ArrayList<>();
+        for (String arg : args) {
+            roots.add(Paths.get(arg));
+        }
+        PersonRegistry registry = new PersonRegistry();
+        Result r = new DetailsImporter().importFiles(files(roots), registry::addPerson);
+
+        System.out.println("Records: " + r.records + " (accepted " + r.accepted + ", rejected " + r.rejected
+                + "), malformed: " + r.malformed);
+        for (Validation.Rule rule : RULES) {
+            if (r.ruleCounts[rule.ordinal()] > 0) {
+                System.out.println("  " + rule.name() + ": " + r.ruleCounts[rule.ordinal()]);
+            }
+        }
+        System.out.printf("Elapsed: %.3f s, %.0f records/sec, registry size %d%n",
+                r.elapsedNanos / 1e9, r.recordsPerSecond(), registry.size());
+    }
+
+    /**
+     * importFiles(files, sink) imports every file in order. files is
+     * iterated lazily on the reader thread, so it may be a directory walk.
+     */
+    public Result importFiles(Iterable<Path> files, Sink sink) throws IOException {
+        return run(files.iterator(), null, sink);
+    }
+
+    /**
+     * importStream(in, sink) imports one stream of concatenated records. The
+     * stream is read to its end but not closed.
+     */
+    public Result importStream(InputStream in, Sink sink) throws IOException {
+        return run(Collections.emptyIterator(), in, sink);
+    }
+
+    /**
+     * files(roots) lists the regular files under each root (a root that is a
+     * file stands for itself), one directory at a time.
+     */
+    public static Iterable<Path> files(List<Path> roots) {
+        return () -> new Iterator<Path>() {
+            private final List<Path> pending = new ArrayList<>(roots);
+            private final List<Path> current = new ArrayList<>();
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == current.size() && !pending.isEmpty()) {
+                    current.clear();
+                    next = 0;
+                    Path p = pending.remove(0);
+                    if (!Files.isDirectory(p)) {
+                        current.add(p);
+                        continue;
+                    }
+                    try (DirectoryStream<Path> dir = Files.newDirectoryStream(p)) {
+                        for (Path child : dir) {
+                            if (Files.isDirectory(child)) {
+                                pending.add(child);
+                            } else {
+                                current.add(child);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cannot list " + p, e);
+                    }
+                    Collections.sort(current);
+                }
+                return next < current.size();
+            }
+
+            @Override
+            public Path next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.get(next++);
+            }
+        };
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * run(...) starts the reader on files (then stream, if not null) and
+     * feeds its batches to sink on the calling thread.
+     */
+    private Result run(Iterator<Path> files, InputStream stream, Sink sink) throws IOException {
+        long started = System.nanoTime();
+        produced = 0;
+        BlockingQueue<String[][]> queue = new ArrayBlockingQueue<>(queueBatches);
+        Result readerResult = new Result();
+        IOException[] failure = new IOException[1];
+        RuntimeException[] crash = new RuntimeException[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                Parser parser = new Parser(queue, readerResult);
+                while (files.hasNext()) {
+                    Path file = files.next();
+                    try (InputStream in = Files.newInputStream(file)) {
+                        parser.parse(in);
+                    }
+                }
+                if (stream != null) {
+                    parser.parse(stream);
+                }
+                parser.flush();
+            } catch (IOException e) {
+                failure[0] = e;
+            } catch (InterruptedException e) {
+                return; // the consumer gave up; nobody is waiting for END
+            } catch (RuntimeException e) {
+                crash[0] = e;
+            }
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                // consumer gave up
+            }
+        }, "details-importer");
+        reader.setDaemon(true);
+        reader.start();
+
+        Result total = new Result();
+        try {
+            while (true) {
+                String[][] batch = queue.take();
+                if (batch == END) {
+                    break;
+                }
+                for (String[] r : batch) {
+                    if (r == null) {
+                        break;
+                    }
+                    total.records++;
+                    int errors = sink.accept(r[0], r[1], r[2], r[3], r[4]);
+                    if (errors == 0) {
+                        total.accepted++;
+                    } else {
+                        total.reject(errors);
+                    }
+                }
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing", e);
+        } finally {
+            reader.interrupt();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        if (crash[0] != null) {
+            throw crash[0];
+        }
+        total.add(readerResult);
+        total.elapsedNanos = System.nanoTime() - started;
+        return total;
+    }
+
+    /**
+     * Parser turns bytes into records on the reader thread. Fields are
+     * filled in line order; field == 0 means "between records".
+     */
+    private final class Parser {
+        private final BlockingQueue<String[][]> queue;
+        private final Result result;
+        private final byte[] buf = new byte[bufferSize];
+        private int pos;
+        private int limit;
+        private String[] record = new String[5];
+        private int field;
+        private String[][] batch = new String[batchSize][];
+        private int batched;
+
+        Parser(BlockingQueue<String[][]> queue, Result result) {
+            this.queue = queue;
+            this.result = result;
+        }
+
+        /**
+         * parse(in) consumes one input. A record cut short by the end of the
+         * input is malformed, so records never span files.
+         */
+        void parse(InputStream in) throws IOException, InterruptedException {
+            pos = 0;
+            limit = 0;
+            boolean eof = false;
+            while (true) {
+                // 1) Find the next '\n' in the buffered bytes
+                int nl = indexOf('\n', pos, limit);
+                if (nl < 0 && !eof) {
+                    if (pos == 0 && limit == buf.length) {
+                        // 2) Line longer than the buffer: drop the record and the line
+                        malformed();
+                        skipLine(in);
+                        continue;
+                    }
+                    System.arraycopy(buf, pos, buf, 0, limit - pos);
+                    limit -= pos;
+                    pos = 0;
+                    int n = in.read(buf, limit, buf.length - limit);
+                    if (n < 0) {
+                        eof = true;
+                    } else {
+                        limit += n;
+                    }
+                    continue;
+                }
+                int end = nl < 0 ? limit : nl;
+                if (nl < 0 && pos == limit) {
+                    break; // eof, nothing left
+                }
+                int contentEnd = end > pos && buf[end - 1] == '\r' ? end - 1 : end;
+                line(pos, contentEnd);
+                pos = nl < 0 ? limit : nl + 1;
+            }
+            if (field != 0) {
+                malformed();
+            }
+        }
+
+        /**
+         * line(from, to) applies one line: blank lines end nothing and are
+         * skipped between records; otherwise the line must carry the next
+         * field's prefix.
+         */
+        private void line(int from, int to) throws InterruptedException {
+            if (from == to) {
+                if (field != 0) {
+                    malformed();
+                }
+                return;
+            }
+            if (!startsWith(from, to, PREFIXES[field])) {
+                if (field != 0) {
+                    malformed();
+                }
+                if (!startsWith(from, to, PREFIXES[0])) {
+                    return; // resynchronise on the next "ID: "
+                }
+            }
+            int valueFrom = from + PREFIXES[field].length;
+            record[field] = new String(buf, valueFrom, to - valueFrom, StandardCharsets.UTF_8);
+            if (++field == 5) {
+                field = 0;
+                complete();
+            }
+        }
+
+        private void complete() throws InterruptedException {
+            int errors = Validation.checkPerson(record[0], record[3], record[4]);
+            if (errors != 0) {
+                result.records++;
+                result.reject(errors);
+                return;
+            }
+            batch[batched++] = record;
+            record = new String[5];
+            if (batched == batch.length) {
+                flush();
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (batched == 0) {
+                return;
+            }
+            queue.put(batch); // blocks while the sink is behind
+            produced += batched;
+            batch = new String[batchSize][];
+            batched = 0;
+        }
+
+        private void malformed() {
+            result.malformed++;
+            field = 0;
+        }
+
+        private void skipLine(InputStream in) throws IOException {
+            while (true) {
+                int n = in.read(buf, 0, buf.length);
+                if (n < 0) {
+                    pos = 0;
+                    limit = 0;
+                    return;
+                }
+                int nl = indexOf('\n', 0, n);
+                if (nl >= 0) {
+                    pos = nl + 1;
+                    limit = n;
+                    return;
+                }
+            }
+        }
+
+        private int indexOf(int b, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buf[i] == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean startsWith(int from, int to, byte[] prefix) {
+            if (to - from < prefix.length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (buf[from + i] != prefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,414 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * DuplicateDetector.java
+ *
+ * Finds persons registered more than once under different IDs: the same
+ * last name and birthdate, and first names that plausibly belong to the
+ * same human ("David" / "david", "D" / "David", "Jon" / "John").
+ *
+ * Usage: java DuplicateDetector [--threads N] <Details.txt|directory>...
+ *
+ * Every other argument is an input, so a directory named e.g. "2024" is
+ * scanned, not taken as a thread count.
+ *
+ * Comparing every pair is hopeless at millions of records, so records are
+ * first blocked: each gets a 39-bit hash of (normalized last name, birth
+ * epoch day) packed above its 25-bit row number in one long, and the longs
+ * are sorted with Arrays.parallelSort. Records that can be duplicates now
+ * sit in one run of equal hashes (a "bucket"), and only pairs inside a
+ * bucket are compared, on a ForkJoinPool, bucket runs split into contiguous
+ * segments. The hash only groups; the comparison re-checks the exact
+ * normalized last name and birth day, so a hash collision costs time,
+ * never a false match.
+ *
+ * Memory: the records themselves (IDs and names are the caller's Strings,
+ * not copied), 12 bytes per record for the birth day and sort key, and per
+ * bucket being compared its normalized names and union-find array — so the
+ * working set beyond the input is proportional to the largest bucket.
+ *
+ * Names are normalized by keeping letters only, lower-cased: "O'Brien",
+ * "o brien" and "OBRIEN" are the same last name.
+ */
+public class DuplicateDetector {
+
+    private static final String USAGE = "Usage: java DuplicateDetector [--threads N] <Details.txt|directory>...";
+
+    static final int ROW_BITS = 25;
+    public static final int MAX_RECORDS = 1 << ROW_BITS;
+    private static final long ROW_MASK = MAX_RECORDS - 1;
+
+    private final int size;
+    private final String[] IDs;
+    private final String[] firstNames;
+    private final String[] lastNames;
+    private final int[] birthDays;
+
+    private DuplicateDetector(int size, String[] IDs, String[] firstNames, String[] lastNames, int[] birthDays) {
+        this.size = size;
+        this.IDs = IDs;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.birthDays = birthDays;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println(USAGE);
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> roots = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("--threads needs a count. " + USAGE);
+                }
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                roots.add(Paths.get(args[i]));
+            }
+        }
+        if (roots.isEmpty()) {
+            System.out.println(USAGE);
+            return;
+        }
+        Builder b = new Builder(1 << 16);
+        new DetailsImporter().importFiles(DetailsImporter.files(roots),
+                (ID, first, last, address, birthdate) -> b.add(ID, first, last, birthdate) ? 0
+                        : Validation.Rule.DATE_FORMAT.bit);
+        DuplicateDetector detector = b.build();
+        long start = System.nanoTime();
+        List<Group> groups = detector.find(threads);
+        long elapsed = System.nanoTime() - start;
+        for (Group g : groups) {
+            System.out.println(g);
+        }
+        System.out.printf("%d records, %d candidate groups, %.3f s on %d threads%n",
+                detector.size(), groups.size(), elapsed / 1e9, threads);
+    }
+
+    /**
+     * of(registry) collects every person currently in registry.
+     */
+    public static DuplicateDetector of(PersonRegistry registry) {
+        Builder b = new Builder(registry.size());
+        registry.forEach(p -> b.add(p.personID, p.getFirstName(), p.getLastName(), p.getBirthdate()));
+        return b.build();
+    }
+
+    /**
+     * Builder collects records one at a time.
+     */
+    public static final class Builder {
+        private int size;
+        private String[] IDs;
+        private String[] firstNames;
+        private String[] lastNames;
+        private int[] birthDays;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, Math.min(expectedSize, MAX_RECORDS));
+            IDs = new String[capacity];
+            firstNames = new String[capacity];
+            lastNames = new String[capacity];
+            birthDays = new int[capacity];
+        }
+
+        /**
+         * add(ID, first, last, birthdate) adds one record; returns false
+         * (and skips it) if birthdate is not a valid dd-MM-yyyy date or its
+         * epoch day does not fit in an int (years past ~5.8 million).
+         */
+        public boolean add(String ID, String first, String last, String birthdate) {
+            long day = DateCodec.parse(birthdate);
+            if (day == DateCodec.INVALID || day != (int) day) {
+                return false;
+            }
+            add(ID, first, last, (int) day);
+            return true;
+        }
+
+        public Builder add(String ID, String first, String last, int birthDay) {
+            if (size == IDs.length) {
+                if (size == MAX_RECORDS) {
+                    throw new IllegalStateException("DuplicateDetector holds at most " + MAX_RECORDS + " records");
+                }
+                int grown = Math.min(MAX_RECORDS, size + (size >> 1));
+                IDs = Arrays.copyOf(IDs, grown);
+                firstNames = Arrays.copyOf(firstNames, grown);
+                lastNames = Arrays.copyOf(lastNames, grown);
+                birthDays = Arrays.copyOf(birthDays, grown);
+            }
+            IDs[size] = ID;
+            firstNames[size] = first;
+            lastNames[size] = last;
+            birthDays[size] = birthDay;
+            size++;
+            return this;
+        }
+
+        public DuplicateDetector build() {
+            return new DuplicateDetector(size, IDs, firstNames, lastNames, birthDays);
+        }
+    }
+
+    /**
+     * Group is one set of records that look like the same human: equal
+     * normalized last name and birthdate, first names linked by
+     * sameFirstName(...). IDs are sorted.
+     */
+    public static final class Group {
+        public final String lastName;
+        public final int birthDay;
+        public final String[] IDs;
+
+        Group(String lastName, int birthDay, String[] IDs) {
+            this.lastName = lastName;
+            this.birthDay = birthDay;
+            this.IDs = IDs;
+        }
+
+        @Override
+        public String toString() {
+            return String.join(" ", IDs) + " (" + lastName + ", " + DateCodec.format(birthDay) + ")";
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * find(threads) returns the candidate duplicate groups, ordered by
+     * bucket hash, comparing buckets on threads worker threads.
+     */
+    public List<Group> find(int threads) {
+        // 1) Block: hash above row number, sorted so each bucket is a run
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = blockHash(lastNames[i], birthDays[i]) << ROW_BITS | i;
+        }
+        Arrays.parallelSort(keys);
+
+        // 2) Cut into segments that never split a bucket
+        int segments = Math.max(1, Math.min(threads * 8, size / 4096));
+        int[] bounds = new int[segments + 1];
+        for (int s = 1; s < segments; s++) {
+            int at = Math.max(bounds[s - 1], (int) ((long) size * s / segments));
+            while (at > 0 && at < size && (keys[at] >>> ROW_BITS) == (keys[at - 1] >>> ROW_BITS)) {
+                at++;
+            }
+            bounds[s] = at;
+        }
+        bounds[segments] = size;
+
+        // 3) Compare within buckets, segments in parallel, results in order
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            List<Future<List<Group>>> parts = new ArrayList<>(segments);
+            for (int s = 0; s < segments; s++) {
+                int from = bounds[s];
+                int to = bounds[s + 1];
+                parts.add(pool.submit(() -> compareSegment(keys, from, to)));
+            }
+            List<Group> groups = new ArrayList<>();
+            for (Future<List<Group>> part : parts) {
+                groups.addAll(part.get());
+            }
+            return groups;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * sameFirstName(a, b) is the first-name rule for candidates: equal once
+     * normalized, an initial matching the other name's first letter, or
+     * (both at least 3 letters) one insertion, deletion, substitution or
+     * adjacent swap apart.
+     */
+    static boolean sameFirstName(String a, String b) {
+        return sameNormalizedFirstName(normalize(a), normalize(b));
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private List<Group> compareSegment(long[] keys, int from, int to) {
+        List<Group> groups = new ArrayList<>();
+        int start = from;
+        while (start < to) {
+            long hash = keys[start] >>> ROW_BITS;
+            int end = start + 1;
+            while (end < to && (keys[end] >>> ROW_BITS) == hash) {
+                end++;
+            }
+            if (end - start > 1) {
+                compareBucket(keys, start, end, groups);
+            }
+            start = end;
+        }
+        return groups;
+    }
+
+    /**
+     * compareBucket(keys, from, to, groups) unions the matching pairs of one
+     * bucket and adds each resulting set of two or more rows to groups.
+     */
+    private void compareBucket(long[] keys, int from, int to, List<Group> groups) {
+        int n = to - from;
+        int[] rows = new int[n];
+        String[] last = new String[n];
+        String[] first = new String[n];
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = (int) (keys[from + i] & ROW_MASK);
+            last[i] = normalize(lastNames[rows[i]]);
+            first[i] = normalize(firstNames[rows[i]]);
+            parent[i] = i;
+        }
+        boolean any = false;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (birthDays[rows[i]] == birthDays[rows[j]] && last[i].equals(last[j])
+                        && sameNormalizedFirstName(first[i], first[j])) {
+                    parent[root(parent, i)] = root(parent, j);
+                    any = true;
+                }
+            }
+        }
+        if (!any) {
+            return;
+        }
+        int[] roots = new int[n];
+        int[] sizes = new int[n];
+        for (int i = 0; i < n; i++) {
+            roots[i] = root(parent, i);
+            sizes[roots[i]]++;
+        }
+        for (int r = 0; r < n; r++) {
+            if (sizes[r] < 2) {
+                continue;
+            }
+            String[] ids = new String[sizes[r]];
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                if (roots[j] == r) {
+                    ids[k++] = IDs[rows[j]];
+                }
+            }
+            Arrays.sort(ids);
+            groups.add(new Group(lastNames[rows[r]], birthDays[rows[r]], ids));
+        }
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static boolean sameNormalizedFirstName(String x, String y) {
+        if (x.equals(y)) {
+            return true;
+        }
+        if (x.isEmpty() || y.isEmpty()) {
+            return false;
+        }
+        if (x.length() == 1 || y.length() == 1) {
+            return x.charAt(0) == y.charAt(0);
+        }
+        return Math.min(x.length(), y.length()) >= 3 && withinOneEdit(x, y);
+    }
+
+    /**
+     * blockHash(last, day) is a 39-bit hash of the normalized last name and
+     * the birth day, computed without building the normalized String.
+     */
+    static long blockHash(String last, int day) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < last.length(); i++) {
+            char c = last.charAt(i);
+            if (Character.isLetter(c)) {
+                h = (h ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            }
+        }
+        h = (h ^ day) * 0x9E3779B97F4A7C15L;
+        return (h ^ (h >>> 29)) >>> ROW_BITS; // top 39 bits
+    }
+
+    /**
+     * normalize(name) keeps letters only, lower-cased.
+     */
+    static String normalize(String name) {
+        int i = 0;
+        while (i < name.length()) {
+            char c = name.charAt(i);
+            if (!Character.isLetter(c) || Character.toLowerCase(c) != c) {
+                break;
+            }
+            i++;
+        }
+        if (i == name.length()) {
+            return name;
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        sb.append(name, 0, i);
+        for (; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetter(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * withinOneEdit(x, y): x and y differ by at most one insertion,
+     * deletion, substitution or swap of adjacent letters.
+     */
+    private static boolean withinOneEdit(String x, String y) {
+        if (x.length() > y.length()) {
+            String t = x;
+            x = y;
+            y = t;
+        }
+        int lx = x.length();
+        int ly = y.length();
+        if (ly - lx > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < lx && x.charAt(i) == y.charAt(i)) {
+            i++;
+        }
+        if (i == lx) {
+            return true;
+        }
+        if (lx != ly) {
+            return x.regionMatches(i, y, i + 1, lx - i);
+        }
+        if (x.regionMatches(i + 1, y, i + 1, lx - i - 1)) {
+            return true; // substitution
+        }
+        return i + 1 < lx && x.charAt(i) == y.charAt(i + 1) && x.charAt(i + 1) == y.charAt(i)
+                && x.regionMatches(i + 2, y, i + 2, lx - i - 2);
+    }
+}
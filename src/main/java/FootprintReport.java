@@ -0,0 +1,111 @@
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+
+/**
+ * FootprintReport.java
+ *
+ * Heap footprint of a registry held as Person objects versus a
+ * CompactPersonTable.
+ *
+ * Usage: java -Xmx4g FootprintReport [records...] (default: 1000000 10000000)
+ *
+ * Every record comes from SyntheticData; every fourth driver has two
+ * offenses. For each size the report prints the retained heap (used heap
+ * after GC, before minus after building) and bytes per record.
+ *
+ * Person objects are built for at most LEGACY_SAMPLE records; larger sizes
+ * are extrapolated from the sample's per-record cost and marked "~", since
+ * ten million Persons do not fit in a typical test heap.
+ */
+public class FootprintReport {
+
+    private static final int LEGACY_SAMPLE = 1_000_000;
+
+    public static void main(String[] args) {
+        long[] sizes = { 1_000_000, 10_000_000 };
+        if (args.length > 0) {
+            sizes = new long[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Long.parseLong(args[i]);
+            }
+        }
+
+        double legacyPerRecord = measureLegacy((int) Math.min(LEGACY_SAMPLE, maxOf(sizes)));
+        System.out.printf("%-12s %16s %10s %16s %10s %12s%n", "records", "Person heap", "B/record",
+                "compact heap", "B/record", "estimated");
+        for (long n : sizes) {
+            String legacy = n <= LEGACY_SAMPLE
+                    ? String.format("%,16d", (long) (legacyPerRecord * n))
+                    : String.format("~%,15d", (long) (legacyPerRecord * n));
+            long[] compact = measureCompact((int) n);
+            System.out.printf("%,-12d %s %10.1f %,16d %10.1f %,12d%n", n, legacy, legacyPerRecord,
+                    compact[0], (double) compact[0] / n, compact[1]);
+        }
+    }
+
+    /**
+     * measureLegacy(n) is the retained heap per record of n Persons in a
+     * HashMap keyed by ID.
+     */
+    static double measureLegacy(int n) {
+        long before = usedHeap();
+        HashMap<String, Person> persons = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Person p = new Person(PersonStore.NONE);
+            p.tryAddPerson(SyntheticData.id(i), SyntheticData.firstName(i), SyntheticData.lastName(i),
+                    SyntheticData.address(i), SyntheticData.birthdate(i));
+            if (i % 4 == 0) {
+                p.addDemeritPoints(SyntheticData.offenseDate(i), 3);
+                p.addDemeritPoints(SyntheticData.offenseDate(i + 1), 2);
+            }
+            persons.put(p.personID, p);
+        }
+        long retained = usedHeap() - before;
+        if (persons.size() != n) {
+            throw new IllegalStateException("duplicate synthetic IDs");
+        }
+        return (double) retained / n;
+    }
+
+    /**
+     * measureCompact(n) is { retained heap, estimatedBytes() } of a
+     * CompactPersonTable holding n records.
+     */
+    static long[] measureCompact(int n) {
+        long before = usedHeap();
+        CompactPersonTable table = new CompactPersonTable(n);
+        for (int i = 0; i < n; i++) {
+            String id = SyntheticData.id(i);
+            table.addPerson(id, SyntheticData.firstName(i), SyntheticData.lastName(i),
+                    SyntheticData.address(i), SyntheticData.birthdate(i));
+            if (i % 4 == 0) {
+                table.addDemeritPoints(id, SyntheticData.offenseDate(i), 3);
+                table.addDemeritPoints(id, SyntheticData.offenseDate(i + 1), 2);
+            }
+        }
+        long retained = usedHeap() - before;
+        if (table.size() != n) {
+            throw new IllegalStateException("duplicate synthetic IDs");
+        }
+        return new long[] { retained, table.estimatedBytes() };
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static long maxOf(long[] sizes) {
+        long max = 0;
+        for (long n : sizes) {
+            max = Math.max(max, n);
+        }
+        return max;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram.java
+ *
+ * Fixed-bucket, thread-safe histogram of durations in nanoseconds, laid out
+ * the way HdrHistogram does it: every power of two is split into
+ * SUB_BUCKETS linear sub-buckets, so any recorded value is known to within
+ * 1 / SUB_BUCKETS (12.5%) of itself, from 1 ns up to MAX_TRACKED (about 18
+ * minutes; longer durations land in the last bucket).
+ *
+ * record(nanos) is a few shifts and one atomic increment, with no
+ * allocation and no locking. snapshot() copies the counts for reading
+ * percentiles; concurrent recording may make count() and the buckets
+ * differ by the operations in flight.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int MAX_MAGNITUDE = 40; // 2^40 ns
+    static final long MAX_TRACKED = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, MAX_TRACKED));
+        buckets.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new Snapshot(counts, total, sum.sum());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+    }
+
+    /**
+     * Snapshot is an immutable copy of the bucket counts.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+
+        Snapshot(long[] counts, long count, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        /** Total of the recorded durations, in nanoseconds. */
+        public long sum() {
+            return sum;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * valueAt(quantile) is the upper bound of the bucket holding the
+         * given quantile (0..1) of the recorded values, or 0 if empty.
+         */
+        public long valueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        /** The highest bucket bound with a recorded value, or 0 if empty. */
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * bucketOf(v): values below SUB_BUCKETS get a bucket each; above that,
+     * the magnitude (highest set bit) picks the octave and the next SUB_BITS
+     * bits the sub-bucket.
+     */
+    static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /** upperBound(i) is the largest value that falls into bucket i. */
+    static long upperBound(int i) {
+        if (i < SUB_BUCKETS) {
+            return i;
+        }
+        int magnitude = i / SUB_BUCKETS + SUB_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + i % SUB_BUCKETS) << (magnitude - SUB_BITS);
+        return lower + (1L << (magnitude - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadGenerator.java
+ *
+ * Drives a PersonServer with a mixed load and reports throughput and
+ * round-trip latency percentiles.
+ *
+ * Usage: java LoadGenerator [host:port|local] [persons] [seconds] [connections] [pipeline]
+ * (defaults: local, 100000, 5, 16, 32)
+ *
+ * "local" starts a PersonServer in this JVM on a free port; otherwise the
+ * target server must have been started with the same persons count, so
+ * the IDs picked here exist. The request mix matches RegistryThroughput:
+ * 60% DEMERIT, 25% UPDATE (name change), 10% SUSPENDED, 5% ADD of a new
+ * person.
+ *
+ * Each connection runs on its own virtual thread and keeps up to pipeline
+ * requests in flight: it writes a burst, then reads the responses. A
+ * request's latency runs from the flush of its burst to the arrival of its
+ * response, so it includes queueing behind the earlier requests of the
+ * burst. After a one-second warm-up the run prints requests/sec, the
+ * client-side p50/p99/p999, and the server's own STATS line.
+ */
+public class LoadGenerator {
+
+    /**
+     * Result holds the totals of one run.
+     */
+    public static final class Result {
+        public long requests;
+        public long errors;
+        public long elapsedNanos;
+        public LatencyHistogram.Snapshot latency;
+
+        public double requestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "local";
+        int persons = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int pipeline = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+
+        PersonServer local = null;
+        String host;
+        int port;
+        if (target.equals("local")) {
+            PersonRegistry registry = new PersonRegistry();
+            PersonServer.preload(registry, persons);
+            local = new PersonServer(registry, 0);
+            local.start();
+            host = "127.0.0.1";
+            port = local.port();
+        } else {
+            int colon = target.lastIndexOf(':');
+            host = target.substring(0, colon);
+            port = Integer.parseInt(target.substring(colon + 1));
+        }
+        try {
+            System.out.println("cores=" + Runtime.getRuntime().availableProcessors() + " target=" + target
+                    + " connections=" + connections + " pipeline=" + pipeline);
+            run(host, port, persons, 1, connections, pipeline); // warm-up
+            Result r = run(host, port, persons, seconds, connections, pipeline);
+            System.out.printf("%,.0f requests/sec, %d errors%n", r.requestsPerSecond(), r.errors);
+            System.out.printf("latency p50=%.1f us p99=%.1f us p999=%.1f us%n", r.latency.valueAt(0.5) / 1e3,
+                    r.latency.valueAt(0.99) / 1e3, r.latency.valueAt(0.999) / 1e3);
+            System.out.println("server " + stats(host, port));
+        } finally {
+            if (local != null) {
+                local.close();
+            }
+        }
+    }
+
+    /**
+     * run(...) keeps connections busy for the given time and returns what
+     * they achieved.
+     */
+    public static Result run(String host, int port, int persons, int seconds, int connections, int pipeline)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong nextNew = new AtomicLong(persons + System.nanoTime() % 1_000_000 * 1000);
+        long started = System.nanoTime();
+        long deadline = started + seconds * 1_000_000_000L;
+
+        Thread[] workers = new Thread[connections];
+        for (int c = 0; c < connections; c++) {
+            long seed = c * 0x9E3779B97F4A7C15L + started;
+            workers[c] = Thread.ofVirtual().start(() -> {
+                try (Socket socket = new Socket(host, port)) {
+                    socket.setTcpNoDelay(true);
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+                    Writer out = new BufferedWriter(
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16);
+                    SplittableRandom rnd = new SplittableRandom(seed);
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < pipeline; i++) {
+                            out.write(request(rnd, persons, nextNew));
+                            out.write('\n');
+                        }
+                        out.flush();
+                        long sent = System.nanoTime();
+                        for (int i = 0; i < pipeline; i++) {
+                            String response = in.readLine();
+                            if (response == null) {
+                                throw new IOException("server closed the connection");
+                            }
+                            latency.record(System.nanoTime() - sent);
+                            if (response.startsWith("ERR")) {
+                                errors.increment();
+                            }
+                        }
+                        requests.add(pipeline);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        Result r = new Result();
+        r.elapsedNanos = System.nanoTime() - started;
+        r.requests = requests.sum();
+        r.errors = errors.sum();
+        r.latency = latency.snapshot();
+        return r;
+    }
+
+    /**
+     * stats(host, port) is the server's STATS line.
+     */
+    public static String stats(String host, int port) throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            socket.getOutputStream().write("STATS\n".getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))
+                    .readLine();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * request(...) builds one request of the mix. Demerit dates are spread
+     * over 2020-2024 so ledgers grow but stay small.
+     */
+    static String request(SplittableRandom rnd, int persons, AtomicLong nextNew) {
+        int roll = rnd.nextInt(100);
+        if (roll < 5) {
+            long n = nextNew.getAndIncrement();
+            return "ADD\t" + SyntheticData.id(n) + '\t' + SyntheticData.firstName(n) + '\t'
+                    + SyntheticData.lastName(n) + '\t' + SyntheticData.address(n) + '\t'
+                    + SyntheticData.birthdate(n);
+        }
+        int n = rnd.nextInt(persons);
+        String id = SyntheticData.id(n);
+        if (roll < 65) {
+            return "DEMERIT\t" + id + '\t' + SyntheticData.offenseDate(rnd.nextInt(1826)) + '\t'
+                    + (1 + rnd.nextInt(6));
+        }
+        if (roll < 90) {
+            return "UPDATE\t" + id + '\t' + id + '\t' + SyntheticData.firstName(rnd.nextInt()) + '\t'
+                    + SyntheticData.lastName(n) + '\t' + SyntheticData.address(n) + '\t'
+                    + SyntheticData.birthdate(n);
+        }
+        return "SUSPENDED\t" + id;
+    }
+}
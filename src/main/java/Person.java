@@ -1,11 +1,8 @@
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.HashMap;
+import java.io.Writer;
+import java.util.Arrays;
 
 /**
  * Person.java
@@ -23,19 +20,80 @@ import java.util.HashMap;
  */
 public class Person {
 
+    /**
+     * History says what happens to offenses that fall behind the two-year
+     * horizon (the newest offense minus 2 years), where no later window can
+     * reach them.
+     *
+     * KEEP — they move to an archive ledger. An offense back-dated behind
+     * the horizon is still accepted and judged against the archived ones.
+     * TWO_YEARS — they are dropped, so the offenses held never span more
+     * than two years, and an offense back-dated behind the horizon (whose
+     * window would need them) is "Failure".
+     */
+    public enum History {
+        KEEP, TWO_YEARS
+    }
+
     public String personID;
     private String firstName;
     private String lastName;
     private String address;
     private String birthdate; // stored as "dd-MM-yyyy"
-    private LocalDate parsedBirthday; // parse and cache at addPerson time
+    // Birthdate and the days the person turns 18 and 21 (epoch days), cached
+    // at addPerson time so every age rule is one comparison
+    private long birthDay;
+    private long turns18;
+    private long turns21;
 
-    // Map of offenseDate → points
-    private HashMap<LocalDate, Integer> demeritPoints = new HashMap<>();
+    // Offense date (epoch day) → that day's total points, ordered by date;
+    // only the two years up to the newest offense are kept here, older ones
+    // go to archived (History.KEEP, created on first eviction) or are dropped
+    private final DemeritLedger demeritPoints = new DemeritLedger();
+    private final History history;
+    private DemeritLedger archived;
     public boolean isSuspended = false;
 
+    // Where successful adds/updates are persisted; null → overwrite Details.txt
+    private final PersonStore store;
+    // "Today" for the under-18 address rule
+    private final DayClock clock;
+
     private static final String DETAILS_FILE = "Details.txt";
-    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    /**
+     * A Person created this way keeps the original single-record behaviour:
+     * every add/update overwrites Details.txt.
+     */
+    public Person() {
+        this(null);
+    }
+
+    /**
+     * A Person created with a store persists every add/update through it
+     * (e.g. a RegistryStore shared by many persons) instead of Details.txt.
+     */
+    public Person(PersonStore store) {
+        this(store, DayClock.SYSTEM);
+    }
+
+    /**
+     * A Person created with a clock judges "today" by it (e.g.
+     * DayClock.fixed(...) in tests); store may be null, as for Person().
+     */
+    public Person(PersonStore store, DayClock clock) {
+        this(store, clock, History.KEEP);
+    }
+
+    /**
+     * A Person created with History.TWO_YEARS holds at most two years of
+     * offenses and rejects offenses back-dated behind them.
+     */
+    public Person(PersonStore store, DayClock clock, History history) {
+        this.store = store;
+        this.clock = clock;
+        this.history = history;
+    }
 
     /**
      * addPerson(...) returns true if and only if:
@@ -43,18 +101,39 @@ public class Person {
      * 2) checkAddress(address) == true
      * 3) checkDate(birthdate) == true
      *
-     * On success, it caches parsedBirthday and writes a five‐line Details.txt.
+     * On success, it caches the birth / 18th / 21st birthday days and writes a five‐line Details.txt.
      */
     public boolean addPerson(String ID, String first, String last,
             String address, String birthdate) {
-        if (!checkID(ID)) {
+        int errors = tryAddPerson(ID, first, last, address, birthdate);
+        if (errors != 0) {
+            // Report only the first failing check, as the checks used to stop there
+            System.out.println(Validation.message(errors));
             return false;
         }
-        if (!checkAddress(address)) {
-            return false;
+        return true;
+    }
+
+    /**
+     * tryAddPerson(...) is addPerson(...) without console output: it returns 0
+     * on success, or the Validation.Rule bits of every failed check.
+     */
+    public int tryAddPerson(String ID, String first, String last,
+            String address, String birthdate) {
+        if (!PersonMetrics.ENABLED) {
+            return applyAddPerson(ID, first, last, address, birthdate);
         }
-        if (!checkDate(birthdate)) {
-            return false;
+        long start = PersonMetrics.start();
+        int errors = applyAddPerson(ID, first, last, address, birthdate);
+        PersonMetrics.record(PersonMetrics.Op.ADD_PERSON, errors, start);
+        return errors;
+    }
+
+    private int applyAddPerson(String ID, String first, String last,
+            String address, String birthdate) {
+        int errors = Validation.checkPerson(ID, address, birthdate);
+        if (errors != 0) {
+            return errors;
         }
 
         this.personID = ID;
@@ -63,22 +142,17 @@ public class Person {
         this.address = address;
         this.birthdate = birthdate;
 
-        try {
-            this.parsedBirthday = LocalDate.parse(birthdate, DATE_FMT);
-        } catch (DateTimeParseException e) {
-            // Should not happen if checkDate(...) passed, but just in case:
-            return false;
-        }
+        setBirthDay(DateCodec.parse(birthdate));
 
-        writeDetails();
-        return true;
+        writeDetails(null);
+        return 0;
     }
 
     /**
      * updatePersonalDetails(...) enforces these rules:
      *
      * 1) If birthdate changes, no other field may change. Otherwise fail.
-     * If only birthdate changed, update it (and parsedBirthday) and write the file
+     * If only birthdate changed, update it (and the cached days) and write the file
      * → return true.
      *
      * 2) If birthdate is unchanged, check address-change:
@@ -100,71 +174,115 @@ public class Person {
             String newLast,
             String newAddress,
             String newBirthday) {
+        int errors = tryUpdatePersonalDetails(newID, newFirst, newLast, newAddress, newBirthday);
+        if (errors == 0) {
+            return true;
+        }
+        // A failed nested checkAddress/checkID reports its own reason first
+        int nested = errors & ~Validation.UPDATE_RULES;
+        if (nested != 0) {
+            System.out.println(Validation.message(nested));
+        }
+        System.out.println(Validation.message(errors & Validation.UPDATE_RULES));
+        return false;
+    }
+
+    /**
+     * tryUpdatePersonalDetails(...) is updatePersonalDetails(...) without
+     * console output: it returns 0 on success, or the Validation.Rule bit of
+     * the broken update rule, together with the bits of the failed
+     * checkAddress/checkID rules behind UPDATE_ADDRESS_FORMAT or
+     * UPDATE_NEW_ID_INVALID.
+     *
+     * Nothing is changed unless the whole update is accepted.
+     */
+    public int tryUpdatePersonalDetails(String newID,
+            String newFirst,
+            String newLast,
+            String newAddress,
+            String newBirthday) {
+        if (!PersonMetrics.ENABLED) {
+            return applyUpdate(newID, newFirst, newLast, newAddress, newBirthday);
+        }
+        long start = PersonMetrics.start();
+        int errors = applyUpdate(newID, newFirst, newLast, newAddress, newBirthday);
+        PersonMetrics.record(PersonMetrics.Op.UPDATE_PERSONAL_DETAILS, errors, start);
+        return errors;
+    }
+
+    private int applyUpdate(String newID,
+            String newFirst,
+            String newLast,
+            String newAddress,
+            String newBirthday) {
+        String previousID = this.personID;
+
         // 1) Parse old vs. new birthdates
-        LocalDate oldBD, newBD;
-        try {
-            oldBD = LocalDate.parse(this.birthdate, DATE_FMT);
-            newBD = LocalDate.parse(newBirthday, DATE_FMT);
-        } catch (DateTimeParseException e) {
+        long oldBD = this.birthDay;
+        long newBD = DateCodec.parse(newBirthday);
+        if (newBD == DateCodec.INVALID) {
             // Wrong date format for newBirthday
-            System.out.println("Birthdate is invalid!");
-            return false;
+            return Validation.Rule.UPDATE_BIRTHDATE_INVALID.bit;
         }
 
         // 1a) If birthdate changed at all, no other field may change
-        if (!oldBD.equals(newBD)) {
+        if (oldBD != newBD) {
             boolean onlyBirthdayChanged = newID.equals(this.personID)
                     && newFirst.equals(this.firstName)
                     && newLast.equals(this.lastName)
                     && newAddress.equals(this.address);
             if (!onlyBirthdayChanged) {
-                System.out.println("Cannot change birthdate plus another field!");
-                return false;
+                return Validation.Rule.UPDATE_BIRTHDATE_WITH_OTHER_FIELD.bit;
             }
             // Only birthdate changed → update and return
             this.birthdate = newBirthday;
-            this.parsedBirthday = newBD;
-            writeDetails();
-            return true;
+            setBirthDay(newBD);
+            writeDetails(previousID);
+            return 0;
         }
 
         // 2) Birthdate unchanged → check address‐change
-        int age = Period.between(this.parsedBirthday, LocalDate.now()).getYears();
-        if (!newAddress.equals(this.address)) {
-            // Change address is allowed only if age ≥ 18
-            if (age < 18) {
-                System.out.println("Cannot change address! (Under 18)");
-                return false;
+        boolean addressChanged = !newAddress.equals(this.address);
+        if (addressChanged) {
+            // Change address is allowed only if age ≥ 18 (today)
+            if (clock.today() < turns18) {
+                return Validation.Rule.UPDATE_ADDRESS_UNDER_18.bit;
             }
-            if (!checkAddress(newAddress)) {
-                System.out.println("Address is not in the right format!");
-                return false;
+            int addressErrors = Validation.checkAddress(newAddress);
+            if (addressErrors != 0) {
+                return Validation.Rule.UPDATE_ADDRESS_FORMAT.bit | addressErrors;
             }
-            this.address = newAddress;
         }
 
         // 3) Check ID‐change rule
-        if (!newID.equals(this.personID)) {
+        boolean idChanged = !newID.equals(this.personID);
+        if (idChanged) {
             char oldFirstDigit = this.personID.charAt(0);
             if (Character.getNumericValue(oldFirstDigit) % 2 == 0) {
-                System.out.println("Cannot change ID if old ID’s first digit is even!");
-                return false;
+                return Validation.Rule.UPDATE_ID_EVEN_FIRST_DIGIT.bit;
             }
             // Old first digit was odd → now validate newID
-            if (!checkID(newID) ||
-                    Character.getNumericValue(newID.charAt(0)) % 2 == 0) {
-                System.out.println("New ID is invalid or does not start with odd digit!");
-                return false;
+            int idErrors = Validation.checkID(newID);
+            if (idErrors != 0) {
+                return Validation.Rule.UPDATE_NEW_ID_INVALID.bit | idErrors;
+            }
+            if (Character.getNumericValue(newID.charAt(0)) % 2 == 0) {
+                return Validation.Rule.UPDATE_NEW_ID_INVALID.bit;
             }
-            this.personID = newID;
         }
 
-        // 4) Update first/last name unconditionally
+        // 4) All rules passed → apply address/ID, update first/last name unconditionally
+        if (addressChanged) {
+            this.address = newAddress;
+        }
+        if (idChanged) {
+            this.personID = newID;
+        }
         this.firstName = newFirst;
         this.lastName = newLast;
 
-        writeDetails();
-        return true;
+        writeDetails(previousID);
+        return 0;
     }
 
     /**
@@ -172,43 +290,233 @@ public class Person {
      *
      * 1) Parse offenseDate (dd-MM-yyyy). If parse fails → return "Failure".
      * 2) If points < 1 or points > 6 → return "Failure".
-     * 3) Add (offenseDate → points) into the map.
+     * 3) Add (offenseDate → points) into the ledger (on top of any offense
+     * already recorded on the same date).
      *
      * 4) Recompute total points for all offenses whose date ≥ (offenseDate minus 2
      * years).
      * If age (as of offenseDate) < 21, threshold=6; else threshold=12.
      * If sum > threshold → isSuspended = true; else false.
      *
+     * 5) Evict offenses dated before the newest offense minus 2 years.
+     *
+     * An offense dated before that horizon is rejected ("Failure"): its
+     * window would reach offenses that have been evicted. So every window
+     * that can still be evaluated lies inside the offenses held.
+     *
      * Always return "Success" if the date‐and‐points checks pass, even if
      * suspension flips to true.
      */
     public String addDemeritPoints(String offenseDate, int points) {
-        // 1) Parse offenseDate
-        LocalDate offenseLD;
-        try {
-            offenseLD = LocalDate.parse(offenseDate, DATE_FMT);
-        } catch (DateTimeParseException e) {
+        if (!PersonMetrics.ENABLED) {
+            return applyDemerit(offenseDate, points);
+        }
+        long start = PersonMetrics.start();
+        String result = applyDemerit(offenseDate, points);
+        PersonMetrics.record(PersonMetrics.Op.ADD_DEMERIT_POINTS, "Success".equals(result) ? 0 : -1, start);
+        return result;
+    }
+
+    private String applyDemerit(String offenseDate, int points) {
+        // 1) Parse offenseDate; the ledger keys offenses by int epoch day
+        // (years up to ~5.8 million)
+        long offenseDay = DateCodec.parse(offenseDate);
+        if (offenseDay == DateCodec.INVALID || offenseDay != (int) offenseDay) {
             return "Failure";
         }
         // 2) Check points range
         if (points < 1 || points > 6) {
             return "Failure";
         }
+        if (history == History.TWO_YEARS
+                && beforeHorizon(offenseDay, demeritPoints.size() == 0 ? Long.MIN_VALUE : demeritPoints.lastDay())) {
+            return "Failure";
+        }
 
-        // 3) Compute age _as of that offense date_
-        int ageAtOffense = Period.between(this.parsedBirthday, offenseLD).getYears();
+        // 3) Insert this offense into the ledger
+        demeritPoints.add((int) offenseDay, points);
 
-        // 4) Insert this offense into the map
-        demeritPoints.put(offenseLD, points);
+        // 4) Recompute total points within two years _relative to the offense_;
+        // the threshold depends on the age as of that offense date
+        int threshold = (offenseDay < turns21) ? 6 : 12;
+        boolean nowSuspended = countDemerits((int) offenseDay, threshold);
+        setSuspended(nowSuspended);
 
-        // 5) Recompute total points within two years _relative to offenseLD_
-        int threshold = (ageAtOffense < 21) ? 6 : 12;
-        boolean nowSuspended = countDemerits(offenseLD, threshold);
-        this.isSuspended = nowSuspended;
+        // 5) Drop what no later window can count
+        evictExpired();
 
         return "Success";
     }
 
+    /**
+     * addDemeritPoints(offenseDates, points) is the bulk form of
+     * addDemeritPoints(offenseDate, points) for a whole batch of offenses
+     * (sorted or not). Row i is accepted (result[i] == true) exactly when the
+     * single-offense call would have returned "Success" for it.
+     *
+     * 1) Parse every date once and check every points value, and (under
+     * History.TWO_YEARS) the date against the horizon of the newest offense
+     * accepted before it.
+     * 2) Sort the accepted rows by date, summing rows on the same date, as
+     * repeated single calls would.
+     * 3) Merge the sorted rows into the ledger in one pass.
+     * 4) Evaluate suspension once, for the last accepted row, after evicting
+     * what a loop of single calls would have evicted before reaching it.
+     * That row is the one that set isSuspended in the loop, so the outcome
+     * is identical.
+     * 5) Evict as addDemeritPoints(offenseDate, points) does; the ledger
+     * then holds exactly what the loop would have left.
+     */
+    public boolean[] addDemeritPoints(String[] offenseDates, int[] points) {
+        if (offenseDates.length != points.length) {
+            throw new IllegalArgumentException("offenseDates and points differ in length");
+        }
+        int n = offenseDates.length;
+        boolean[] result = new boolean[n];
+
+        // 1) Parse + range-check, in batch order
+        int[] days = new int[n];
+        int[] pts = new int[n];
+        int accepted = 0;
+        boolean sorted = true;
+        long lastDay = 0;
+        // newest offense accepted so far; newestBefore is the newest before
+        // the last accepted row, for step 4
+        long newest = demeritPoints.size() == 0 ? Long.MIN_VALUE : demeritPoints.lastDay();
+        long newestBefore = newest;
+        for (int row = 0; row < n; row++) {
+            if (points[row] < 1 || points[row] > 6) {
+                continue;
+            }
+            long day = DateCodec.parse(offenseDates[row]);
+            if (day == DateCodec.INVALID || day != (int) day
+                    || (history == History.TWO_YEARS && beforeHorizon(day, newest))) {
+                continue;
+            }
+            sorted &= accepted == 0 || day >= days[accepted - 1];
+            days[accepted] = (int) day;
+            pts[accepted++] = points[row];
+            result[row] = true;
+            newestBefore = newest;
+            newest = Math.max(newest, day);
+            lastDay = day;
+        }
+        if (PersonMetrics.ENABLED) {
+            PersonMetrics.count(PersonMetrics.Op.ADD_DEMERIT_POINTS, accepted, n - accepted);
+        }
+        if (accepted == 0) {
+            return result;
+        }
+
+        // 2) Sort by date (unless the batch came in order); one entry per date
+        if (!sorted) {
+            long[] keys = new long[accepted];
+            for (int k = 0; k < accepted; k++) {
+                keys[k] = ((long) days[k] << 32) | k;
+            }
+            Arrays.sort(keys);
+            int[] batchPoints = pts;
+            pts = new int[accepted];
+            for (int k = 0; k < accepted; k++) {
+                days[k] = (int) (keys[k] >> 32);
+                pts[k] = batchPoints[(int) keys[k]];
+            }
+        }
+        int unique = 0;
+        for (int k = 0; k < accepted; k++) {
+            if (unique > 0 && days[unique - 1] == days[k]) {
+                pts[unique - 1] += pts[k];
+            } else {
+                days[unique] = days[k];
+                pts[unique++] = pts[k];
+            }
+        }
+
+        // 3) One merge into the ledger
+        demeritPoints.addAll(days, pts, unique);
+
+        // 4) Suspension as of the last accepted row, over the offenses single
+        // calls would still hold by then: those inside the horizon of the
+        // newest earlier offense (which the last row passed in step 1)
+        if (newestBefore != Long.MIN_VALUE) {
+            evictBefore((int) DateCodec.minusYears(newestBefore, 2));
+        }
+        int threshold = (lastDay < turns21) ? 6 : 12;
+        setSuspended(countDemerits((int) lastDay, threshold));
+
+        // 5) Drop what no later window can count
+        evictExpired();
+        return result;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getBirthdate() {
+        return birthdate;
+    }
+
+    /**
+     * pointsFrom(day) is the total points of the offenses dated on or after
+     * day (an epoch day), e.g. the current two-year window.
+     */
+    int pointsFrom(int day) {
+        int sum = demeritPoints.sumFrom(day);
+        return archived == null ? sum : sum + archived.sumFrom(day);
+    }
+
+    /**
+     * setSuspended(value) sets isSuspended, keeping PersonMetrics' gauge of
+     * suspended drivers in step.
+     */
+    void setSuspended(boolean value) {
+        if (PersonMetrics.ENABLED) {
+            PersonMetrics.suspensionChanged(this.isSuspended, value);
+        }
+        this.isSuspended = value;
+    }
+
+    /**
+     * restore(...) sets already-validated details read back from a store,
+     * without re-running the checks or writing them out again.
+     */
+    void restore(String ID, String first, String last, String address, String birthdate) {
+        this.personID = ID;
+        this.firstName = first;
+        this.lastName = last;
+        this.address = address;
+        this.birthdate = birthdate;
+        setBirthDay(DateCodec.parse(birthdate));
+    }
+
+    /**
+     * restoreDemerits(days, points, n, suspended) loads the first n offense
+     * days (strictly increasing, already summed per day and inside one
+     * horizon) and the suspension flag read back from a store, without
+     * re-running the per-offense checks.
+     */
+    void restoreDemerits(int[] days, int[] points, int n, boolean suspended) {
+        demeritPoints.addAll(days, points, n);
+        setSuspended(suspended);
+    }
+
+    /**
+     * offenseDay(i) is the date (epoch day) of the i-th offense held, in
+     * date order.
+     */
+    int offenseDay(int i) {
+        return demeritPoints.dayAt(i);
+    }
+
     // ─────────────────────────────────────────────────────────────────
     // H E L P E R M E T H O D S
     // ─────────────────────────────────────────────────────────────────
@@ -219,37 +527,11 @@ public class Person {
      * - first two chars are digits
      * - at least two chars in the string are non‐alphanumeric
      * - last two chars (indexes 8 and 9) are uppercase A–Z
+     *
+     * Validation.checkID(...) is the silent form.
      */
     public boolean checkID(String ID) {
-        if (ID == null || ID.length() != 10) {
-            System.out.println("ID is not 10 characters long!");
-            return false;
-        }
-        // first two must be digits
-        if (!Character.isDigit(ID.charAt(0)) || !Character.isDigit(ID.charAt(1))) {
-            System.out.println("First two digits are not ints!");
-            return false;
-        }
-        // count non‐alphanumeric
-        int specialCount = 0;
-        for (int i = 0; i < 10; i++) {
-            char c = ID.charAt(i);
-            if (!Character.isLetterOrDigit(c)) {
-                specialCount++;
-            }
-        }
-        if (specialCount < 2) {
-            System.out.println("There are fewer than 2 special characters!");
-            return false;
-        }
-        // last two chars must be uppercase A–Z
-        char c8 = ID.charAt(8);
-        char c9 = ID.charAt(9);
-        if (!(c8 >= 'A' && c8 <= 'Z') || !(c9 >= 'A' && c9 <= 'Z')) {
-            System.out.println("Last two characters are not uppercase A–Z!");
-            return false;
-        }
-        return true;
+        return report(Validation.checkID(ID));
     }
 
     /**
@@ -257,86 +539,146 @@ public class Person {
      * - address.split("\\|") has exactly 5 parts
      * - parts[3].equals("Victoria")
      * - parts[4].equals("Australia")
+     *
+     * Address.check(...) applies the same rule in one pass without splitting;
+     * Validation.checkAddress(...) is the silent form.
      */
     public boolean checkAddress(String address) {
-        if (address == null) {
-            System.out.println("Address is null!");
-            return false;
-        }
-        String[] parts = address.split("\\|");
-        if (parts.length != 5) {
-            System.out.println("Address does not have exactly 5 parts!");
-            return false;
-        }
-        String state = parts[3];
-        String country = parts[4];
-        if (!"Victoria".equals(state) || !"Australia".equals(country)) {
-            System.out.println("State is not Victoria or Country is not Australia!");
-            return false;
-        }
-        return true;
+        return report(Validation.checkAddress(address));
     }
 
     /**
      * checkDate(...) returns true only if the string can be parsed via
      * LocalDate.parse(..., DateTimeFormatter.ofPattern("dd-MM-yyyy")).
+     * DateCodec gives the same answer without allocating or throwing;
+     * Validation.checkDate(...) is the silent form.
      */
     public boolean checkDate(String date) {
-        if (date == null) {
-            System.out.println("Date is null!");
-            return false;
-        }
-        try {
-            LocalDate.parse(date, DATE_FMT);
-            return true;
-        } catch (DateTimeParseException e) {
-            System.out.println("Date is in the incorrect format!");
+        return report(Validation.checkDate(date));
+    }
+
+    /**
+     * setBirthDay(day) caches the birthdate and the days the person turns 18
+     * and 21, counted as Period.between(...) counts whole years.
+     */
+    private void setBirthDay(long day) {
+        this.birthDay = day;
+        this.turns18 = DateCodec.birthday(day, 18);
+        this.turns21 = DateCodec.birthday(day, 21);
+    }
+
+    /**
+     * report(errors) prints the first failed rule, if any, and returns whether
+     * the check passed.
+     */
+    private static boolean report(int errors) {
+        if (errors != 0) {
+            System.out.println(Validation.message(errors));
             return false;
         }
+        return true;
     }
 
     /**
-     * writeDetails() overwrites “Details.txt” with exactly five lines:
+     * writeDetails(previousID) persists the current details.
+     *
+     * With a store, the change is handed to store.save(previousID, this)
+     * (previousID is the ID before this update, or null for addPerson).
+     *
+     * Without one, it overwrites “Details.txt” with exactly five lines:
      *
      * ID: <personID>
      * First Name: <firstName>
      * Last Name: <lastName>
      * Address: <address>
      * Birthdate: <birthdate>
+     *
+     * built in memory and written with a single write call.
      */
-    private void writeDetails() {
-        try {
-            FileWriter writer = new FileWriter(new File(DETAILS_FILE), false);
-            writer.write("ID: " + this.personID + "\n");
-            writer.write("First Name: " + this.firstName + "\n");
-            writer.write("Last Name: " + this.lastName + "\n");
-            writer.write("Address: " + this.address + "\n");
-            writer.write("Birthdate: " + this.birthdate + "\n");
-            writer.close();
+    private void writeDetails(String previousID) {
+        if (!PersonMetrics.ENABLED) {
+            persist(previousID);
+            return;
+        }
+        long start = PersonMetrics.start();
+        persist(previousID);
+        PersonMetrics.record(PersonMetrics.Op.WRITE_DETAILS, 0, start);
+    }
+
+    private void persist(String previousID) {
+        if (store != null) {
+            store.save(previousID, this);
+            return;
+        }
+        String details = "ID: " + this.personID + "\n"
+                + "First Name: " + this.firstName + "\n"
+                + "Last Name: " + this.lastName + "\n"
+                + "Address: " + this.address + "\n"
+                + "Birthdate: " + this.birthdate + "\n";
+        try (Writer writer = new FileWriter(new File(DETAILS_FILE), false)) {
+            writer.write(details);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * countDemerits(referenceDate, threshold):
-     * Sum up all offenses whose date is ≥ (referenceDate minus 2 years).
+     * offenseDays() is the number of distinct offense dates in the two-year
+     * ledger (archived ones not included).
+     */
+    int offenseDays() {
+        return demeritPoints.size();
+    }
+
+    /**
+     * beforeHorizon(day, newest) is day < newest minus 2 years, where newest
+     * is Long.MIN_VALUE with no offenses. That horizon is 730 or 731 days
+     * back, so only days near it need the exact date arithmetic.
+     */
+    private static boolean beforeHorizon(long day, long newest) {
+        return newest != Long.MIN_VALUE && day < newest - 730 && day < DateCodec.minusYears(newest, 2);
+    }
+
+    /**
+     * evictExpired() drops the offenses dated before the newest offense
+     * minus 2 years, bounding the ledger by the two-year horizon.
+     */
+    private void evictExpired() {
+        long horizon = DateCodec.minusYears(demeritPoints.lastDay(), 2);
+        if (demeritPoints.dayAt(0) < horizon) {
+            evictBefore((int) horizon);
+        }
+    }
+
+    /**
+     * evictBefore(day) moves the offenses dated before day out of the
+     * ledger: to the archive under History.KEEP, nowhere under TWO_YEARS.
+     */
+    private void evictBefore(int day) {
+        if (history == History.TWO_YEARS) {
+            demeritPoints.evictBefore(day, null);
+            return;
+        }
+        if (archived == null) {
+            archived = new DemeritLedger();
+        }
+        demeritPoints.evictBefore(day, archived::add);
+    }
+
+    /**
+     * countDemerits(referenceDay, threshold):
+     * Sum up all offenses whose date is ≥ (referenceDay minus 2 years).
      * If sum > threshold, return true (suspended); else return false.
      *
      * We do an inclusive check: any offenseDate d satisfying
-     * d.isAfter(referenceDate.minusYears(2)) ||
-     * d.equals(referenceDate.minusYears(2))
-     * is counted.
+     * d.isAfter(referenceDay.minusYears(2)) ||
+     * d.equals(referenceDay.minusYears(2))
+     * is counted, archived offenses included. The ledger answers this
+     * suffix sum in O(log N).
      */
-    private boolean countDemerits(LocalDate referenceDate, int threshold) {
-        LocalDate windowStart = referenceDate.minusYears(2);
-        int sum = 0;
-        for (LocalDate d : demeritPoints.keySet()) {
-            // include if d ≥ windowStart
-            if (!d.isBefore(windowStart)) {
-                sum += demeritPoints.get(d);
-            }
-        }
+    private boolean countDemerits(int referenceDay, int threshold) {
+        long windowStart = DateCodec.minusYears(referenceDay, 2);
+        int sum = pointsFrom((int) windowStart);
         return (sum > threshold);
     }
 }
\ No newline at end of file
@@ -0,0 +1,438 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * PersonRegistry.java
+ *
+ * Thread-safe, in-memory owner of many Person records keyed by personID.
+ *
+ * Person itself is not thread-safe, so every operation on a person runs while
+ * holding the lock of the stripe its ID hashes to. Operations on IDs in
+ * different stripes run in parallel; there is no global lock.
+ *
+ * updatePersonalDetails(...) that changes an ID holds the stripes of both
+ * the old and the new ID (taken in stripe order, so two re-keys can never
+ * deadlock), so the record is re-keyed atomically with respect to every
+ * other registry operation. The new key is inserted before the old one is
+ * removed, so even lock-free lookups never find the person missing.
+ *
+ * Callers never get the mutable Person directly; read through
+ * read(ID, reader), which runs under the same stripe lock.
+ *
+ * RegistryListeners added with addListener(...) see every successful
+ * change, under the same locks (see RegistryListener).
+ */
+public class PersonRegistry {
+
+    private static final int DEFAULT_STRIPES = 1024;
+
+    private final ConcurrentHashMap<String, Person> persons = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final PersonStore store;
+    private final DayClock clock;
+    private final List<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+    public PersonRegistry() {
+        this(PersonStore.NONE);
+    }
+
+    /**
+     * Every person added to this registry persists through store.
+     */
+    public PersonRegistry(PersonStore store) {
+        this(store, DEFAULT_STRIPES);
+    }
+
+    public PersonRegistry(PersonStore store, int stripeCount) {
+        this(store, stripeCount, DayClock.SYSTEM);
+    }
+
+    /**
+     * Every person in this registry judges "today" (for the under-18
+     * address rule) by clock.
+     */
+    public PersonRegistry(PersonStore store, int stripeCount, DayClock clock) {
+        int n = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.store = store;
+        this.clock = clock;
+    }
+
+    /**
+     * addPerson(...) registers a new person under ID. Returns 0 on success,
+     * Rule.REGISTRY_DUPLICATE_ID.bit if ID is taken, or the Validation bits of
+     * addPerson(...)'s failed checks.
+     */
+    public int addPerson(String ID, String first, String last, String address, String birthdate) {
+        int errors;
+        ReentrantLock lock = stripeFor(ID);
+        lock.lock();
+        try {
+            if (ID != null && persons.containsKey(ID)) {
+                return Validation.Rule.REGISTRY_DUPLICATE_ID.bit;
+            }
+            // tryAddPerson validates (once) and records the ADD_PERSON metrics
+            Person p = new Person(store, clock);
+            errors = p.tryAddPerson(ID, first, last, address, birthdate);
+            if (errors == 0) {
+                persons.put(ID, p);
+                for (RegistryListener l : listeners) {
+                    l.personAdded(p);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (errors == 0) {
+            mutationDone();
+        }
+        return errors;
+    }
+
+    /**
+     * updatePersonalDetails(currentID, ...) applies
+     * Person.updatePersonalDetails(...) to the person registered as
+     * currentID, re-keying it if the ID changes. Returns 0 on success,
+     * Rule.REGISTRY_UNKNOWN_ID.bit / Rule.REGISTRY_DUPLICATE_ID.bit, or the
+     * Validation bits of the broken update rule.
+     */
+    public int updatePersonalDetails(String currentID, String newID, String newFirst, String newLast,
+            String newAddress, String newBirthday) {
+        if (currentID == null) {
+            return Validation.Rule.REGISTRY_UNKNOWN_ID.bit;
+        }
+        if (newID == null) {
+            return Validation.Rule.UPDATE_NEW_ID_INVALID.bit | Validation.Rule.ID_LENGTH.bit;
+        }
+        int a = stripeIndex(currentID);
+        int b = stripeIndex(newID);
+        int errors;
+        lockBoth(a, b);
+        try {
+            Person p = persons.get(currentID);
+            if (p == null) {
+                return Validation.Rule.REGISTRY_UNKNOWN_ID.bit;
+            }
+            boolean rekey = !newID.equals(currentID);
+            if (rekey && persons.containsKey(newID)) {
+                return Validation.Rule.REGISTRY_DUPLICATE_ID.bit;
+            }
+            for (RegistryListener l : listeners) {
+                l.beforeChange(p);
+            }
+            errors = p.tryUpdatePersonalDetails(newID, newFirst, newLast, newAddress, newBirthday);
+            if (errors == 0) {
+                if (rekey) {
+                    persons.put(newID, p);
+                    persons.remove(currentID);
+                }
+                for (RegistryListener l : listeners) {
+                    l.personUpdated(currentID, p);
+                }
+            }
+        } finally {
+            unlockBoth(a, b);
+        }
+        if (errors == 0) {
+            mutationDone();
+        }
+        return errors;
+    }
+
+    /**
+     * addDemeritPoints(ID, offenseDate, points) is
+     * Person.addDemeritPoints(...) for the person registered as ID;
+     * "Failure" if there is none.
+     */
+    public String addDemeritPoints(String ID, String offenseDate, int points) {
+        if (ID == null) {
+            return "Failure";
+        }
+        String result = "Failure";
+        ReentrantLock lock = stripeFor(ID);
+        lock.lock();
+        try {
+            Person p = persons.get(ID);
+            if (p != null) {
+                for (RegistryListener l : listeners) {
+                    l.beforeChange(p);
+                }
+                result = p.addDemeritPoints(offenseDate, points);
+                if (result.equals("Success")) {
+                    for (RegistryListener l : listeners) {
+                        l.demeritAdded(p, offenseDate, points);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (result.equals("Success")) {
+            mutationDone();
+        }
+        return result;
+    }
+
+    /**
+     * addDemeritPoints(IDs, offenseDates, points) ingests a batch of
+     * (personID, date, points) rows. Rows are grouped by ID and each person's
+     * rows go through Person's bulk addDemeritPoints(String[], int[]) under a
+     * single lock acquisition. result[i] is true when row i was accepted;
+     * rows for unregistered IDs are rejected.
+     */
+    public boolean[] addDemeritPoints(String[] IDs, String[] offenseDates, int[] points) {
+        if (IDs.length != offenseDates.length || IDs.length != points.length) {
+            throw new IllegalArgumentException("IDs, offenseDates and points differ in length");
+        }
+        boolean[] result = new boolean[IDs.length];
+
+        // Group row numbers by ID, keeping batch order within each ID
+        Map<String, int[]> rowsByID = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (String id : IDs) {
+            counts.merge(id, 1, Integer::sum);
+        }
+        for (int row = 0; row < IDs.length; row++) {
+            int[] rows = rowsByID.computeIfAbsent(IDs[row], k -> new int[counts.get(k) + 1]);
+            rows[++rows[0]] = row; // rows[0] is the fill count
+        }
+
+        boolean changed = false;
+        for (Map.Entry<String, int[]> e : rowsByID.entrySet()) {
+            if (e.getKey() == null) {
+                continue;
+            }
+            int[] rows = e.getValue();
+            int n = rows[0];
+            String[] dates = new String[n];
+            int[] pts = new int[n];
+            for (int i = 0; i < n; i++) {
+                dates[i] = offenseDates[rows[i + 1]];
+                pts[i] = points[rows[i + 1]];
+            }
+            ReentrantLock lock = stripeFor(e.getKey());
+            lock.lock();
+            try {
+                Person p = persons.get(e.getKey());
+                if (p == null) {
+                    continue;
+                }
+                for (RegistryListener l : listeners) {
+                    l.beforeChange(p);
+                }
+                boolean[] accepted = p.addDemeritPoints(dates, pts);
+                for (int i = 0; i < n; i++) {
+                    result[rows[i + 1]] = accepted[i];
+                    if (accepted[i]) {
+                        changed = true;
+                        for (RegistryListener l : listeners) {
+                            l.demeritAdded(p, dates[i], pts[i]);
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (changed) {
+            mutationDone();
+        }
+        return result;
+    }
+
+    /**
+     * read(ID, reader) applies reader to the person registered as ID while
+     * holding its stripe lock, and returns the result (null if there is no
+     * such person). reader must not keep the Person or mutate it.
+     */
+    public <T> T read(String ID, Function<Person, T> reader) {
+        if (ID == null) {
+            return null;
+        }
+        ReentrantLock lock = stripeFor(ID);
+        lock.lock();
+        try {
+            Person p = persons.get(ID);
+            return p == null ? null : reader.apply(p);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * isSuspended(ID) is the person's current suspension flag, or null if ID
+     * is not registered.
+     */
+    public Boolean isSuspended(String ID) {
+        return read(ID, p -> p.isSuspended);
+    }
+
+    /**
+     * setSuspended(ID, suspended) overrides the person's suspension flag,
+     * e.g. with SuspensionEngine.advanceTo(today, registry::setSuspended)
+     * when offenses age out (the method reference binds to a
+     * BiConsumer<String, Boolean> by unboxing), and reports a flip to the
+     * listeners. Returns false if ID is not registered.
+     */
+    public boolean setSuspended(String ID, boolean suspended) {
+        if (ID == null) {
+            return false;
+        }
+        boolean changed;
+        ReentrantLock lock = stripeFor(ID);
+        lock.lock();
+        try {
+            Person p = persons.get(ID);
+            if (p == null) {
+                return false;
+            }
+            changed = p.isSuspended != suspended;
+            p.setSuspended(suspended);
+            if (changed) {
+                for (RegistryListener l : listeners) {
+                    l.suspensionChanged(p);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (changed) {
+            mutationDone();
+        }
+        return true;
+    }
+
+    public boolean contains(String ID) {
+        return ID != null && persons.containsKey(ID);
+    }
+
+    public int size() {
+        return persons.size();
+    }
+
+    /**
+     * forEach(action) visits every registered person, each under its stripe
+     * lock. The view is weakly consistent: persons added or re-keyed during
+     * the walk may or may not be visited.
+     */
+    public void forEach(Consumer<Person> action) {
+        List<String> ids = new ArrayList<>(persons.keySet());
+        for (String id : ids) {
+            read(id, p -> {
+                action.accept(p);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * ids() is a snapshot of the registered IDs, sorted.
+     */
+    public String[] ids() {
+        String[] ids = persons.keySet().toArray(new String[0]);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * addListener(listener) reports every later successful change to
+     * listener.
+     */
+    public void addListener(RegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(RegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * restorePerson(...) registers already-validated details (e.g. replayed
+     * from a log) without re-running the checks, writing to the store or
+     * notifying listeners. An existing person under ID is replaced.
+     */
+    void restorePerson(String ID, String first, String last, String address, String birthdate) {
+        ReentrantLock lock = stripeFor(ID);
+        lock.lock();
+        try {
+            Person p = new Person(store, clock);
+            p.restore(ID, first, last, address, birthdate);
+            persons.put(ID, p);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * restoreDetails(previousID, ...) sets the details of the person
+     * registered as previousID (re-keying it to ID) without re-running the
+     * update rules, writing to the store or notifying listeners. Its
+     * demerits are kept. Returns false if previousID is not registered.
+     */
+    boolean restoreDetails(String previousID, String ID, String first, String last, String address,
+            String birthdate) {
+        int a = stripeIndex(previousID);
+        int b = stripeIndex(ID);
+        lockBoth(a, b);
+        try {
+            Person p = persons.get(previousID);
+            if (p == null) {
+                return false;
+            }
+            p.restore(ID, first, last, address, birthdate);
+            if (!ID.equals(previousID)) {
+                persons.put(ID, p);
+                persons.remove(previousID);
+            }
+            return true;
+        } finally {
+            unlockBoth(a, b);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private void mutationDone() {
+        for (RegistryListener l : listeners) {
+            l.mutationDone();
+        }
+    }
+
+    private int stripeIndex(String ID) {
+        int h = ID == null ? 0 : ID.hashCode();
+        h ^= (h >>> 16);
+        return h & (stripes.length - 1);
+    }
+
+    private ReentrantLock stripeFor(String ID) {
+        return stripes[stripeIndex(ID)];
+    }
+
+    private void lockBoth(int a, int b) {
+        // Always take the lower-indexed stripe first
+        stripes[Math.min(a, b)].lock();
+        if (a != b) {
+            stripes[Math.max(a, b)].lock();
+        }
+    }
+
+    private void unlockBoth(int a, int b) {
+        stripes[a].unlock();
+        if (a != b) {
+            stripes[b].unlock();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PersonServer.java
+ *
+ * Embedded TCP server exposing a shared PersonRegistry over a line-based
+ * text protocol, one virtual thread per connection.
+ *
+ * Usage: java PersonServer [port] [persons] [bind-address]
+ * (defaults: 7070, 100000 synthetic persons preloaded — the IDs
+ * LoadGenerator picks from — and the loopback address)
+ *
+ * The protocol has no authentication and can change any person, so the
+ * server only listens on loopback unless another address (e.g. 0.0.0.0
+ * for every interface) is given explicitly.
+ *
+ * Each request is one line of tab-separated fields, UTF-8, and gets exactly
+ * one response line, in order, so clients may pipeline:
+ *
+ * ADD ID first last address birthdate → OK | ERR <rules>
+ * UPDATE currentID newID first last address birthdate → OK | ERR <rules>
+ * DEMERIT ID offenseDate points → OK | ERR Failure
+ * SUSPENDED ID → true | false | ERR REGISTRY_UNKNOWN_ID
+ * STATS → p50/p99/p999 service time per request
+ * type, in microseconds
+ *
+ * <rules> is Validation.describe(...) of the failed rules. Field values
+ * cannot contain tabs or line breaks. Responses are flushed whenever the
+ * connection has no further request buffered, so a pipelined burst costs
+ * one write.
+ *
+ * Virtual threads make a blocked connection cost a few hundred bytes rather
+ * than a platform thread, so thousands of mostly idle clients are fine; the
+ * registry's stripe locks are held only for the in-memory update, never
+ * across socket I/O.
+ *
+ * Requests run on their connection's virtual thread, one after another,
+ * rather than on a virtual thread each. Responses must go back in request
+ * order for pipelining, and a request only ever waits on a stripe lock, so
+ * a thread per request would add a hand-off and a re-ordering step without
+ * letting any request run sooner than its connection reads it.
+ */
+public class PersonServer implements Closeable {
+
+    static final int ADD = 0;
+    static final int UPDATE = 1;
+    static final int DEMERIT = 2;
+    static final int SUSPENDED = 3;
+    private static final String[] NAMES = { "ADD", "UPDATE", "DEMERIT", "SUSPENDED" };
+
+    private final PersonRegistry registry;
+    private final ServerSocket server;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final LatencyHistogram[] latency = new LatencyHistogram[NAMES.length];
+    private Thread acceptor;
+
+    /**
+     * PersonServer(registry, port) binds to port (0 = any free port) on the
+     * loopback address; call start() to accept connections.
+     */
+    public PersonServer(PersonRegistry registry, int port) throws IOException {
+        this(registry, InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * PersonServer(registry, address, port) binds to port on address, e.g.
+     * InetAddress.getByName("0.0.0.0") for every interface.
+     */
+    public PersonServer(PersonRegistry registry, InetAddress address, int port) throws IOException {
+        this.registry = registry;
+        this.server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(address, port), 1024);
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new LatencyHistogram();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int persons = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        InetAddress address = args.length > 2 ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+        PersonRegistry registry = new PersonRegistry();
+        preload(registry, persons);
+        PersonServer server = new PersonServer(registry, address, port);
+        server.start();
+        System.out.println("Listening on " + address.getHostAddress() + ":" + server.port() + " with "
+                + registry.size() + " persons");
+        server.join();
+    }
+
+    /**
+     * preload(registry, persons) registers SyntheticData persons 0..persons-1.
+     */
+    public static void preload(PersonRegistry registry, int persons) {
+        for (int n = 0; n < persons; n++) {
+            registry.addPerson(SyntheticData.id(n), SyntheticData.firstName(n), SyntheticData.lastName(n),
+                    SyntheticData.address(n), SyntheticData.birthdate(n));
+        }
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** address() is the address the server listens on. */
+    public InetAddress address() {
+        return server.getInetAddress();
+    }
+
+    /**
+     * start() accepts connections on a virtual thread until close().
+     */
+    public void start() {
+        acceptor = Thread.ofVirtual().name("person-server-accept").start(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    socket.setTcpNoDelay(true);
+                    connections.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    if (!server.isClosed()) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * join() waits until the server is closed.
+     */
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * latency(type) is the service-time histogram (parse to response
+     * written, excluding socket I/O) of ADD, UPDATE, DEMERIT or SUSPENDED.
+     */
+    public LatencyHistogram.Snapshot latency(int type) {
+        return latency[type].snapshot();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(handle(line));
+                out.write('\n');
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // client went away
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * handle(line) applies one request and returns its response line.
+     */
+    String handle(String line) {
+        long start = System.nanoTime();
+        String[] f = line.split("\t", -1);
+        int type;
+        String response;
+        switch (f[0]) {
+            case "ADD":
+                if (f.length != 6) {
+                    return usage();
+                }
+                type = ADD;
+                response = result(registry.addPerson(f[1], f[2], f[3], f[4], f[5]));
+                break;
+            case "UPDATE":
+                if (f.length != 7) {
+                    return usage();
+                }
+                type = UPDATE;
+                response = result(registry.updatePersonalDetails(f[1], f[2], f[3], f[4], f[5], f[6]));
+                break;
+            case "DEMERIT": {
+                if (f.length != 4) {
+                    return usage();
+                }
+                int points;
+                try {
+                    points = Integer.parseInt(f[3]);
+                } catch (NumberFormatException e) {
+                    return "ERR Failure";
+                }
+                type = DEMERIT;
+                response = "Success".equals(registry.addDemeritPoints(f[1], f[2], points)) ? "OK" : "ERR Failure";
+                break;
+            }
+            case "SUSPENDED": {
+                if (f.length != 2) {
+                    return usage();
+                }
+                type = SUSPENDED;
+                Boolean suspended = registry.isSuspended(f[1]);
+                response = suspended == null ? result(Validation.Rule.REGISTRY_UNKNOWN_ID.bit)
+                        : suspended.toString();
+                break;
+            }
+            case "STATS":
+                return stats();
+            default:
+                return usage();
+        }
+        latency[type].record(System.nanoTime() - start);
+        return response;
+    }
+
+    private static String result(int errors) {
+        return errors == 0 ? "OK" : "ERR " + Validation.describe(errors);
+    }
+
+    private static String usage() {
+        return "ERR USAGE";
+    }
+
+    private String stats() {
+        StringBuilder sb = new StringBuilder();
+        for (int type = 0; type < NAMES.length; type++) {
+            LatencyHistogram.Snapshot s = latency[type].snapshot();
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(NAMES[type]).append(" n=").append(s.count())
+                    .append(" p50=").append(micros(s.valueAt(0.5)))
+                    .append(" p99=").append(micros(s.valueAt(0.99)))
+                    .append(" p999=").append(micros(s.valueAt(0.999)));
+        }
+        return sb.toString();
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1e3);
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * PersonStore.java
+ *
+ * Destination for a Person's details after a successful addPerson(...) or
+ * updatePersonalDetails(...).
+ *
+ * A Person created with no store keeps the original behaviour of overwriting
+ * the single five-line Details.txt; a Person created with a store hands every
+ * change to it instead (see RegistryStore for the multi-person log).
+ */
+public interface PersonStore {
+
+    /** Keeps nothing: for persons that only live in memory. */
+    PersonStore NONE = (previousID, person) -> {
+    };
+
+    /**
+     * save(previousID, person) records the current details of person.
+     *
+     * previousID is the ID the person was stored under before this change
+     * (null for a new person). It differs from person.personID only when
+     * updatePersonalDetails(...) changed the ID.
+     */
+    void save(String previousID, Person person);
+}
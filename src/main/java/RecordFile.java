@@ -0,0 +1,433 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * RecordFile.java
+ *
+ * Binary, fixed-width, memory-mapped store of persons keyed by personID:
+ * an alternative to Details.txt / RegistryStore that reads any record
+ * without parsing and overwrites a record in place when the person changes.
+ *
+ * The file is a 64-byte header followed by 128-byte slots:
+ *
+ * 0 int status (LIVE, or 0 for a slot never written)
+ * 4 char[10] personID (UTF-16, so any ID checkID(...) accepts fits)
+ * 24 long birthdate as an epoch day
+ * 32 text first name (28 bytes)
+ * 60 text last name (28 bytes)
+ * 88 text address without "|Victoria|Australia" (40 bytes)
+ *
+ * A text field is a short length followed by that many UTF-8 bytes inline,
+ * or length NULL_TEXT for null, or length OVERFLOW followed by a long
+ * offset and an int length into the overflow file (<path>.overflow), which
+ * holds the values too long to fit inline. Overflow space of a value that is
+ * later replaced is not reclaimed.
+ *
+ * Slot numbers are stable: save(...) for a known ID (or for previousID when
+ * the ID changes) rewrites that slot, and a new ID takes the next free
+ * slot. IDs are found through a RecordIndex kept in <path>.index, so
+ * opening a cleanly closed file reads no records at all; after a crash (or
+ * without an index) the index is rebuilt from the slots on open.
+ *
+ * An ID change first indexes the new ID, then rewrites the slot, then
+ * unindexes the old ID, so the person can be found under one ID or the
+ * other at every point. Index hits are confirmed against the slot's ID.
+ *
+ * Stored values are canonical, as in CompactPersonTable: the address is
+ * rebuilt from its first three fields, and the birthdate reads back as the
+ * dd-MM-yyyy form of its day.
+ *
+ * Writes go to the mapping, so they are visible to readers at once and
+ * reach the disk when the OS writes the pages back, or on flush() / close().
+ */
+public final class RecordFile implements PersonStore, Closeable {
+
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 128;
+
+    private static final int MAGIC = 0x50524631; // "PRF1"
+    private static final int VERSION = 1;
+    private static final int LIVE = 1;
+
+    // Header
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_RECORD_SIZE = 8;
+    private static final int H_COUNT = 12;
+
+    // Slot
+    private static final int STATUS = 0;
+    private static final int PERSON_ID = 4;
+    private static final int BIRTH_DAY = 24;
+    private static final int FIRST_NAME = 32;
+    private static final int LAST_NAME = 60;
+    private static final int ADDRESS = 88;
+    private static final int NAME_FIELD = 28;
+    private static final int ADDRESS_FIELD = 40;
+
+    private static final short NULL_TEXT = -1;
+    private static final short OVERFLOW = -2;
+
+    private static final String ADDRESS_SUFFIX = "|" + CompactPersonTable.STATE + "|" + CompactPersonTable.COUNTRY;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileChannel overflow;
+    private MappedByteBuffer map;
+    private int count; // slots in use
+    private final RecordIndex index;
+    private final boolean indexRebuilt;
+    private final Address parsed = new Address();
+
+    /**
+     * Opens (or creates) the record file at path and its overflow file.
+     */
+    public RecordFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.overflow = FileChannel.open(overflowPath(path), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            remap(HEADER_SIZE + (long) INITIAL_SLOTS * RECORD_SIZE);
+            map.putInt(H_MAGIC, MAGIC);
+            map.putInt(H_VERSION, VERSION);
+            map.putInt(H_RECORD_SIZE, RECORD_SIZE);
+            map.putInt(H_COUNT, 0);
+        } else {
+            remap(channel.size());
+            if (map.getInt(H_MAGIC) != MAGIC || map.getInt(H_RECORD_SIZE) != RECORD_SIZE) {
+                channel.close();
+                overflow.close();
+                throw new IOException(path + " is not a record file");
+            }
+            count = map.getInt(H_COUNT);
+        }
+
+        this.index = new RecordIndex(indexPath(path));
+        this.indexRebuilt = !index.isUsableFor(count);
+        if (indexRebuilt) {
+            index.clear(count);
+            for (int slot = 0; slot < count; slot++) {
+                if (map.getInt(offset(slot) + STATUS) == LIVE) {
+                    index.put(id(slot), slot);
+                }
+            }
+        }
+    }
+
+    public static Path overflowPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".overflow");
+    }
+
+    public static Path indexPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".index");
+    }
+
+    /**
+     * save(previousID, person) writes person's details into the slot of
+     * previousID (when the ID changed) or of person.personID, or into a new
+     * slot for an unknown ID.
+     */
+    @Override
+    public synchronized void save(String previousID, Person person) {
+        String ID = person.personID;
+        try {
+            int slot = -1;
+            if (previousID != null && !previousID.equals(ID)) {
+                slot = find(previousID);
+                if (slot >= 0) {
+                    // Re-key: new key first, then the record, then drop the old key
+                    index.put(ID, slot);
+                    write(slot, person);
+                    index.remove(previousID, slot);
+                    return;
+                }
+            }
+            slot = find(ID);
+            if (slot >= 0) {
+                write(slot, person);
+                return;
+            }
+            slot = count;
+            ensureSlots(count + 1);
+            write(slot, person);
+            count++;
+            map.putInt(H_COUNT, count);
+            index.put(ID, slot);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * slot(ID) is the slot holding ID, or -1.
+     */
+    public synchronized int slot(String ID) {
+        return find(ID);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * indexRebuilt() is true when opening had to rebuild the ID index by
+     * reading every slot (no index, or it was not closed cleanly).
+     */
+    public boolean indexRebuilt() {
+        return indexRebuilt;
+    }
+
+    /**
+     * slotCount() is the number of slots written so far (the next new ID
+     * gets this slot).
+     */
+    public synchronized int slotCount() {
+        return count;
+    }
+
+    /**
+     * record(slot) is a read-only view of the slot's 128 bytes in the
+     * mapping: no copy is made. The view is invalid once the file grows.
+     */
+    public synchronized ByteBuffer record(int slot) {
+        checkSlot(slot);
+        return map.slice(offset(slot), RECORD_SIZE).asReadOnlyBuffer();
+    }
+
+    public synchronized boolean isLive(int slot) {
+        checkSlot(slot);
+        return map.getInt(offset(slot) + STATUS) == LIVE;
+    }
+
+    public synchronized String id(int slot) {
+        checkSlot(slot);
+        int at = offset(slot) + PERSON_ID;
+        char[] c = new char[10];
+        for (int i = 0; i < 10; i++) {
+            c[i] = map.getChar(at + 2 * i);
+        }
+        return new String(c);
+    }
+
+    /**
+     * idEquals(slot, ID) compares in place, without building a String.
+     */
+    public synchronized boolean idEquals(int slot, CharSequence ID) {
+        checkSlot(slot);
+        if (ID == null || ID.length() != 10) {
+            return false;
+        }
+        int at = offset(slot) + PERSON_ID;
+        for (int i = 0; i < 10; i++) {
+            if (map.getChar(at + 2 * i) != ID.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized long birthDay(int slot) {
+        checkSlot(slot);
+        return map.getLong(offset(slot) + BIRTH_DAY);
+    }
+
+    public synchronized String birthdate(int slot) {
+        return DateCodec.format(birthDay(slot));
+    }
+
+    public synchronized String firstName(int slot) {
+        checkSlot(slot);
+        return readText(offset(slot) + FIRST_NAME);
+    }
+
+    public synchronized String lastName(int slot) {
+        checkSlot(slot);
+        return readText(offset(slot) + LAST_NAME);
+    }
+
+    public synchronized String address(int slot) {
+        checkSlot(slot);
+        return readText(offset(slot) + ADDRESS) + ADDRESS_SUFFIX;
+    }
+
+    /**
+     * toPerson(slot, store) rebuilds the Person in slot without re-validating
+     * it or writing it back. Later changes go to store.
+     */
+    public synchronized Person toPerson(int slot, PersonStore store) {
+        Person p = new Person(store);
+        p.restore(id(slot), firstName(slot), lastName(slot), address(slot), birthdate(slot));
+        return p;
+    }
+
+    /**
+     * exportText(out) writes every live record, in slot order, in the
+     * five-line "Key: value" layout of Details.txt, with values escaped as
+     * RegistryStore escapes them. The result is also a valid RegistryStore
+     * log.
+     */
+    public synchronized void exportText(Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        for (int slot = 0; slot < count; slot++) {
+            if (isLive(slot)) {
+                sb.setLength(0);
+                RegistryStore.appendEscaped(sb.append("ID: "), id(slot)).append('\n');
+                RegistryStore.appendEscaped(sb.append("First Name: "), firstName(slot)).append('\n');
+                RegistryStore.appendEscaped(sb.append("Last Name: "), lastName(slot)).append('\n');
+                RegistryStore.appendEscaped(sb.append("Address: "), address(slot)).append('\n');
+                RegistryStore.appendEscaped(sb.append("Birthdate: "), birthdate(slot)).append('\n');
+                out.append(sb);
+            }
+        }
+    }
+
+    public synchronized void exportText(Path out) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            exportText(w);
+        }
+    }
+
+    /**
+     * flush() forces the mapping and the overflow file to disk.
+     */
+    public synchronized void flush() throws IOException {
+        map.force();
+        overflow.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        index.close(count);
+        channel.close();
+        overflow.close();
+    }
+
+    /**
+     * Exports a record file to the five-line text format.
+     *
+     * Usage: java RecordFile <record file> <text file>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java RecordFile <record file> <text file>");
+            System.exit(2);
+        }
+        try (RecordFile file = new RecordFile(Paths.get(args[0]))) {
+            file.exportText(Paths.get(args[1]));
+            System.out.println("Exported " + file.size() + " records to " + args[1]);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private int find(String ID) {
+        if (ID == null || ID.length() != 10) {
+            return -1;
+        }
+        return index.find(ID, slot -> slot < count && idEquals(slot, ID));
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= count) {
+            throw new IndexOutOfBoundsException("slot " + slot + " of " + count);
+        }
+    }
+
+    private void write(int slot, Person person) throws IOException {
+        int at = offset(slot);
+        String ID = person.personID;
+        for (int i = 0; i < 10; i++) {
+            map.putChar(at + PERSON_ID + 2 * i, ID.charAt(i));
+        }
+        map.putLong(at + BIRTH_DAY, DateCodec.parse(person.getBirthdate()));
+        writeText(at + FIRST_NAME, NAME_FIELD, person.getFirstName());
+        writeText(at + LAST_NAME, NAME_FIELD, person.getLastName());
+        parsed.reset(person.getAddress());
+        writeText(at + ADDRESS, ADDRESS_FIELD, parsed.streetNumber() + '|' + parsed.street() + '|' + parsed.city());
+        // Status last, so a slot never reads as live before its fields are written
+        map.putInt(at + STATUS, LIVE);
+    }
+
+    private void writeText(int at, int fieldSize, String value) throws IOException {
+        if (value == null) {
+            map.putShort(at, NULL_TEXT);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= fieldSize - 2) {
+            map.putShort(at, (short) bytes.length);
+            map.put(at + 2, bytes);
+            return;
+        }
+        long end = overflow.size();
+        overflow.write(ByteBuffer.wrap(bytes), end);
+        map.putShort(at, OVERFLOW);
+        map.putLong(at + 2, end);
+        map.putInt(at + 10, bytes.length);
+    }
+
+    private String readText(int at) {
+        short len = map.getShort(at);
+        if (len == NULL_TEXT) {
+            return null;
+        }
+        byte[] bytes;
+        if (len == OVERFLOW) {
+            bytes = new byte[map.getInt(at + 10)];
+            ByteBuffer dst = ByteBuffer.wrap(bytes);
+            long from = map.getLong(at + 2);
+            try {
+                while (dst.hasRemaining()) {
+                    if (overflow.read(dst, from + dst.position()) < 0) {
+                        throw new IOException("overflow file truncated");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            bytes = new byte[len];
+            map.get(at + 2, bytes);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensureSlots(int needed) throws IOException {
+        long required = HEADER_SIZE + (long) needed * RECORD_SIZE;
+        if (required <= map.capacity()) {
+            return;
+        }
+        long grown = HEADER_SIZE + (long) Math.max(needed, (map.capacity() - HEADER_SIZE) / RECORD_SIZE * 2)
+                * RECORD_SIZE;
+        if (grown > Integer.MAX_VALUE) {
+            throw new IOException(path + " cannot hold more than "
+                    + (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE + " records");
+        }
+        remap(grown);
+    }
+
+    private void remap(long size) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+}
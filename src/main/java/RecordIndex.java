@@ -0,0 +1,291 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntPredicate;
+
+/**
+ * RecordIndex.java
+ *
+ * On-disk, memory-mapped, open-addressing hash index from personID to a
+ * RecordFile slot, so opening a record file does not have to read every
+ * record to find people by ID.
+ *
+ * The file is a 64-byte header followed by a power-of-two table of 8-byte
+ * entries, each (32-bit ID hash << 32 | slot + 1), 0 meaning empty. Probing
+ * is linear and the table is kept at most 3/4 full; removal shifts later
+ * entries back, so there are no tombstones. IDs themselves are not stored:
+ * a hash match is confirmed against the record file, which stays the only
+ * source of truth.
+ *
+ * The header carries a dirty flag that is set (and forced to disk) before
+ * the first change after opening and cleared by close(), together with the
+ * record file's slot count. An index that was not closed cleanly, or whose
+ * slot count does not match, must be rebuilt by the caller (see
+ * RecordFile); isUsableFor(...) tells which.
+ *
+ * Growing the table rewrites it to a sibling file that atomically replaces
+ * the old one.
+ */
+public class RecordIndex implements Closeable {
+
+    public static final int HEADER_SIZE = 64;
+    private static final int ENTRY_SIZE = 8;
+
+    private static final int MAGIC = 0x50524931; // "PRI1"
+    private static final int VERSION = 1;
+    private static final int MIN_CAPACITY = 1024;
+
+    // Header
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SIZE = 12;
+    private static final int H_SLOT_COUNT = 16;
+    private static final int H_DIRTY = 20;
+
+    private final Path path;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int capacity; // entries, a power of two
+    private int size;
+    private boolean dirty;
+    private final boolean openedClean;
+    private final int openedSlotCount;
+
+    /**
+     * Opens the index at path, or creates an empty one (which is never
+     * usable until rebuilt) if there is none or it is unreadable.
+     */
+    public RecordIndex(Path path) throws IOException {
+        this.path = path;
+        boolean existing = Files.exists(path) && Files.size(path) >= HEADER_SIZE;
+        channel = open(path);
+        if (existing) {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            capacity = map.getInt(H_CAPACITY);
+            existing = map.getInt(H_MAGIC) == MAGIC && map.getInt(H_VERSION) == VERSION
+                    && Integer.bitCount(capacity) == 1
+                    && channel.size() == HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+        }
+        if (existing) {
+            size = map.getInt(H_SIZE);
+            openedClean = map.getInt(H_DIRTY) == 0;
+            openedSlotCount = map.getInt(H_SLOT_COUNT);
+        } else {
+            openedClean = false;
+            openedSlotCount = -1;
+            channel.truncate(0);
+            create(MIN_CAPACITY);
+        }
+    }
+
+    /**
+     * isUsableFor(slotCount) is true when the index was closed cleanly
+     * against a record file holding slotCount slots.
+     */
+    public boolean isUsableFor(int slotCount) {
+        return openedClean && openedSlotCount == slotCount;
+    }
+
+    /**
+     * find(ID, isSlotOf) is the slot indexed under ID, or -1. isSlotOf is
+     * asked to confirm each candidate slot whose hash matches.
+     */
+    public int find(CharSequence ID, IntPredicate isSlotOf) {
+        int h = hash(ID);
+        int mask = capacity - 1;
+        for (int i = h & mask;; i = (i + 1) & mask) {
+            long entry = entry(i);
+            if (entry == 0) {
+                return -1;
+            }
+            if ((int) (entry >>> 32) == h && isSlotOf.test((int) entry - 1)) {
+                return (int) entry - 1;
+            }
+        }
+    }
+
+    /**
+     * put(ID, slot) indexes slot under ID. The caller makes sure ID is not
+     * indexed already.
+     */
+    public void put(CharSequence ID, int slot) throws IOException {
+        markDirty();
+        if ((size + 1) > capacity - (capacity >>> 2)) {
+            grow();
+        }
+        insert(((long) hash(ID) << 32) | (slot + 1L));
+        size++;
+        map.putInt(H_SIZE, size);
+    }
+
+    /**
+     * remove(ID, slot) drops the entry of slot under ID, if there is one.
+     */
+    public boolean remove(CharSequence ID, int slot) throws IOException {
+        long wanted = ((long) hash(ID) << 32) | (slot + 1L);
+        int mask = capacity - 1;
+        int hole = hash(ID) & mask;
+        for (;; hole = (hole + 1) & mask) {
+            long entry = entry(hole);
+            if (entry == 0) {
+                return false;
+            }
+            if (entry == wanted) {
+                break;
+            }
+        }
+        markDirty();
+        for (int i = (hole + 1) & mask; entry(i) != 0; i = (i + 1) & mask) {
+            int home = (int) (entry(i) >>> 32) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                setEntry(hole, entry(i));
+                hole = i;
+            }
+        }
+        setEntry(hole, 0);
+        size--;
+        map.putInt(H_SIZE, size);
+        return true;
+    }
+
+    /**
+     * clear() empties the index, sized for expectedSize entries.
+     */
+    public void clear(int expectedSize) throws IOException {
+        int wanted = MIN_CAPACITY;
+        while (expectedSize > wanted - (wanted >>> 2)) {
+            wanted <<= 1;
+        }
+        channel.truncate(0);
+        create(wanted);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * close(slotCount) forces the index to disk and marks it clean for a
+     * record file of slotCount slots.
+     */
+    public void close(int slotCount) throws IOException {
+        map.putInt(H_SLOT_COUNT, slotCount);
+        map.force();
+        map.putInt(H_DIRTY, 0);
+        map.force(H_DIRTY, 4);
+        channel.close();
+    }
+
+    /**
+     * close() without a slot count leaves the index marked as it is: dirty
+     * if it was changed, so the next open rebuilds it.
+     */
+    @Override
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    /**
+     * hash(ID) is the 32-bit hash the index files ID under.
+     */
+    public static int hash(CharSequence ID) {
+        int h = 0;
+        for (int i = 0; i < ID.length(); i++) {
+            h = 31 * h + ID.charAt(i);
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static FileChannel open(Path p) throws IOException {
+        return FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void create(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        size = 0;
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * ENTRY_SIZE);
+        writeHeader(map, capacity, 0);
+        dirty = false;
+        markDirty();
+    }
+
+    private static void writeHeader(MappedByteBuffer m, int capacity, int size) {
+        m.putInt(H_MAGIC, MAGIC);
+        m.putInt(H_VERSION, VERSION);
+        m.putInt(H_CAPACITY, capacity);
+        m.putInt(H_SIZE, size);
+        m.putInt(H_SLOT_COUNT, -1);
+    }
+
+    private void markDirty() {
+        if (!dirty) {
+            map.putInt(H_DIRTY, 1);
+            map.force(H_DIRTY, 4);
+            dirty = true;
+        }
+    }
+
+    private long entry(int i) {
+        return map.getLong(HEADER_SIZE + i * ENTRY_SIZE);
+    }
+
+    private void setEntry(int i, long entry) {
+        map.putLong(HEADER_SIZE + i * ENTRY_SIZE, entry);
+    }
+
+    private void insert(long entry) {
+        int mask = capacity - 1;
+        int i = (int) (entry >>> 32) & mask;
+        while (entry(i) != 0) {
+            i = (i + 1) & mask;
+        }
+        setEntry(i, entry);
+    }
+
+    /**
+     * grow() rehashes into a table twice the size, written next to the
+     * current one and moved over it.
+     */
+    private void grow() throws IOException {
+        if (capacity >= 1 << 27) { // 1 GiB of entries: the most one mapping can address
+            throw new IOException(path + " cannot index more entries");
+        }
+        MappedByteBuffer old = map;
+        int oldCapacity = capacity;
+        Path tmp = path.resolveSibling(path.getFileName() + ".grow");
+        try (FileChannel out = open(tmp)) {
+            out.truncate(0);
+            capacity = oldCapacity * 2;
+            map = out.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * ENTRY_SIZE);
+            writeHeader(map, capacity, size);
+            map.putInt(H_DIRTY, 1);
+            for (int i = 0; i < oldCapacity; i++) {
+                long entry = old.getLong(HEADER_SIZE + i * ENTRY_SIZE);
+                if (entry != 0) {
+                    insert(entry);
+                }
+            }
+            map.force();
+        }
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(path);
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * RegistryListener.java
+ *
+ * Hook for following every successful change to a PersonRegistry (see
+ * PersonRegistry.addListener(...)).
+ *
+ * The change methods run on the mutating thread while it still holds the
+ * person's stripe lock(s), so for any one person they are called in the
+ * order the changes were applied. They must be quick and must not call back
+ * into the registry. The person passed in may only be read during the call.
+ *
+ * mutationDone() runs on the same thread once the locks are released, for
+ * work that may block (e.g. waiting for a write to reach the disk).
+ */
+public interface RegistryListener {
+
+    /**
+     * person is about to go through updatePersonalDetails(...) or
+     * addDemeritPoints(...), which may still reject the change; for
+     * listeners that report old values next to new ones.
+     */
+    default void beforeChange(Person person) {
+    }
+
+    /** person was registered by addPerson(...). */
+    void personAdded(Person person);
+
+    /**
+     * person's details were changed by updatePersonalDetails(...);
+     * previousID is the ID it was registered under before the change.
+     */
+    void personUpdated(String previousID, Person person);
+
+    /**
+     * addDemeritPoints(...) accepted (offenseDate, points) for person, one
+     * call per accepted row of a batch, in batch order.
+     */
+    void demeritAdded(Person person, String offenseDate, int points);
+
+    /**
+     * setSuspended(...) flipped person's isSuspended outside
+     * addDemeritPoints(...), e.g. when SuspensionEngine saw points age out.
+     */
+    default void suspensionChanged(Person person) {
+    }
+
+    /** Called after a change, outside the registry's locks. */
+    default void mutationDone() {
+    }
+}
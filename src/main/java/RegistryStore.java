@@ -0,0 +1,328 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RegistryStore.java
+ *
+ * Append-only, multi-person store keyed by personID.
+ *
+ * Every add/update is appended to the log as one record in the same
+ * "Key: value" layout that Person.writeDetails() uses for Details.txt:
+ *
+ * Previous ID: <old personID> (only when the ID changed)
+ * ID: <personID>
+ * First Name: <firstName>
+ * Last Name: <lastName>
+ * Address: <address>
+ * Birthdate: <birthdate>
+ *
+ * so a write costs O(record) instead of O(file), and any number of persons
+ * share one file. Values are escaped (a backslash is doubled, a line feed
+ * written as \n and a carriage return as \r), so a name holding a line
+ * break cannot split a record or forge another one. Opening a store
+ * replays the log and keeps the latest record per ID; a truncated trailing
+ * record (crash mid-write) is cut off.
+ *
+ * Superseded records are garbage. Once the log holds more than twice as many
+ * records as there are live IDs (and at least compactionMinGarbage superseded
+ * records), the live records are rewritten to a fresh log that atomically
+ * replaces the old one.
+ */
+public class RegistryStore implements PersonStore, Closeable {
+
+    private static final int DEFAULT_COMPACTION_MIN_GARBAGE = 1024;
+
+    private static final String PREVIOUS_ID = "Previous ID: ";
+    private static final String ID = "ID: ";
+    private static final String FIRST_NAME = "First Name: ";
+    private static final String LAST_NAME = "Last Name: ";
+    private static final String ADDRESS = "Address: ";
+    private static final String BIRTHDATE = "Birthdate: ";
+
+    private final Path path;
+    private final int compactionMinGarbage;
+
+    // Latest record per personID, in first-registration order
+    private final LinkedHashMap<String, Record> latest = new LinkedHashMap<>();
+    private final StringBuilder line = new StringBuilder(256);
+    private BufferedWriter writer;
+    private long recordCount; // records currently in the log file, live or not
+
+    /**
+     * Record is one person's details as stored in the log.
+     */
+    public static final class Record {
+        public final String personID;
+        public final String firstName;
+        public final String lastName;
+        public final String address;
+        public final String birthdate;
+
+        Record(String personID, String firstName, String lastName,
+                String address, String birthdate) {
+            this.personID = personID;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.address = address;
+            this.birthdate = birthdate;
+        }
+
+        /**
+         * toPerson(store) rebuilds a Person from this record without
+         * re-validating it or writing it back. Later changes go to store.
+         */
+        public Person toPerson(PersonStore store) {
+            Person p = new Person(store);
+            p.restore(personID, firstName, lastName, address, birthdate);
+            return p;
+        }
+    }
+
+    public RegistryStore(Path path) throws IOException {
+        this(path, DEFAULT_COMPACTION_MIN_GARBAGE);
+    }
+
+    /**
+     * Opens (or creates) the log at path and replays it.
+     */
+    public RegistryStore(Path path, int compactionMinGarbage) throws IOException {
+        this.path = path;
+        this.compactionMinGarbage = compactionMinGarbage;
+        if (Files.exists(path)) {
+            replay();
+        }
+        this.writer = openForAppend();
+    }
+
+    /**
+     * save(...) appends one record for person and flushes it, so the record is
+     * visible to readers of the file once this returns. Compaction runs here
+     * when enough garbage has accumulated.
+     *
+     * I/O failures are rethrown as UncheckedIOException: unlike the old
+     * writeDetails(), a registry must not silently lose a write.
+     */
+    @Override
+    public synchronized void save(String previousID, Person person) {
+        Record r = new Record(person.personID, person.getFirstName(), person.getLastName(),
+                person.getAddress(), person.getBirthdate());
+        try {
+            appendRecord(writer, previousID, r);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        apply(previousID, r);
+        recordCount++;
+
+        if (needsCompaction()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * get(ID) returns the latest record stored under ID, or null.
+     */
+    public synchronized Record get(String ID) {
+        return latest.get(ID);
+    }
+
+    /**
+     * records() returns a read-only copy of the latest record per ID.
+     */
+    public synchronized Map<String, Record> records() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(latest));
+    }
+
+    public synchronized int size() {
+        return latest.size();
+    }
+
+    /**
+     * recordCount() is the number of records in the log file, including
+     * superseded ones that the next compaction will drop.
+     */
+    public synchronized long recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * compact() rewrites the log so it holds exactly one record per live ID.
+     * The new log is written next to the old one and moved over it, so a crash
+     * leaves either the old or the new log, never a mix.
+     */
+    public synchronized void compact() throws IOException {
+        writer.close();
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Record r : latest.values()) {
+                appendRecord(out, null, r);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordCount = latest.size();
+        writer = openForAppend();
+    }
+
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private BufferedWriter openForAppend() throws IOException {
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private boolean needsCompaction() {
+        long garbage = recordCount - latest.size();
+        return garbage >= compactionMinGarbage && garbage > latest.size();
+    }
+
+    private void apply(String previousID, Record r) {
+        if (previousID != null && !previousID.equals(r.personID)) {
+            latest.remove(previousID);
+        }
+        latest.put(r.personID, r);
+    }
+
+    private void appendRecord(Writer out, String previousID, Record r) throws IOException {
+        line.setLength(0);
+        if (previousID != null && !previousID.equals(r.personID)) {
+            appendLine(PREVIOUS_ID, previousID);
+        }
+        appendLine(ID, r.personID);
+        appendLine(FIRST_NAME, r.firstName);
+        appendLine(LAST_NAME, r.lastName);
+        appendLine(ADDRESS, r.address);
+        appendLine(BIRTHDATE, r.birthdate);
+        out.append(line);
+    }
+
+    private void appendLine(String key, String value) {
+        appendEscaped(line.append(key), value).append('\n');
+    }
+
+    /**
+     * appendEscaped(sb, value) appends value as the log stores it: a
+     * backslash doubled, a line feed as \n and a carriage return as \r.
+     */
+    static StringBuilder appendEscaped(StringBuilder sb, String value) {
+        String v = String.valueOf(value);
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * value(line, key) is the unescaped value of a "Key: value" line.
+     */
+    private static String value(String line, String key) {
+        int at = line.indexOf('\\', key.length());
+        if (at < 0) {
+            return line.substring(key.length());
+        }
+        StringBuilder sb = new StringBuilder(line.length());
+        sb.append(line, key.length(), at);
+        for (int i = at; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                char e = line.charAt(++i);
+                sb.append(e == 'n' ? '\n' : e == 'r' ? '\r' : e);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * replay() folds the log into latest. A record is complete once its
+     * newline-terminated Birthdate line is read; anything after the last
+     * complete record is a torn write and is cut off so the next append starts
+     * on a clean record boundary.
+     */
+    private void replay() throws IOException {
+        String previousID = null, id = null, first = null, last = null, address = null;
+        long offset = 0, committed = 0;
+        byte[] buf = new byte[256];
+        int len = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b != '\n') {
+                    if (len == buf.length) {
+                        buf = Arrays.copyOf(buf, len * 2);
+                    }
+                    buf[len++] = (byte) b;
+                    continue;
+                }
+                String l = new String(buf, 0, len, StandardCharsets.UTF_8);
+                len = 0;
+                if (l.startsWith(PREVIOUS_ID)) {
+                    previousID = value(l, PREVIOUS_ID);
+                    id = null;
+                } else if (l.startsWith(ID)) {
+                    id = value(l, ID);
+                    first = last = address = null;
+                } else if (l.startsWith(FIRST_NAME)) {
+                    first = value(l, FIRST_NAME);
+                } else if (l.startsWith(LAST_NAME)) {
+                    last = value(l, LAST_NAME);
+                } else if (l.startsWith(ADDRESS)) {
+                    address = value(l, ADDRESS);
+                } else if (l.startsWith(BIRTHDATE) && id != null && first != null
+                        && last != null && address != null) {
+                    apply(previousID, new Record(id, first, last, address,
+                            value(l, BIRTHDATE)));
+                    recordCount++;
+                    committed = offset;
+                    previousID = id = first = last = address = null;
+                }
+            }
+        }
+        if (committed < offset) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(committed);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RegistryThroughput.java
+ *
+ * Measures PersonRegistry throughput under a mixed concurrent load.
+ *
+ * Usage: java RegistryThroughput [persons] [seconds] [threads...]
+ * (defaults: 100000 persons, 3 seconds, 1 8 32 threads)
+ *
+ * Each thread repeatedly picks a random registered person and does one of:
+ * 60% addDemeritPoints, 25% updatePersonalDetails (name change), 10%
+ * isSuspended; the remaining 5% register a brand-new person.
+ */
+public class RegistryThroughput {
+
+    public static void main(String[] args) throws InterruptedException {
+        int persons = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int[] threadCounts = { 1, 8, 32 };
+        if (args.length > 2) {
+            threadCounts = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                threadCounts[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println("cores=" + Runtime.getRuntime().availableProcessors()
+                + " persons=" + persons + " seconds=" + seconds);
+        // Warm up once so the first measured run isn't paying for JIT compilation
+        run(persons, 1, 1);
+        for (int threads : threadCounts) {
+            double opsPerSec = run(persons, threads, seconds);
+            System.out.printf("threads=%-3d %,.0f ops/sec%n", threads, opsPerSec);
+        }
+    }
+
+    /**
+     * run(...) loads a fresh registry and returns the ops/sec achieved by the
+     * given number of threads over the given time.
+     */
+    static double run(int persons, int threads, int seconds) throws InterruptedException {
+        PersonRegistry registry = new PersonRegistry();
+        for (int n = 0; n < persons; n++) {
+            registry.addPerson(SyntheticData.id(n), SyntheticData.firstName(n), SyntheticData.lastName(n),
+                    SyntheticData.address(n), SyntheticData.birthdate(n));
+        }
+        AtomicLong nextNew = new AtomicLong(persons);
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        long started = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long done = 0;
+                while ((done & 255) != 0 || System.nanoTime() < deadline) {
+                    long n = rnd.nextInt(persons);
+                    String id = SyntheticData.id(n);
+                    int op = rnd.nextInt(100);
+                    if (op < 60) {
+                        registry.addDemeritPoints(id, SyntheticData.offenseDate(rnd.nextInt(3360)),
+                                1 + rnd.nextInt(6));
+                    } else if (op < 85) {
+                        registry.updatePersonalDetails(id, id, SyntheticData.firstName(rnd.nextInt(10)),
+                                SyntheticData.lastName(n), SyntheticData.address(n), SyntheticData.birthdate(n));
+                    } else if (op < 95) {
+                        registry.isSuspended(id);
+                    } else {
+                        long m = nextNew.getAndIncrement();
+                        registry.addPerson(SyntheticData.id(m), SyntheticData.firstName(m),
+                                SyntheticData.lastName(m), SyntheticData.address(m), SyntheticData.birthdate(m));
+                    }
+                    done++;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        return ops.sum() * 1e9 / (System.nanoTime() - started);
+    }
+}
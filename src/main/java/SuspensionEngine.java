@@ -0,0 +1,350 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * SuspensionEngine.java
+ *
+ * Keeps every driver's suspension up to date as "today" moves forward.
+ *
+ * Person.isSuspended is only recomputed when an offense is added, relative
+ * to that offense's date, so a driver whose points age out of the two-year
+ * window stays suspended until the next offense. The engine instead
+ * answers, for the current day T:
+ *
+ * window sum = points of offenses dated on or after T minus 2 years
+ * (the same inclusive bound as Person.countDemerits(...))
+ * threshold = 6 while the driver is under 21 on T, else 12
+ * suspended = window sum > threshold
+ *
+ * and keeps the window sum as a running total per driver. Time only moves
+ * through advanceTo(newToday), which pops a priority queue of events:
+ *
+ * - expiry: the day the driver's oldest counted offense leaves the window
+ * (the first T with T minus 2 years after it)
+ * - birthday: the day the driver turns 21 (1 March for 29 February
+ * birthdays in non-leap years, as Period.between counts)
+ *
+ * Each driver has at most one live event of each kind, so a tick touches
+ * exactly the drivers whose window or threshold changes, never the whole
+ * population. Events made stale by later changes are skipped when popped.
+ *
+ * Feed the engine directly (register / addOffense) or attach it to a
+ * PersonRegistry with addListener(...), before any persons are added; a
+ * person whose birthdate is past the int epoch-day range (years beyond
+ * ~5.8 million, which Person accepts) is not tracked.
+ * Suspension changes caused by advanceTo(...) are reported to its callback
+ * after the engine's lock is released, so the callback may call back into
+ * a registry. All methods are thread-safe.
+ */
+public class SuspensionEngine implements RegistryListener {
+
+    private static final int EXPIRY = 0;
+    private static final int BIRTHDAY = 1;
+
+    /**
+     * One driver's state. expiryAt / birthdayAt are the days of the live
+     * queued events (valid only while the matching flag is set).
+     */
+    private static final class Driver {
+        final int index;
+        String ID;
+        int birthDay;
+        final DemeritLedger ledger = new DemeritLedger();
+        int windowSum;
+        boolean under21;
+        boolean suspended;
+        boolean expiryQueued;
+        int expiryAt;
+        boolean birthdayQueued;
+        int birthdayAt;
+
+        Driver(int index) {
+            this.index = index;
+        }
+    }
+
+    private final HashMap<String, Driver> byID = new HashMap<>();
+    private final List<Driver> drivers = new ArrayList<>();
+    private long[] heap = new long[64]; // (day << 32) | (driver << 1) | kind, min-heap
+    private int heapSize;
+    private int today;
+    private long eventsProcessed;
+
+    public SuspensionEngine(int today) {
+        this.today = today;
+    }
+
+    public synchronized int today() {
+        return today;
+    }
+
+    /**
+     * register(ID, birthDay) starts tracking a driver with no offenses.
+     * Returns false if ID is already tracked.
+     */
+    public synchronized boolean register(String ID, int birthDay) {
+        if (byID.containsKey(ID)) {
+            return false;
+        }
+        Driver d = new Driver(drivers.size());
+        d.ID = ID;
+        drivers.add(d);
+        byID.put(ID, d);
+        setBirthDay(d, birthDay);
+        return true;
+    }
+
+    /**
+     * addOffense(ID, day, points) records an offense (adding to any earlier
+     * offense on the same day, as Person does) and returns the driver's
+     * suspension as of today. An offense that is already outside the window
+     * can never count again, since today only moves forward, and is not
+     * kept.
+     */
+    public synchronized boolean addOffense(String ID, int day, int points) {
+        Driver d = byID.get(ID);
+        if (d == null) {
+            throw new IllegalArgumentException(ID + " is not registered");
+        }
+        if (day >= windowStart()) {
+            d.ledger.add(day, points);
+            d.windowSum += points;
+            scheduleExpiry(d);
+        }
+        evaluate(d);
+        return d.suspended;
+    }
+
+    /**
+     * advanceTo(newToday, onChange) moves today forward and processes every
+     * expiry and 21st-birthday event up to it. onChange (may be null) gets
+     * (ID, suspended) for each driver whose suspension flipped, after the
+     * engine's lock is released. Returns the number of such drivers.
+     */
+    public int advanceTo(int newToday, BiConsumer<String, Boolean> onChange) {
+        List<Driver> changed = new ArrayList<>();
+        List<Boolean> states = new ArrayList<>();
+        synchronized (this) {
+            if (newToday < today) {
+                throw new IllegalArgumentException("today cannot move backwards");
+            }
+            today = newToday;
+            while (heapSize > 0 && (int) (heap[0] >> 32) <= today) {
+                long event = poll();
+                int day = (int) (event >> 32);
+                Driver d = drivers.get((int) event >>> 1);
+                int kind = (int) event & 1;
+                if (kind == EXPIRY) {
+                    if (!d.expiryQueued || d.expiryAt != day) {
+                        continue; // superseded by an earlier offense
+                    }
+                    d.expiryQueued = false;
+                    d.ledger.evictBefore(windowStart(), null);
+                    d.windowSum = d.ledger.total();
+                    scheduleExpiry(d);
+                } else {
+                    if (!d.birthdayQueued || d.birthdayAt != day) {
+                        continue; // birthdate changed since
+                    }
+                    d.birthdayQueued = false;
+                    d.under21 = false;
+                }
+                eventsProcessed++;
+                boolean was = d.suspended;
+                evaluate(d);
+                if (was != d.suspended) {
+                    changed.add(d);
+                    states.add(d.suspended);
+                }
+            }
+        }
+        if (onChange != null) {
+            for (int i = 0; i < changed.size(); i++) {
+                onChange.accept(changed.get(i).ID, states.get(i));
+            }
+        }
+        return changed.size();
+    }
+
+    /**
+     * isSuspended(ID) as of today, or null for an unknown ID.
+     */
+    public synchronized Boolean isSuspended(String ID) {
+        Driver d = byID.get(ID);
+        return d == null ? null : d.suspended;
+    }
+
+    /**
+     * windowSum(ID) is the points counted as of today (0 for an unknown ID).
+     */
+    public synchronized int windowSum(String ID) {
+        Driver d = byID.get(ID);
+        return d == null ? 0 : d.windowSum;
+    }
+
+    public synchronized int size() {
+        return byID.size();
+    }
+
+    /** Events still queued, including stale ones not yet popped. */
+    public synchronized int pendingEvents() {
+        return heapSize;
+    }
+
+    /** Expiry and birthday events that were applied (stale ones excluded). */
+    public synchronized long eventsProcessed() {
+        return eventsProcessed;
+    }
+
+    // RegistryListener: track a registry's persons and offenses
+
+    @Override
+    public void personAdded(Person person) {
+        long birthDay = DateCodec.parse(person.getBirthdate());
+        if (isIntDay(birthDay)) {
+            register(person.personID, (int) birthDay);
+        }
+    }
+
+    @Override
+    public synchronized void personUpdated(String previousID, Person person) {
+        Driver d = byID.get(previousID);
+        if (d == null) {
+            return;
+        }
+        byID.remove(previousID);
+        long birthDay = DateCodec.parse(person.getBirthdate());
+        if (!isIntDay(birthDay)) {
+            // no longer representable: stop tracking, its queued events go stale
+            d.expiryQueued = false;
+            d.birthdayQueued = false;
+            return;
+        }
+        d.ID = person.personID;
+        byID.put(d.ID, d);
+        if (birthDay != d.birthDay) {
+            setBirthDay(d, (int) birthDay);
+        }
+    }
+
+    @Override
+    public synchronized void demeritAdded(Person person, String offenseDate, int points) {
+        long day = DateCodec.parse(offenseDate);
+        if (!isIntDay(day)) {
+            // Person rejects these offenses, so this is a caller bug
+            throw new IllegalArgumentException(offenseDate + " is outside the int epoch-day range");
+        }
+        if (byID.containsKey(person.personID)) {
+            addOffense(person.personID, (int) day, points);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static boolean isIntDay(long day) {
+        return day != DateCodec.INVALID && day == (int) day;
+    }
+
+    private int windowStart() {
+        return (int) DateCodec.minusYears(today, 2);
+    }
+
+    private void evaluate(Driver d) {
+        int threshold = d.under21 ? 6 : 12;
+        d.suspended = d.windowSum > threshold;
+    }
+
+    private void setBirthDay(Driver d, int birthDay) {
+        d.birthDay = birthDay;
+        d.under21 = DateCodec.yearsBetween(birthDay, today) < 21;
+        d.birthdayQueued = false;
+        if (d.under21) {
+            d.birthdayAt = turns21(birthDay);
+            d.birthdayQueued = true;
+            offer(d.birthdayAt, d.index, BIRTHDAY);
+        }
+        evaluate(d);
+    }
+
+    /**
+     * scheduleExpiry(d) queues the expiry of d's oldest counted offense,
+     * unless an event for that day (or none is needed) is already queued.
+     */
+    private void scheduleExpiry(Driver d) {
+        int i = d.ledger.indexFrom(windowStart());
+        if (i == d.ledger.size()) {
+            d.expiryQueued = false;
+            return;
+        }
+        int at = expiryOf(d.ledger.dayAt(i));
+        if (d.expiryQueued && d.expiryAt == at) {
+            return;
+        }
+        d.expiryQueued = true;
+        d.expiryAt = at;
+        offer(at, d.index, EXPIRY);
+    }
+
+    /**
+     * expiryOf(day) is the first T for which T minus 2 years is after day,
+     * i.e. the first day the offense no longer counts.
+     */
+    static int expiryOf(int day) {
+        long t = DateCodec.minusYears(day, -2);
+        while (DateCodec.minusYears(t, 2) <= day) {
+            t++;
+        }
+        return (int) t;
+    }
+
+    /**
+     * turns21(birthDay) is the first day on which the driver is 21.
+     */
+    private static int turns21(int birthDay) {
+        return (int) DateCodec.birthday(birthDay, 21);
+    }
+
+    private void offer(int day, int driver, int kind) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long event = ((long) day << 32) | ((long) driver << 1) | kind;
+        int i = heapSize++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= event) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = event;
+    }
+
+    private long poll() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+}
@@ -0,0 +1,315 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SuspensionTimeline.java
+ *
+ * Answers "was this driver suspended on date T, and with how many points?"
+ * for any T, past or future, where as of T:
+ *
+ * window points = points of offenses dated from T minus 2 years to T,
+ * both ends inclusive; offenses dated after T never count
+ * threshold = 6 while the driver is under 21 on T, else 12
+ * suspended = window points > threshold
+ *
+ * This is not what Person.isSuspended holds. Person judges each offense on
+ * day d by every offense dated d minus 2 years or later, including offenses
+ * dated after d, and keeps only that outcome for the latest offense added;
+ * with History.TWO_YEARS it also rejects offenses dated before its
+ * two-year horizon. When offenses arrive in date order the two agree:
+ * after an offense on day d, isSuspendedOn(ID, d) equals
+ * Person.isSuspended. A back-dated offense on day b is judged by Person
+ * together with the later offenses, while isSuspendedOn(ID, b) only counts
+ * those up to b.
+ *
+ * The timeline keeps the whole history, as a sorted array of days on which
+ * the window points or threshold may change, with the points and status in
+ * force from each day on. An offense on day d adds its points to the
+ * segments from d up to the day it leaves the window; the 21st birthday
+ * splits the timeline once. A query is one binary search: O(log N) for N
+ * breakpoints.
+ *
+ * An offense inserts at most two breakpoints and updates the segments of
+ * its two years (O(N) in the worst case for a back-dated one, typically a
+ * handful of entries); a birthdate change re-derives the statuses.
+ *
+ * Days are int epoch days. Feed it directly (register / addOffense) or
+ * attach it to a PersonRegistry with addListener(...) before any persons
+ * are added; a person whose birthdate is past the int range (years beyond
+ * ~5.8 million, which Person accepts) is not tracked. All
+ * methods are thread-safe; queries, including the batch
+ * query(IDs, days, points, suspended), share a read lock.
+ */
+public class SuspensionTimeline implements RegistryListener {
+
+    /**
+     * One driver's timeline: from day at[i] (until at[i + 1]) the window
+     * holds points[i] and the driver is suspended iff suspended[i].
+     * at[0] is Integer.MIN_VALUE, so every day falls in some segment.
+     */
+    private static final class Driver {
+        int birthDay;
+        int turns21;
+        int size;
+        int[] at = new int[8];
+        int[] points = new int[8];
+        boolean[] suspended = new boolean[8];
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final HashMap<String, Driver> byID = new HashMap<>();
+
+    /**
+     * register(ID, birthDay) starts a timeline with no offenses. Returns
+     * false if ID is already tracked.
+     */
+    public boolean register(String ID, int birthDay) {
+        lock.writeLock().lock();
+        try {
+            if (byID.containsKey(ID)) {
+                return false;
+            }
+            Driver d = new Driver();
+            d.at[0] = Integer.MIN_VALUE;
+            d.size = 1;
+            byID.put(ID, d);
+            setBirthDay(d, birthDay);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * addOffense(ID, day, points) adds an offense (on top of any other
+     * offense that day) to ID's timeline.
+     */
+    public void addOffense(String ID, int day, int points) {
+        lock.writeLock().lock();
+        try {
+            Driver d = byID.get(ID);
+            if (d == null) {
+                throw new IllegalArgumentException(ID + " is not registered");
+            }
+            addOffense(d, day, points);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * isSuspendedOn(ID, day) is ID's status as of day, or null for an
+     * unknown ID.
+     */
+    public Boolean isSuspendedOn(String ID, int day) {
+        lock.readLock().lock();
+        try {
+            Driver d = byID.get(ID);
+            return d == null ? null : d.suspended[segment(d, day)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * pointsOn(ID, day) is ID's window points as of day, or -1 for an
+     * unknown ID.
+     */
+    public int pointsOn(String ID, int day) {
+        lock.readLock().lock();
+        try {
+            Driver d = byID.get(ID);
+            return d == null ? -1 : d.points[segment(d, day)];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * query(IDs, days, points, suspended) answers a batch of (IDs[i],
+     * days[i]) questions under one lock acquisition, filling points[i]
+     * (-1 for an unknown ID) and suspended[i]. Returns the number of
+     * questions about known IDs.
+     */
+    public int query(String[] IDs, int[] days, int[] points, boolean[] suspended) {
+        if (IDs.length != days.length || points.length < IDs.length || suspended.length < IDs.length) {
+            throw new IllegalArgumentException("IDs, days, points and suspended differ in length");
+        }
+        int known = 0;
+        lock.readLock().lock();
+        try {
+            Driver d = null;
+            String last = null;
+            for (int i = 0; i < IDs.length; i++) {
+                if (last == null || !last.equals(IDs[i])) {
+                    last = IDs[i];
+                    d = last == null ? null : byID.get(last);
+                }
+                if (d == null) {
+                    points[i] = -1;
+                    suspended[i] = false;
+                    continue;
+                }
+                int s = segment(d, days[i]);
+                points[i] = d.points[s];
+                suspended[i] = d.suspended[s];
+                known++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return known;
+    }
+
+    /**
+     * transitions(ID) are the days on which ID's status flips, in order
+     * (the first one a suspension); null for an unknown ID.
+     */
+    public int[] transitions(String ID) {
+        lock.readLock().lock();
+        try {
+            Driver d = byID.get(ID);
+            if (d == null) {
+                return null;
+            }
+            int[] days = new int[d.size];
+            int n = 0;
+            for (int i = 1; i < d.size; i++) {
+                if (d.suspended[i] != d.suspended[i - 1]) {
+                    days[n++] = d.at[i];
+                }
+            }
+            return Arrays.copyOf(days, n);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // RegistryListener: track a registry's persons and offenses
+
+    @Override
+    public void personAdded(Person person) {
+        long birthDay = DateCodec.parse(person.getBirthdate());
+        if (isIntDay(birthDay)) {
+            register(person.personID, (int) birthDay);
+        }
+    }
+
+    @Override
+    public void personUpdated(String previousID, Person person) {
+        lock.writeLock().lock();
+        try {
+            Driver d = byID.get(previousID);
+            if (d == null) {
+                return;
+            }
+            byID.remove(previousID);
+            long birthDay = DateCodec.parse(person.getBirthdate());
+            if (!isIntDay(birthDay)) {
+                return; // no longer representable: stop tracking
+            }
+            byID.put(person.personID, d);
+            if (birthDay != d.birthDay) {
+                setBirthDay(d, (int) birthDay);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void demeritAdded(Person person, String offenseDate, int points) {
+        long day = DateCodec.parse(offenseDate);
+        if (!isIntDay(day)) {
+            // Person rejects these offenses, so this is a caller bug
+            throw new IllegalArgumentException(offenseDate + " is outside the int epoch-day range");
+        }
+        lock.writeLock().lock();
+        try {
+            Driver d = byID.get(person.personID);
+            if (d != null) {
+                addOffense(d, (int) day, points);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static boolean isIntDay(long day) {
+        return day != DateCodec.INVALID && day == (int) day;
+    }
+
+    private static void addOffense(Driver d, int day, int points) {
+        int from = split(d, day);
+        int to = split(d, SuspensionEngine.expiryOf(day));
+        for (int i = from; i < to; i++) {
+            d.points[i] += points;
+            d.suspended[i] = d.points[i] > threshold(d, d.at[i]);
+        }
+    }
+
+    /**
+     * setBirthDay(d, birthDay) moves the threshold change to the new 21st
+     * birthday and re-derives every status.
+     */
+    private void setBirthDay(Driver d, int birthDay) {
+        d.birthDay = birthDay;
+        d.turns21 = (int) DateCodec.birthday(birthDay, 21);
+        split(d, d.turns21);
+        for (int i = 0; i < d.size; i++) {
+            d.suspended[i] = d.points[i] > threshold(d, d.at[i]);
+        }
+    }
+
+    private static int threshold(Driver d, int day) {
+        return day < d.turns21 ? 6 : 12;
+    }
+
+    /**
+     * segment(d, day) is the index of the segment holding day: the last i
+     * with at[i] <= day.
+     */
+    private static int segment(Driver d, int day) {
+        int lo = 0, hi = d.size - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (d.at[mid] <= day) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * split(d, day) makes day a breakpoint, copying the values of the
+     * segment it falls in, and returns its index.
+     */
+    private static int split(Driver d, int day) {
+        int s = segment(d, day);
+        if (d.at[s] == day) {
+            return s;
+        }
+        if (d.size == d.at.length) {
+            int grown = d.size * 2;
+            d.at = Arrays.copyOf(d.at, grown);
+            d.points = Arrays.copyOf(d.points, grown);
+            d.suspended = Arrays.copyOf(d.suspended, grown);
+        }
+        int i = s + 1;
+        System.arraycopy(d.at, i, d.at, i + 1, d.size - i);
+        System.arraycopy(d.points, i, d.points, i + 1, d.size - i);
+        System.arraycopy(d.suspended, i, d.suspended, i + 1, d.size - i);
+        d.at[i] = day;
+        d.points[i] = d.points[s];
+        d.suspended[i] = d.suspended[s];
+        d.size++;
+        return i;
+    }
+}
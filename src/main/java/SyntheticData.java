@@ -0,0 +1,89 @@
+/**
+ * SyntheticData.java
+ *
+ * Deterministic, always-valid person fields for load tests, benchmarks and
+ * footprint reports: record n always gets the same ID, name, address and
+ * birthdate, and different n get different IDs.
+ */
+public final class SyntheticData {
+
+    private static final String ALNUM = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String[] CITIES = { "Melbourne", "Geelong", "Ballarat", "Bendigo", "Shepparton",
+            "Mildura", "Warrnambool", "Traralgon", "Wodonga", "Horsham" };
+    private static final String[] STREETS = { "Highland Street", "Queen Street", "King Street",
+            "Church Street", "High Street", "Station Road", "Main Street", "Bourke Street" };
+    private static final String[] FIRST_NAMES = { "John", "Alice", "Bob", "Carol", "David", "Eve",
+            "Frank", "Grace", "Isla", "Jack" };
+    private static final String[] LAST_NAMES = { "Doe", "Smith", "Jones", "Nguyen", "Lee", "Clark",
+            "Morris", "Hopper", "Fisher", "Sparrow" };
+
+    /** Distinct IDs available from id(n). */
+    public static final long ID_SPACE = 100L * 36 * 36 * 36 * 36 * 26 * 26;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * id(n) is a valid ID: two digits, "_%", four alphanumerics, two
+     * uppercase letters. The first digit is odd exactly for odd n, so half of
+     * the IDs may be changed by updatePersonalDetails(...).
+     */
+    public static String id(long n) {
+        n = Math.floorMod(n, ID_SPACE);
+        long m = n >> 1;
+        char[] c = new char[10];
+        c[0] = (char) ('0' + 2 * (m % 5) + (n & 1));
+        c[1] = (char) ('0' + (m / 5) % 10);
+        c[2] = '_';
+        c[3] = '%';
+        long rest = m / 50;
+        for (int i = 4; i < 8; i++) {
+            c[i] = ALNUM.charAt((int) (rest % 36));
+            rest /= 36;
+        }
+        c[8] = (char) ('A' + rest % 26);
+        c[9] = (char) ('A' + (rest / 26) % 26);
+        return new String(c);
+    }
+
+    public static String firstName(long n) {
+        return FIRST_NAMES[Math.floorMod(n, FIRST_NAMES.length)];
+    }
+
+    public static String lastName(long n) {
+        return LAST_NAMES[Math.floorMod(n / 7, LAST_NAMES.length)];
+    }
+
+    public static String address(long n) {
+        return (1 + Math.floorMod(n, 200)) + "|" + STREETS[Math.floorMod(n / 3, STREETS.length)] + "|"
+                + CITIES[Math.floorMod(n / 11, CITIES.length)] + "|Victoria|Australia";
+    }
+
+    /**
+     * birthdate(n) is a dd-MM-yyyy date between 1950 and 2009.
+     */
+    public static String birthdate(long n) {
+        int day = 1 + Math.floorMod(n, 28);
+        int month = 1 + Math.floorMod(n / 28, 12);
+        int year = 1950 + Math.floorMod(n / 336, 60);
+        return format(day, month, year);
+    }
+
+    /**
+     * offenseDate(n) is a dd-MM-yyyy date between 2015 and 2024.
+     */
+    public static String offenseDate(long n) {
+        int day = 1 + Math.floorMod(n, 28);
+        int month = 1 + Math.floorMod(n / 28, 12);
+        int year = 2015 + Math.floorMod(n / 336, 10);
+        return format(day, month, year);
+    }
+
+    private static String format(int day, int month, int year) {
+        char[] c = { (char) ('0' + day / 10), (char) ('0' + day % 10), '-',
+                (char) ('0' + month / 10), (char) ('0' + month % 10), '-',
+                (char) ('0' + year / 1000), (char) ('0' + year / 100 % 10),
+                (char) ('0' + year / 10 % 10), (char) ('0' + year % 10) };
+        return new String(c);
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Validation.java
+ *
+ * Silent versions of Person's rules. Each check returns an int bit mask of
+ * the rules that failed (0 = valid) and never prints, so many threads can
+ * validate at once without contending on System.out, and rejection reasons
+ * can be tallied with plain integer operations.
+ *
+ * The rules and messages are exactly those of Person.checkID(...),
+ * checkAddress(...), checkDate(...) and updatePersonalDetails(...); the
+ * Person methods are thin wrappers that print message(...) for a non-zero
+ * mask.
+ */
+public final class Validation {
+
+    /**
+     * One rule per bit. Within each check the bits are in the order the
+     * Person methods test the rules, so the lowest set bit is the rejection
+     * the printing methods report first.
+     */
+    public enum Rule {
+        ID_LENGTH("ID is not 10 characters long!"),
+        ID_LEADING_DIGITS("First two digits are not ints!"),
+        ID_SPECIAL_CHARS("There are fewer than 2 special characters!"),
+        ID_TRAILING_UPPERCASE("Last two characters are not uppercase A–Z!"),
+        ADDRESS_NULL("Address is null!"),
+        ADDRESS_PART_COUNT("Address does not have exactly 5 parts!"),
+        ADDRESS_STATE_COUNTRY("State is not Victoria or Country is not Australia!"),
+        DATE_NULL("Date is null!"),
+        DATE_FORMAT("Date is in the incorrect format!"),
+        UPDATE_BIRTHDATE_INVALID("Birthdate is invalid!"),
+        UPDATE_BIRTHDATE_WITH_OTHER_FIELD("Cannot change birthdate plus another field!"),
+        UPDATE_ADDRESS_UNDER_18("Cannot change address! (Under 18)"),
+        UPDATE_ADDRESS_FORMAT("Address is not in the right format!"),
+        UPDATE_ID_EVEN_FIRST_DIGIT("Cannot change ID if old ID’s first digit is even!"),
+        UPDATE_NEW_ID_INVALID("New ID is invalid or does not start with odd digit!"),
+        REGISTRY_DUPLICATE_ID("ID is already registered!"),
+        REGISTRY_UNKNOWN_ID("ID is not registered!");
+
+        public final int bit = 1 << ordinal();
+        public final String message;
+
+        private static final Rule[] VALUES = values();
+
+        Rule(String message) {
+            this.message = message;
+        }
+
+        public boolean isSet(int mask) {
+            return (mask & bit) != 0;
+        }
+
+        /**
+         * first(mask) is the lowest-numbered rule in mask, or null for 0.
+         */
+        public static Rule first(int mask) {
+            return mask == 0 ? null : VALUES[Integer.numberOfTrailingZeros(mask)];
+        }
+    }
+
+    public static final int ID_RULES = Rule.ID_LENGTH.bit | Rule.ID_LEADING_DIGITS.bit
+            | Rule.ID_SPECIAL_CHARS.bit | Rule.ID_TRAILING_UPPERCASE.bit;
+    public static final int ADDRESS_RULES = Rule.ADDRESS_NULL.bit | Rule.ADDRESS_PART_COUNT.bit
+            | Rule.ADDRESS_STATE_COUNTRY.bit;
+    public static final int DATE_RULES = Rule.DATE_NULL.bit | Rule.DATE_FORMAT.bit;
+    public static final int UPDATE_RULES = Rule.UPDATE_BIRTHDATE_INVALID.bit
+            | Rule.UPDATE_BIRTHDATE_WITH_OTHER_FIELD.bit | Rule.UPDATE_ADDRESS_UNDER_18.bit
+            | Rule.UPDATE_ADDRESS_FORMAT.bit | Rule.UPDATE_ID_EVEN_FIRST_DIGIT.bit
+            | Rule.UPDATE_NEW_ID_INVALID.bit;
+    public static final int REGISTRY_RULES = Rule.REGISTRY_DUPLICATE_ID.bit | Rule.REGISTRY_UNKNOWN_ID.bit;
+
+    // Character classes for checkID(...), one bit each
+    private static final int DIGIT = 1; // Character.isDigit
+    private static final int LETTER_OR_DIGIT = 2; // Character.isLetterOrDigit
+    private static final int UPPER = 4; // 'A'..'Z' only
+
+    private static final byte[] ID_CLASS = new byte[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ID_CLASS[c] = (byte) classify(c);
+        }
+    }
+
+    private Validation() {
+    }
+
+    /**
+     * checkID(ID) — see Person.checkID(...). A wrong length (or null) is
+     * reported alone; otherwise every other failing rule is reported.
+     *
+     * Each character is classified once, in a single pass: ASCII through
+     * the ID_CLASS table, anything else through classify(...), which asks
+     * Character exactly as the original checks did (so e.g. the Arabic-Indic
+     * digit '٣' still counts as a leading digit and 'é' as a letter).
+     */
+    public static int checkID(CharSequence ID) {
+        int errors = idRules(ID);
+        if (PersonMetrics.ENABLED) {
+            PersonMetrics.count(PersonMetrics.Op.CHECK_ID, errors);
+        }
+        return errors;
+    }
+
+    private static int idRules(CharSequence ID) {
+        if (ID == null || ID.length() != 10) {
+            return Rule.ID_LENGTH.bit;
+        }
+        int c0 = classOf(ID.charAt(0));
+        int c1 = classOf(ID.charAt(1));
+        int c8 = classOf(ID.charAt(8));
+        int c9 = classOf(ID.charAt(9));
+        int specialCount = special(c0) + special(c1) + special(c8) + special(c9);
+        for (int i = 2; i < 8; i++) {
+            specialCount += special(classOf(ID.charAt(i)));
+        }
+        return idErrors(c0 & c1, specialCount, c8 & c9);
+    }
+
+    /**
+     * checkIDs(packed, offset, count, results) checks count IDs stored back
+     * to back, 10 bytes each starting at packed[offset], with one byte per
+     * character (ISO-8859-1, so ASCII IDs are their own bytes). results[i]
+     * gets checkID(...)'s mask for the i-th ID; returns how many were valid.
+     */
+    public static int checkIDs(byte[] packed, int offset, int count, int[] results) {
+        int valid = 0;
+        for (int n = 0, at = offset; n < count; n++, at += 10) {
+            int errors;
+            if ((packed[at] | packed[at + 1] | packed[at + 2] | packed[at + 3] | packed[at + 4]
+                    | packed[at + 5] | packed[at + 6] | packed[at + 7] | packed[at + 8] | packed[at + 9]) >= 0) {
+                // All ASCII: ten table loads, no branches
+                byte[] t = ID_CLASS;
+                int c0 = t[packed[at]];
+                int c1 = t[packed[at + 1]];
+                int c8 = t[packed[at + 8]];
+                int c9 = t[packed[at + 9]];
+                int specialCount = special(c0) + special(c1) + special(t[packed[at + 2]])
+                        + special(t[packed[at + 3]]) + special(t[packed[at + 4]]) + special(t[packed[at + 5]])
+                        + special(t[packed[at + 6]]) + special(t[packed[at + 7]]) + special(c8) + special(c9);
+                errors = idErrors(c0 & c1, specialCount, c8 & c9);
+            } else {
+                int c0 = classOf(packed[at] & 0xFF);
+                int c1 = classOf(packed[at + 1] & 0xFF);
+                int c8 = classOf(packed[at + 8] & 0xFF);
+                int c9 = classOf(packed[at + 9] & 0xFF);
+                int specialCount = special(c0) + special(c1) + special(c8) + special(c9);
+                for (int i = 2; i < 8; i++) {
+                    specialCount += special(classOf(packed[at + i] & 0xFF));
+                }
+                errors = idErrors(c0 & c1, specialCount, c8 & c9);
+            }
+            results[n] = errors;
+            valid += errors == 0 ? 1 : 0;
+        }
+        if (PersonMetrics.ENABLED) {
+            for (int n = 0; n < count; n++) {
+                PersonMetrics.count(PersonMetrics.Op.CHECK_ID, results[n]);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * checkAddress(address) — see Person.checkAddress(...).
+     */
+    public static int checkAddress(CharSequence address) {
+        int errors = addressRules(address);
+        if (PersonMetrics.ENABLED) {
+            PersonMetrics.count(PersonMetrics.Op.CHECK_ADDRESS, errors);
+        }
+        return errors;
+    }
+
+    private static int addressRules(CharSequence address) {
+        if (address == null) {
+            return Rule.ADDRESS_NULL.bit;
+        }
+        switch (Address.check(address)) {
+            case Address.WRONG_PART_COUNT:
+                return Rule.ADDRESS_PART_COUNT.bit;
+            case Address.NOT_VICTORIA_AUSTRALIA:
+                return Rule.ADDRESS_STATE_COUNTRY.bit;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * checkDate(date) — see Person.checkDate(...).
+     */
+    public static int checkDate(CharSequence date) {
+        int errors = date == null ? Rule.DATE_NULL.bit
+                : DateCodec.isValid(date) ? 0 : Rule.DATE_FORMAT.bit;
+        if (PersonMetrics.ENABLED) {
+            PersonMetrics.count(PersonMetrics.Op.CHECK_DATE, errors);
+        }
+        return errors;
+    }
+
+    /**
+     * checkPerson(...) applies all of addPerson(...)'s rules and reports every
+     * failing one. The person is acceptable exactly when the result is 0.
+     */
+    public static int checkPerson(CharSequence ID, CharSequence address, CharSequence birthdate) {
+        return checkID(ID) | checkAddress(address) | checkDate(birthdate);
+    }
+
+    /**
+     * message(mask) is the diagnostic Person prints for the first failed rule,
+     * or null for 0.
+     */
+    public static String message(int mask) {
+        Rule r = Rule.first(mask);
+        return r == null ? null : r.message;
+    }
+
+    /**
+     * describe(mask) names every failed rule, e.g.
+     * "ID_SPECIAL_CHARS,ADDRESS_STATE_COUNTRY"; "" for 0.
+     */
+    public static String describe(int mask) {
+        StringBuilder sb = new StringBuilder();
+        for (int m = mask; m != 0; m &= m - 1) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(Rule.first(m).name());
+        }
+        return sb.toString();
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /**
+     * classify(c) is c's class bits, straight from Character. It fills
+     * ID_CLASS and is the fallback for every non-ASCII character.
+     */
+    private static int classify(char c) {
+        int cls = 0;
+        if (Character.isDigit(c)) {
+            cls |= DIGIT;
+        }
+        if (Character.isLetterOrDigit(c)) {
+            cls |= LETTER_OR_DIGIT;
+        }
+        if (c >= 'A' && c <= 'Z') {
+            cls |= UPPER;
+        }
+        return cls;
+    }
+
+    /**
+     * classOf(c) is c's class bits: a table load for ASCII, classify(...)
+     * otherwise.
+     */
+    private static int classOf(int c) {
+        return c < 128 ? ID_CLASS[c] : classify((char) c);
+    }
+
+    /** special(cls) is 1 for a character that is not a letter or digit. */
+    private static int special(int cls) {
+        return (~cls >>> 1) & 1;
+    }
+
+    /**
+     * idErrors(...) turns one pass's findings into checkID(...)'s mask:
+     * leading / trailing are the class bits shared by characters 0-1 / 8-9.
+     */
+    private static int idErrors(int leading, int specialCount, int trailing) {
+        int errors = 0;
+        if ((leading & DIGIT) == 0) {
+            errors |= Rule.ID_LEADING_DIGITS.bit;
+        }
+        if (specialCount < 2) {
+            errors |= Rule.ID_SPECIAL_CHARS.bit;
+        }
+        if ((trailing & UPPER) == 0) {
+            errors |= Rule.ID_TRAILING_UPPERCASE.bit;
+        }
+        return errors;
+    }
+}
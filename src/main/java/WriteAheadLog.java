@@ -0,0 +1,452 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog.java
+ *
+ * Durable, group-committed log of every successful PersonRegistry change
+ * (addPerson, updatePersonalDetails, addDemeritPoints, and the suspension
+ * flips of setSuspended, e.g. from SuspensionEngine), from which the
+ * registry — details, demerit history and suspension — is rebuilt after a
+ * crash with replay(...).
+ *
+ * Attach it with registry.addListener(log). Writers only encode their
+ * record and queue it (under the registry's stripe lock, so each person's
+ * records are logged in the order they were applied). A single flusher
+ * thread takes whatever is queued — at most maxBatch records, after waiting
+ * up to flushIntervalMillis for more to arrive — and writes the batch with
+ * one write and one force(), so many changes share each disk flush.
+ *
+ * Durability decides what a change waits for, once the registry's locks
+ * are released:
+ *
+ * ASYNC — nothing: the change is on disk within about one flush interval.
+ * BATCHED — the group commit that contains it.
+ * SYNC — the same, but the flusher starts that commit at once rather than
+ * waiting for the interval or a full batch.
+ *
+ * sync() waits for everything queued so far, whatever the durability.
+ *
+ * Each record on disk is: int payload length, int CRC-32 of the payload,
+ * payload. Replay stops at the first incomplete or corrupt record (a torn
+ * final write) and cuts the log there.
+ *
+ * If a write fails, the log stops accepting records and every waiting or
+ * later change fails with UncheckedIOException.
+ */
+public class WriteAheadLog implements RegistryListener, Closeable {
+
+    public enum Durability {
+        ASYNC, BATCHED, SYNC
+    }
+
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 5;
+    private static final int DEFAULT_MAX_BATCH = 1024;
+
+    private static final byte ADD = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DEMERIT = 3;
+    private static final byte SUSPENSION = 4;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Durability durability;
+    private final long flushIntervalNanos;
+    private final int maxBatch;
+    private final Thread flusher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition(); // flusher waits for records
+    private final Condition flushed = lock.newCondition(); // writers wait for their commit
+    private List<byte[]> pending = new ArrayList<>();
+    private long appendedSeq; // records queued so far
+    private long durableSeq; // records written and forced so far
+    private boolean syncRequested;
+    private boolean closed;
+    private IOException failure;
+    private long batches;
+
+    // Sequence number of the last record this thread queued, for mutationDone()
+    private final ThreadLocal<long[]> lastQueued = ThreadLocal.withInitial(() -> new long[1]);
+
+    public WriteAheadLog(Path path, Durability durability) throws IOException {
+        this(path, durability, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Opens (or creates) the log at path for appending, and starts the
+     * flusher thread. Run replay(...) first to recover an existing log.
+     */
+    public WriteAheadLog(Path path, Durability durability, long flushIntervalMillis, int maxBatch)
+            throws IOException {
+        if (maxBatch < 1 || flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("maxBatch must be ≥ 1 and flushIntervalMillis ≥ 0");
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.durability = durability;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxBatch = maxBatch;
+        this.flusher = new Thread(this::flushLoop, "wal-flusher " + path.getFileName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void personAdded(Person person) {
+        append(encode(ADD, null, person, null, 0));
+    }
+
+    @Override
+    public void personUpdated(String previousID, Person person) {
+        append(encode(UPDATE, previousID, person, null, 0));
+    }
+
+    @Override
+    public void demeritAdded(Person person, String offenseDate, int points) {
+        append(encode(DEMERIT, null, person, offenseDate, points));
+    }
+
+    @Override
+    public void suspensionChanged(Person person) {
+        append(encode(SUSPENSION, null, person, null, person.isSuspended ? 1 : 0));
+    }
+
+    /**
+     * mutationDone() waits for the records this thread just queued, as the
+     * log's durability requires.
+     */
+    @Override
+    public void mutationDone() {
+        if (durability != Durability.ASYNC) {
+            awaitDurable(lastQueued.get()[0]);
+        }
+    }
+
+    /**
+     * sync() returns once every record queued so far is on disk.
+     */
+    public void sync() {
+        long seq;
+        lock.lock();
+        try {
+            seq = appendedSeq;
+            syncRequested = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(seq);
+    }
+
+    /** Number of records queued since the log was opened. */
+    public long appended() {
+        lock.lock();
+        try {
+            return appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of group commits (write + force) since the log was opened. */
+    public long batches() {
+        lock.lock();
+        try {
+            return batches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * close() writes and forces everything still queued, then stops the
+     * flusher and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * replay(path, registry) re-applies every complete record of the log at
+     * path to registry, which should be empty and have no listeners yet
+     * (attach the WriteAheadLog afterwards). A torn or corrupt tail is cut
+     * off. Returns the number of records applied.
+     *
+     * Details are restored as logged rather than re-validated: the update
+     * rules depend on today's date, and every logged change had already
+     * passed them. Demerits are re-added in order, which rebuilds the same
+     * ledger and suspension flag, and logged setSuspended(...) flips are
+     * re-applied where they happened.
+     */
+    public static long replay(Path path, PersonRegistry registry) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long applied = 0;
+        long committed = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 1 || length > 1 << 20) {
+                        break;
+                    }
+                    payload = in.readNBytes(length);
+                    if (payload.length < length) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                apply(ByteBuffer.wrap(payload), registry);
+                applied++;
+                committed += 8 + payload.length;
+            }
+        }
+        if (committed < Files.size(path)) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(committed);
+            }
+        }
+        return applied;
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private void append(byte[] record) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("write-ahead log failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException(path + " is closed");
+            }
+            pending.add(record);
+            lastQueued.get()[0] = ++appendedSeq;
+            if (durability == Durability.SYNC) {
+                syncRequested = true;
+            }
+            if (pending.size() == 1 || pending.size() >= maxBatch || syncRequested) {
+                work.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitDurable(long seq) {
+        lock.lock();
+        try {
+            while (durableSeq < seq && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durableSeq < seq) {
+                throw new UncheckedIOException("write-ahead log failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * flushLoop() is the flusher thread: wait for records, give the batch up
+     * to one interval to fill, then write and force it in one go.
+     */
+    private void flushLoop() {
+        while (true) {
+            List<byte[]> batch;
+            long batchEnd;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    work.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return; // closed and drained
+                }
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                long remaining;
+                while (pending.size() < maxBatch && !syncRequested && !closed
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                    try {
+                        work.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                batchEnd = appendedSeq;
+                syncRequested = false;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                write(batch);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSeq = batchEnd;
+                    batches++;
+                }
+                flushed.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void write(List<byte[]> batch) throws IOException {
+        int total = 0;
+        for (byte[] record : batch) {
+            total += record.length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(total);
+        for (byte[] record : batch) {
+            buf.put(record);
+        }
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * encode(...) frames one record: length, CRC-32, then the payload
+     *
+     * ADD: type, ID, first, last, address, birthdate
+     * UPDATE: type, previous ID, ID, first, last, address, birthdate
+     * DEMERIT: type, ID, offense date, points
+     * SUSPENSION: type, ID, suspended (0 or 1)
+     */
+    private static byte[] encode(byte type, String previousID, Person p, String offenseDate, int points) {
+        List<byte[]> fields = new ArrayList<>(6);
+        if (type == UPDATE) {
+            fields.add(utf8(previousID));
+        }
+        fields.add(utf8(p.personID));
+        if (type == DEMERIT) {
+            fields.add(utf8(offenseDate));
+        } else if (type != SUSPENSION) {
+            fields.add(utf8(p.getFirstName()));
+            fields.add(utf8(p.getLastName()));
+            fields.add(utf8(p.getAddress()));
+            fields.add(utf8(p.getBirthdate()));
+        }
+        boolean withByte = type == DEMERIT || type == SUSPENSION;
+        int length = 1 + (withByte ? 1 : 0);
+        for (byte[] f : fields) {
+            length += 4 + (f == null ? 0 : f.length);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(8 + length);
+        buf.putInt(length).putInt(0).put(type);
+        for (byte[] f : fields) {
+            if (f == null) {
+                buf.putInt(-1);
+            } else {
+                buf.putInt(f.length).put(f);
+            }
+        }
+        if (withByte) {
+            buf.put((byte) points);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 8, length);
+        buf.putInt(4, (int) crc.getValue());
+        return buf.array();
+    }
+
+    private static void apply(ByteBuffer payload, PersonRegistry registry) throws IOException {
+        byte type = payload.get();
+        switch (type) {
+            case ADD:
+                registry.restorePerson(text(payload), text(payload), text(payload), text(payload),
+                        text(payload));
+                break;
+            case UPDATE:
+                registry.restoreDetails(text(payload), text(payload), text(payload), text(payload),
+                        text(payload), text(payload));
+                break;
+            case DEMERIT:
+                registry.addDemeritPoints(text(payload), text(payload), payload.get());
+                break;
+            case SUSPENSION:
+                registry.setSuspended(text(payload), payload.get() != 0);
+                break;
+            default:
+                throw new IOException("unknown write-ahead log record type " + type);
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String s = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return s;
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class AddressIndexTest {
+
+    private static final String MELBOURNE = "32|Highland Street|Melbourne|Victoria|Australia";
+    private static final String GEELONG = "7|Bay Road|Geelong|Victoria|Australia";
+
+    @Test
+    @DisplayName("AddressIndex finds persons by city and by street address as they are added")
+    void testLookups_FollowAdds() {
+        PersonRegistry registry = new PersonRegistry();
+        AddressIndex index = new AddressIndex();
+        registry.addListener(index);
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", MELBOURNE, "05-05-1995");
+        registry.addPerson("37#%ABXYZY", "Eve", "Clark", MELBOURNE, "10-10-2000");
+        registry.addPerson("39#%ABXYZY", "Ann", "Wu", GEELONG, "10-10-1980");
+        registry.addPerson("29!_%ABCD", "Bad", "ID", GEELONG, "10-10-1980"); // rejected
+
+        assertEquals(3, index.size());
+        assertEquals(2, index.cityCount());
+        assertEquals(2, index.countInCity("Melbourne"));
+        assertEquals(Arrays.asList("35%_&ABXYZ", "37#%ABXYZY"), sorted(index.inCity("Melbourne")));
+        assertArrayEquals(new String[] { "39#%ABXYZY" }, index.at("7", "Bay Road", "Geelong"));
+        assertEquals(0, index.at("7", "Bay Road", "Melbourne").length);
+        assertEquals(0, index.inCity("Ballarat").length);
+    }
+
+    @Test
+    @DisplayName("AddressIndex re-files an 18+ driver whose address changes and follows ID changes")
+    void testUpdates_MoveAndRekey() {
+        PersonRegistry registry = new PersonRegistry(null, 4, DayClock.fixed(LocalDate.of(2024, 6, 1)));
+        AddressIndex index = new AddressIndex();
+        registry.addListener(index);
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", MELBOURNE, "05-05-1995");
+        registry.addPerson("37#%ABXYZY", "Eve", "Clark", MELBOURNE, "10-10-2010");
+
+        assertEquals(0, registry.updatePersonalDetails("35%_&ABXYZ", "35%_&ABXYZ", "David", "Lee", GEELONG,
+                "05-05-1995"));
+        assertArrayEquals(new String[] { "35%_&ABXYZ" }, index.inCity("Geelong"));
+        assertArrayEquals(new String[] { "37#%ABXYZY" }, index.inCity("Melbourne"));
+
+        // under 18: the address change is refused, so the index does not move
+        assertNotEquals(0, registry.updatePersonalDetails("37#%ABXYZY", "37#%ABXYZY", "Eve", "Clark", GEELONG,
+                "10-10-2010"));
+        assertArrayEquals(new String[] { "37#%ABXYZY" }, index.inCity("Melbourne"));
+
+        assertEquals(0, registry.updatePersonalDetails("35%_&ABXYZ", "39#%ABXYZY", "David", "Lee", GEELONG,
+                "05-05-1995"));
+        assertArrayEquals(new String[] { "39#%ABXYZY" }, index.at("7", "Bay Road", "Geelong"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("AddressIndex matches a scan of the registry after random moves")
+    void testRandomMoves_MatchScan() {
+        PersonRegistry registry = new PersonRegistry();
+        int persons = 5_000;
+        PersonServer.preload(registry, persons);
+        AddressIndex index = new AddressIndex();
+        index.addAll(registry);
+        registry.addListener(index);
+
+        Random random = new Random(21);
+        for (int i = 0; i < 20_000; i++) {
+            int n = random.nextInt(persons);
+            String id = SyntheticData.id(n);
+            String birthdate = registry.read(id, Person::getBirthdate);
+            registry.updatePersonalDetails(id, id, SyntheticData.firstName(n), SyntheticData.lastName(n),
+                    SyntheticData.address(random.nextInt(persons)), birthdate);
+        }
+
+        assertEquals(persons, index.size());
+        Map<String, List<String>> byCity = new HashMap<>();
+        registry.forEach(p -> byCity.computeIfAbsent(Address.parse(p.getAddress()).city(),
+                k -> new ArrayList<>()).add(p.personID));
+        assertEquals(byCity.size(), index.cityCount());
+        for (Map.Entry<String, List<String>> e : byCity.entrySet()) {
+            List<String> expected = e.getValue();
+            expected.sort(null);
+            assertEquals(expected, sorted(index.inCity(e.getKey())), e.getKey());
+        }
+        registry.forEach(p -> {
+            Address a = Address.parse(p.getAddress());
+            assertTrue(Arrays.asList(index.at(a.streetNumber(), a.street(), a.city())).contains(p.personID));
+        });
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static List<String> sorted(String[] ids) {
+        String[] copy = ids.clone();
+        Arrays.sort(copy);
+        return Arrays.asList(copy);
+    }
+}
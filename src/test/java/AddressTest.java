@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class AddressTest {
+
+    /**
+     * reference(s) is the rule Person.checkAddress(...) used before Address:
+     * split on '|', then compare parts 3 and 4.
+     */
+    private static int reference(String s) {
+        String[] parts = s.split("\\|");
+        if (parts.length != 5) {
+            return Address.WRONG_PART_COUNT;
+        }
+        if (!"Victoria".equals(parts[3]) || !"Australia".equals(parts[4])) {
+            return Address.NOT_VICTORIA_AUSTRALIA;
+        }
+        return Address.VALID;
+    }
+
+    @Test
+    @DisplayName("Address.check matches String.split on empty, leading and trailing fields")
+    void testEdgeCases_MatchSplit() {
+        String[] cases = { "", "|", "||||", "|||||", "32|Highland Street|Melbourne|Victoria|Australia",
+                "32|Highland Street|Melbourne|Victoria|Australia|", "32|Highland Street|Melbourne|Victoria|Australia|||",
+                "|||Victoria|Australia", "32|Highland Street|Melbourne|Victoria|Australia|x",
+                "32|Highland Street|Melbourne|NewSouthWales|Australia", "32|Highland Street|Melbourne|Victoria|",
+                "32|Highland Street|Melbourne|Victoria|Australia |", "Victoria|Australia",
+                "32|Highland Street|Melbourne||Victoria|Australia", "1|2|3|Victoria|Australiaa" };
+        for (String s : cases) {
+            assertEquals(reference(s), Address.check(s), "check(\"" + s + "\")");
+        }
+    }
+
+    @Test
+    @DisplayName("Address.check matches String.split on random pipe/field mixes")
+    void testRandomAddresses_MatchSplit() {
+        Random rnd = new Random(5);
+        String[] tokens = { "|", "|", "Victoria", "Australia", "", "1", "Main St", "Geelong" };
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int n = rnd.nextInt(12);
+            for (int t = 0; t < n; t++) {
+                sb.append(tokens[rnd.nextInt(tokens.length)]);
+            }
+            String s = sb.toString();
+            assertEquals(reference(s), Address.check(s), "check(\"" + s + "\")");
+        }
+    }
+
+    @Test
+    @DisplayName("Address view exposes each field and can be reset to another address")
+    void testView_FieldsAndReuse() {
+        Address a = Address.parse("32|Highland Street|Melbourne|Victoria|Australia||");
+        assertNotNull(a);
+        assertEquals("32", a.streetNumber());
+        assertEquals("Highland Street", a.street());
+        assertEquals("Melbourne", a.city());
+        assertEquals("Victoria", a.state());
+        assertEquals("Australia", a.country());
+        assertTrue(a.fieldEquals(Address.CITY, "Melbourne"));
+
+        assertTrue(a.reset("|Bourke Street|Geelong|Victoria|Australia"));
+        assertEquals("", a.streetNumber());
+        assertEquals("Geelong", a.city());
+
+        assertFalse(a.reset("1|Main St|Sydney|NewSouthWales|Australia"));
+        assertEquals(Address.NOT_VICTORIA_AUSTRALIA, a.result());
+        assertThrows(IllegalStateException.class, a::city);
+        assertNull(Address.parse(null));
+    }
+}
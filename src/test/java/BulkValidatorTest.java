@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkValidatorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("BulkValidator splits rows exactly as addPerson's rules do, across many small chunks")
+    void testSplit_MatchesAddPersonRules() throws IOException {
+        String[] ids = { "56_ada&fAB", "29!_%ABCD", "29%_d&Abc9", "٣5%_&ABXYZ", "35%_&ABXYZ" };
+        String[] addresses = { "32|Highland Street|Melbourne|Victoria|Australia",
+                "32|Highland Street|Melbourne|NewSouthWales|Australia", "1|Main St|Geelong|Victoria|Australia|" };
+        String[] dates = { "27-02-2015", "31-02-2023", "2015-02-27", "01-01-0000" };
+
+        Random rnd = new Random(11);
+        StringBuilder csv = new StringBuilder("ID,First Name,Last Name,Address,Birthdate\n");
+        List<String> expectedAccepted = new ArrayList<>();
+        int expectedRejected = 0;
+        for (int i = 0; i < 500; i++) {
+            String id = ids[rnd.nextInt(ids.length)];
+            String address = addresses[rnd.nextInt(addresses.length)];
+            String date = dates[rnd.nextInt(dates.length)];
+            String row = id + ",First" + i + ",Last" + i + "," + address + "," + date;
+            if (i % 50 == 0) {
+                row = id + ",Only,Three";
+                expectedRejected++;
+            } else if (Validation.checkPerson(id, address, date) == 0) {
+                expectedAccepted.add(row);
+            } else {
+                expectedRejected++;
+            }
+            csv.append(row).append(i % 7 == 0 ? "\r\n" : "\n");
+        }
+        Path input = dir.resolve("persons.csv");
+        Files.writeString(input, csv, StandardCharsets.UTF_8);
+        Path accepted = dir.resolve("accepted.csv");
+        Path rejected = dir.resolve("rejected.csv");
+
+        BulkValidator.Result r = BulkValidator.validate(input, accepted, rejected, 3, 97);
+
+        assertEquals(500, r.rows);
+        assertEquals(expectedAccepted.size(), r.accepted);
+        assertEquals(expectedRejected, r.rejected);
+        assertEquals(10, r.fieldCountErrors);
+
+        List<String> acceptedLines = Files.readAllLines(accepted, StandardCharsets.UTF_8);
+        assertEquals("ID,First Name,Last Name,Address,Birthdate", acceptedLines.get(0));
+        assertEquals(expectedAccepted, acceptedLines.subList(1, acceptedLines.size()));
+
+        List<String> rejectedLines = Files.readAllLines(rejected, StandardCharsets.UTF_8);
+        assertEquals(expectedRejected + 1, rejectedLines.size());
+        assertTrue(rejectedLines.contains("56_ada&fAB,Only,Three,FIELD_COUNT"));
+    }
+
+    @Test
+    @DisplayName("BulkValidator reads tab-separated files and names every failed rule")
+    void testTsv_ReportsReasons() throws IOException {
+        Path input = dir.resolve("persons.tsv");
+        Files.writeString(input, "29%_d&Abc9\tCarl\tJones\t29|Bourke Street|Melbourne|NSW|Australia\t1-1-2000\n",
+                StandardCharsets.UTF_8);
+        Path accepted = dir.resolve("a.tsv");
+        Path rejected = dir.resolve("r.tsv");
+
+        BulkValidator.Result r = BulkValidator.validate(input, accepted, rejected, 2,
+                BulkValidator.DEFAULT_CHUNK_SIZE);
+
+        assertEquals(1, r.rejected);
+        assertEquals("29%_d&Abc9\tCarl\tJones\t29|Bourke Street|Melbourne|NSW|Australia\t1-1-2000"
+                + "\tID_TRAILING_UPPERCASE,ADDRESS_STATE_COUNTRY,DATE_FORMAT",
+                Files.readString(rejected, StandardCharsets.UTF_8).trim());
+        assertEquals(0, Files.size(accepted));
+    }
+
+    @Test
+    @DisplayName("BulkValidator ends every output line in LF and counts skipped empty lines")
+    void testLineEndings_AndEmptyLines() throws IOException {
+        Path input = dir.resolve("persons.csv");
+        Files.writeString(input, "ID,First Name,Last Name,Address,Birthdate\r\n"
+                + "\r\n"
+                + "56s_d%&fAB,John,Doe,32|Highland Street|Melbourne|Victoria|Australia,15-11-1990\r\n"
+                + "\n"
+                + "29!_%ABCD,Carl,Jones,32|Highland Street|Melbourne|Victoria|Australia,15-11-1990\n"
+                + "\r\n", StandardCharsets.UTF_8);
+        Path accepted = dir.resolve("a.csv");
+        Path rejected = dir.resolve("r.csv");
+
+        BulkValidator.Result r = BulkValidator.validate(input, accepted, rejected, 2, 40);
+
+        assertEquals(2, r.rows);
+        assertEquals(1, r.accepted);
+        assertEquals(1, r.rejected);
+        assertEquals(3, r.emptyLines);
+        assertEquals("ID,First Name,Last Name,Address,Birthdate\n"
+                + "56s_d%&fAB,John,Doe,32|Highland Street|Melbourne|Victoria|Australia,15-11-1990\n",
+                Files.readString(accepted, StandardCharsets.UTF_8));
+        assertTrue(Files.readString(rejected, StandardCharsets.UTF_8)
+                .startsWith("ID,First Name,Last Name,Address,Birthdate\n29!_%ABCD,"));
+    }
+}
@@ -0,0 +1,189 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChangeStreamTest {
+
+    private static final String ADDRESS = "32|Highland Street|Melbourne|Victoria|Australia";
+    private static final String GEELONG = "7|Bay Road|Geelong|Victoria|Australia";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("ChangeStream publishes adds, updates with old values, and suspension flips")
+    void testRegistryChanges_Published() throws Exception {
+        PersonRegistry registry = new PersonRegistry();
+        try (ChangeStream stream = new ChangeStream(64, ChangeStream.Policy.BLOCK)) {
+            registry.addListener(stream);
+            ChangeStream.Subscription sub = stream.subscribe();
+            registry.addPerson("37%_#ABXYZ", "Isla", "Fisher", ADDRESS, "01-01-2006");
+            registry.updatePersonalDetails("37%_#ABXYZ", "39%_#ABXYZ", "Isla", "Fisher", ADDRESS, "01-01-2006");
+            registry.addPerson("29!_%ABCD", "Bad", "ID", ADDRESS, "01-01-1990"); // rejected: no event
+            registry.addDemeritPoints("39%_#ABXYZ", "01-07-2023", 5);
+            registry.addDemeritPoints("39%_#ABXYZ", "01-08-2023", 2);
+
+            List<String> seen = new ArrayList<>();
+            assertEquals(4, sub.poll(e -> seen.add(e.sequence + " " + e.type + " " + e.personID + " "
+                    + e.previousID + " " + e.oldLastName + " " + e.offenseDate + " " + e.points + " "
+                    + e.wasSuspended + "->" + e.suspended), 100));
+            assertEquals(List.of(
+                    "0 ADDED 37%_#ABXYZ null null null 0 false->false",
+                    "1 UPDATED 39%_#ABXYZ 37%_#ABXYZ Fisher null 0 false->false",
+                    "2 DEMERIT 39%_#ABXYZ null null 01-07-2023 5 false->false",
+                    "3 DEMERIT 39%_#ABXYZ null null 01-08-2023 2 false->true"), seen);
+            assertEquals(0, sub.lag());
+        }
+    }
+
+    @Test
+    @DisplayName("ChangeStream reports the old address of an 18+ driver's address change")
+    void testUpdate_OldAndNewAddress() throws Exception {
+        PersonRegistry registry = new PersonRegistry();
+        try (ChangeStream stream = new ChangeStream(8, ChangeStream.Policy.BLOCK)) {
+            registry.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995");
+            registry.addListener(stream);
+            ChangeStream.Subscription sub = stream.subscribe();
+            registry.updatePersonalDetails("35%_&ABXYZ", "35%_&ABXYZ", "David", "Lee", GEELONG, "05-05-1995");
+            String[] addresses = new String[2];
+            sub.poll(e -> {
+                addresses[0] = e.oldAddress;
+                addresses[1] = e.address;
+            }, 1);
+            assertArrayEquals(new String[] { ADDRESS, GEELONG }, addresses);
+        }
+    }
+
+    @Test
+    @DisplayName("ChangeStream DROP skips a slow subscription to the oldest event still held")
+    void testDrop_SkipsAndCounts() throws Exception {
+        try (ChangeStream stream = new ChangeStream(8, ChangeStream.Policy.DROP)) {
+            ChangeStream.Subscription sub = stream.subscribe();
+            publish(stream, 20);
+            List<Long> seen = new ArrayList<>();
+            sub.poll(e -> seen.add(e.sequence), 100);
+            assertEquals(List.of(12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L), seen);
+            assertEquals(12, sub.lost());
+        }
+    }
+
+    @Test
+    @DisplayName("ChangeStream SPILL delivers every event in order through the spill file")
+    void testSpill_NothingLost() throws Exception {
+        Path spill = dir.resolve("changes.spill");
+        ChangeStream stream = new ChangeStream(8, ChangeStream.Policy.SPILL, spill);
+        ChangeStream.Subscription slow = stream.subscribe();
+        ChangeStream.Subscription fast = stream.subscribe();
+        List<Long> fastSeen = new ArrayList<>();
+        List<Long> slowSeen = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            publish(stream, 20);
+            fast.poll(e -> fastSeen.add(e.sequence), 1000);
+            if (round == 2) {
+                slow.poll(e -> slowSeen.add(e.sequence), 7); // partly catch up
+            }
+        }
+        while (slow.poll(e -> slowSeen.add(e.sequence), 3) > 0) {
+            // small polls, switching between spill file and ring
+        }
+        assertEquals(100, fastSeen.size());
+        assertEquals(fastSeen, slowSeen);
+        assertEquals(0, slow.lost());
+        assertTrue(Files.exists(spill));
+        assertEquals(0, Files.size(spill)); // everything in it was read
+        stream.close();
+        assertFalse(Files.exists(spill));
+    }
+
+    @Test
+    @DisplayName("ChangeStream SPILL truncates the spill file once every subscription has read past it")
+    void testSpill_TruncatedAfterCatchUp() throws Exception {
+        Path spill = dir.resolve("changes.spill");
+        try (ChangeStream stream = new ChangeStream(8, ChangeStream.Policy.SPILL, spill)) {
+            ChangeStream.Subscription slow = stream.subscribe();
+            List<Long> seen = new ArrayList<>();
+            long firstCycle = 0;
+            for (int cycle = 0; cycle < 50; cycle++) {
+                publish(stream, 40); // 32 spilled
+                if (cycle == 0) {
+                    slow.poll(e -> seen.add(e.sequence), 1);
+                    firstCycle = Files.size(spill);
+                }
+                while (slow.poll(e -> seen.add(e.sequence), 5) > 0) {
+                    // read the backlog, then the ring
+                }
+                assertEquals(0, Files.size(spill), "cycle " + cycle);
+            }
+            assertTrue(firstCycle > 0);
+            assertEquals(2000, seen.size());
+            for (int i = 0; i < seen.size(); i++) {
+                assertEquals(i, seen.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("ChangeStream BLOCK holds the producer until a consumer thread keeps up")
+    void testBlock_ConsumerThreadSeesAll() throws Exception {
+        try (ChangeStream stream = new ChangeStream(16, ChangeStream.Policy.BLOCK)) {
+            long[] expected = { 0 };
+            boolean[] inOrder = { true };
+            ChangeStream.Subscription sub = stream.start("test-consumer", e -> {
+                inOrder[0] &= e.sequence == expected[0];
+                expected[0]++;
+            });
+            publish(stream, 50_000);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (sub.lag() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            sub.close();
+            assertEquals(50_000, expected[0]);
+            assertTrue(inOrder[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("ChangeStream publishing allocates nothing per event")
+    void testPublish_NoAllocation() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        try (ChangeStream stream = new ChangeStream(1024, ChangeStream.Policy.DROP)) {
+            ChangeStream.Subscription sub = stream.subscribe();
+            Person p = person();
+            publish(stream, p, 200_000); // warm up
+            long before = threads.getCurrentThreadAllocatedBytes();
+            publish(stream, p, 200_000);
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            assertTrue(allocated < 200_000, "allocated " + allocated + " bytes for 200000 events");
+            assertTrue(sub.lost() == 0 && sub.lag() == 400_000);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static Person person() {
+        Person p = new Person(null, DayClock.fixed(LocalDate.of(2024, 6, 1)));
+        assertEquals(0, p.tryAddPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995"));
+        return p;
+    }
+
+    private static void publish(ChangeStream stream, int events) {
+        publish(stream, person(), events);
+    }
+
+    private static void publish(ChangeStream stream, Person p, int events) {
+        for (int i = 0; i < events; i++) {
+            stream.personAdded(p);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class ColumnarSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    @DisplayName("ColumnarSnapshot of a registry leaves out birthdates past the int day range")
+    void testOfRegistry_SkipsUnrepresentableBirthdates() {
+        PersonRegistry registry = new PersonRegistry();
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", "5|Church Street|Ballarat|Victoria|Australia",
+                "05-05-1995");
+        assertEquals(0, registry.addPerson("24%_!ABCDY", "Carol", "Smith",
+                "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-+10000000"));
+
+        ColumnarSnapshot s = ColumnarSnapshot.of(registry, day(2024, 12, 1));
+        assertEquals(1, s.size());
+        assertEquals("35%_&ABXYZ", s.id(0));
+        assertEquals(day(1995, 5, 5), s.birthDay(0));
+    }
+
+    @Test
+    @DisplayName("ColumnarSnapshot of a registry counts window points, suspension and city per driver")
+    void testOfRegistry_ColumnsMatchPersons() {
+        PersonRegistry registry = new PersonRegistry();
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", "5|Church Street|Ballarat|Victoria|Australia",
+                "05-05-1995");
+        registry.addPerson("24%_!ABCDY", "Carol", "Smith", "15|Oxford Street|Melbourne|Victoria|Australia",
+                "20-02-2006");
+        registry.addPerson("37#%ABXYZY", "Ann", "Wu", "9|High Street|Ballarat|Victoria|Australia", "01-01-1980");
+        registry.addDemeritPoints("35%_&ABXYZ", "10-01-2022", 6);
+        registry.addDemeritPoints("35%_&ABXYZ", "10-01-2024", 3);
+        registry.addDemeritPoints("24%_!ABCDY", "01-06-2024", 4);
+        registry.addDemeritPoints("24%_!ABCDY", "01-07-2024", 4);
+
+        ColumnarSnapshot s = ColumnarSnapshot.of(registry, day(2024, 12, 1));
+        assertEquals(3, s.size());
+        assertEquals(2, s.cityCount());
+        int ballarat = s.cityCode("Ballarat");
+        assertEquals("Ballarat", s.city(ballarat));
+        assertEquals(-1, s.cityCode("Geelong"));
+
+        // Rows are in ID order: 24%_!ABCDY, 35%_&ABXYZ, 37#%ABXYZY
+        assertEquals("24%_!ABCDY", s.id(0));
+        assertEquals(8, s.points(0));
+        assertTrue(s.isSuspended(0));
+        assertEquals(3, s.points(1)); // the 2022 offense is out of the window
+        assertEquals(day(1980, 1, 1), s.birthDay(2));
+        assertEquals(ballarat, s.cityOf(1));
+
+        ColumnarSnapshot.Query all = ColumnarSnapshot.Query.all();
+        assertEquals(3, s.count(all));
+        assertEquals(2, s.count(all.city(ballarat)));
+        assertEquals(1, s.count(all.under21On(s.day()).suspended(true)));
+        assertArrayEquals(new int[] { 0, 1 }, s.rows(all.pointsBetween(1, 12)));
+        int[] byCity = s.countByCity(all.aged21OrOverOn(s.day()));
+        assertEquals(2, byCity[ballarat]);
+        assertEquals(0, byCity[s.cityCode("Melbourne")]);
+    }
+
+    @Test
+    @DisplayName("ColumnarSnapshot scans agree with a per-row recount and survive a write / read round trip")
+    void testRandomScans_MatchRecount_AndRoundTrip() throws IOException {
+        Random rnd = new Random(15);
+        int today = day(2024, 3, 1);
+        int n = 5000;
+        ColumnarSnapshot.Builder b = new ColumnarSnapshot.Builder(today, 10);
+        String[] cities = { "Melbourne", "Ballarat", "Geelong", "Bendigo" };
+        for (int i = 0; i < n; i++) {
+            b.add(SyntheticData.id(i), today - 5000 - rnd.nextInt(20000), rnd.nextInt(10) == 0,
+                    rnd.nextInt(15), cities[rnd.nextInt(cities.length)]);
+        }
+        ColumnarSnapshot s = b.build();
+        s.write(dir.resolve("snapshot.pcs"));
+        ColumnarSnapshot r = ColumnarSnapshot.read(dir.resolve("snapshot.pcs"));
+        assertEquals(n, r.size());
+        assertEquals(today, r.day());
+
+        ColumnarSnapshot.Query q = ColumnarSnapshot.Query.all().under21On(today).pointsBetween(5, 6)
+                .suspended(false);
+        int expected = 0;
+        for (int i = 0; i < n; i++) {
+            assertEquals(s.id(i), r.id(i));
+            assertEquals(s.city(s.cityOf(i)), r.city(r.cityOf(i)));
+            boolean under21 = DateCodec.yearsBetween(s.birthDay(i), today) < 21;
+            if (under21 && s.points(i) >= 5 && s.points(i) <= 6 && !s.isSuspended(i)) {
+                expected++;
+            }
+        }
+        assertTrue(expected > 0);
+        assertEquals(expected, s.count(q));
+        assertEquals(expected, r.count(q));
+        assertEquals(expected, r.rows(q).length);
+        assertEquals(expected, java.util.Arrays.stream(r.countByCity(q)).sum());
+    }
+}
@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class CompactPersonTableTest {
+
+    private static final String ADDRESS = "32|Highland Street|Melbourne|Victoria|Australia";
+
+    @Test
+    @DisplayName("CompactPersonTable stores and reads back many persons, rejecting duplicates and invalid rows")
+    void testAddAndReadBack() {
+        CompactPersonTable table = new CompactPersonTable();
+        int n = 50_000;
+        for (int i = 0; i < n; i++) {
+            assertEquals(0, table.addPerson(SyntheticData.id(i), SyntheticData.firstName(i),
+                    SyntheticData.lastName(i), SyntheticData.address(i), SyntheticData.birthdate(i)));
+        }
+        assertEquals(Validation.Rule.REGISTRY_DUPLICATE_ID.bit,
+                table.addPerson(SyntheticData.id(7), "A", "B", ADDRESS, "01-01-1990"));
+        assertEquals(Validation.Rule.ID_SPECIAL_CHARS.bit | Validation.Rule.ADDRESS_STATE_COUNTRY.bit,
+                table.addPerson("12abcdefAB", "A", "B", "1|St|City|NSW|Australia", "01-01-1990"));
+        assertEquals(n, table.size());
+
+        for (int i = 0; i < n; i += 97) {
+            int row = table.find(SyntheticData.id(i));
+            assertEquals(SyntheticData.id(i), table.id(row));
+            assertEquals(SyntheticData.firstName(i), table.firstName(row));
+            assertEquals(SyntheticData.lastName(i), table.lastName(row));
+            assertEquals(SyntheticData.address(i), table.address(row));
+            assertEquals(SyntheticData.birthdate(i), table.birthdate(row));
+        }
+        assertEquals(-1, table.find("99_%zzzzZZ"));
+        // Names, street numbers, streets and cities repeat, so few strings are stored
+        assertTrue(table.distinctStrings() < 250, "distinct strings: " + table.distinctStrings());
+    }
+
+    @Test
+    @DisplayName("CompactPersonTable demerits and suspension match Person on random offenses")
+    void testDemerits_MatchPerson() {
+        Random rnd = new Random(11);
+        for (int trial = 0; trial < 200; trial++) {
+            String birthdate = (trial % 2 == 0) ? "29-02-2000" : "15-06-1990";
+            CompactPersonTable table = new CompactPersonTable();
+            table.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, birthdate);
+            // The table holds two years of offenses, as History.TWO_YEARS does
+            Person person = new Person(PersonStore.NONE, DayClock.SYSTEM, Person.History.TWO_YEARS);
+            person.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, birthdate);
+
+            for (int k = 0; k < 20; k++) {
+                String date = String.format("%02d-%02d-%d", 1 + rnd.nextInt(28), 1 + rnd.nextInt(12),
+                        2018 + rnd.nextInt(6));
+                int points = rnd.nextInt(8);
+                assertEquals(person.addDemeritPoints(date, points),
+                        table.addDemeritPoints("35%_&ABXYZ", date, points));
+                assertEquals(person.isSuspended, table.isSuspended(0), "after " + date + " +" + points);
+            }
+            Person copy = table.toPerson(0, PersonStore.NONE);
+            assertEquals(person.isSuspended, copy.isSuspended);
+            assertEquals(person.offenseDays(), table.offenseCount(0));
+            assertEquals(person.offenseDays(), copy.offenseDays());
+            for (int i = 0; i < person.offenseDays(); i++) {
+                int day = person.offenseDay(i);
+                assertEquals(day, table.offenseDay(0, i));
+                assertEquals(day, copy.offenseDay(i));
+                assertEquals(person.pointsFrom(day), table.pointsFrom(0, day));
+                assertEquals(person.pointsFrom(day), copy.pointsFrom(day));
+            }
+        }
+        assertEquals("Failure", new CompactPersonTable().addDemeritPoints("35%_&ABXYZ", "01-01-2024", 3));
+    }
+
+    @Test
+    @DisplayName("CompactPersonTable.toPerson keeps same-day totals above 6 points")
+    void testToPerson_SummedDayKept() {
+        CompactPersonTable table = new CompactPersonTable();
+        table.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "15-06-1990");
+        table.addDemeritPoints("35%_&ABXYZ", "01-01-2024", 5);
+        table.addDemeritPoints("35%_&ABXYZ", "01-01-2024", 5);
+        table.addDemeritPoints("35%_&ABXYZ", "01-02-2024", 3);
+        assertTrue(table.isSuspended(0), "13 > 12");
+
+        Person copy = table.toPerson(0, PersonStore.NONE);
+        assertEquals(2, copy.offenseDays());
+        assertEquals(13, copy.pointsFrom((int) DateCodec.parse("01-01-2024")));
+        assertTrue(copy.isSuspended);
+        assertEquals("Success", copy.addDemeritPoints("01-03-2024", 1));
+        assertTrue(copy.isSuspended, "14 > 12");
+    }
+
+    @Test
+    @DisplayName("CompactPersonTable applies Person's update rules and re-keys changed IDs")
+    void testUpdate_RekeysAndKeepsOtherRows() {
+        CompactPersonTable table = new CompactPersonTable();
+        for (int i = 0; i < 1000; i++) {
+            table.addPerson(SyntheticData.id(i), SyntheticData.firstName(i), SyntheticData.lastName(i),
+                    SyntheticData.address(i), SyntheticData.birthdate(i));
+        }
+        String odd = SyntheticData.id(1);
+        String even = SyntheticData.id(2);
+
+        assertEquals(Validation.Rule.UPDATE_ID_EVEN_FIRST_DIGIT.bit, table.updatePersonalDetails(even,
+                "33_%abcdXY", SyntheticData.firstName(2), SyntheticData.lastName(2),
+                SyntheticData.address(2), SyntheticData.birthdate(2)));
+        assertEquals(Validation.Rule.REGISTRY_DUPLICATE_ID.bit, table.updatePersonalDetails(odd,
+                SyntheticData.id(3), "New", SyntheticData.lastName(1), SyntheticData.address(1),
+                SyntheticData.birthdate(1)));
+        assertEquals(0, table.updatePersonalDetails(odd, "33_%abcdXY", "New", SyntheticData.lastName(1),
+                SyntheticData.address(1), SyntheticData.birthdate(1)));
+
+        assertEquals(-1, table.find(odd));
+        int row = table.find("33_%abcdXY");
+        assertEquals("New", table.firstName(row));
+        for (int i = 0; i < 1000; i++) {
+            if (i != 1) {
+                assertEquals(SyntheticData.id(i), table.id(table.find(SyntheticData.id(i))));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("CompactPersonTable keeps IDs with characters outside Latin-1")
+    void testWideID_RoundTrips() {
+        CompactPersonTable table = new CompactPersonTable();
+        assertEquals(0, table.addPerson("57€_abcdEF", "Wide", "Id", ADDRESS, "01-01-1990"));
+        assertEquals(0, table.addPerson("57é_$bcdEF", "Latin", "One", ADDRESS, "01-01-1990"));
+        assertEquals("57€_abcdEF", table.id(table.find("57€_abcdEF")));
+        assertEquals("57é_$bcdEF", table.id(table.find("57é_$bcdEF")));
+        assertEquals(0, table.updatePersonalDetails("57€_abcdEF", "59%_abcdEF", "Wide", "Id", ADDRESS,
+                "01-01-1990"));
+        assertEquals(-1, table.find("57€_abcdEF"));
+        assertEquals("59%_abcdEF", table.id(table.find("59%_abcdEF")));
+    }
+
+    @Test
+    @DisplayName("CompactPersonTable judges the under-18 address rule by its clock")
+    void testUpdate_AddressRuleUsesClock() {
+        String geelong = "7|Bay Road|Geelong|Victoria|Australia";
+        CompactPersonTable minor = new CompactPersonTable(16, DayClock.fixed(LocalDate.of(2024, 6, 1)));
+        minor.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-2010");
+        assertEquals(Validation.Rule.UPDATE_ADDRESS_UNDER_18.bit,
+                minor.updatePersonalDetails("35%_&ABXYZ", "35%_&ABXYZ", "David", "Lee", geelong, "05-05-2010"));
+        assertEquals(Validation.Rule.UPDATE_ADDRESS_UNDER_18.bit, minor.toPerson(0, PersonStore.NONE)
+                .tryUpdatePersonalDetails("35%_&ABXYZ", "David", "Lee", geelong, "05-05-2010"));
+
+        CompactPersonTable adult = new CompactPersonTable(16, DayClock.fixed(LocalDate.of(2028, 5, 5)));
+        adult.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-2010");
+        assertEquals(0,
+                adult.updatePersonalDetails("35%_&ABXYZ", "35%_&ABXYZ", "David", "Lee", geelong, "05-05-2010"));
+        assertEquals(geelong, adult.address(0));
+    }
+}
@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class DateCodecTest {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    /**
+     * reference(s) is what Person used before DateCodec: the epoch day from
+     * LocalDate.parse(s, DATE_FMT), or INVALID when it throws.
+     */
+    private static long reference(String s) {
+        try {
+            return LocalDate.parse(s, DATE_FMT).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return DateCodec.INVALID;
+        }
+    }
+
+    private static void assertSameAsFormatter(String s) {
+        assertEquals(reference(s), DateCodec.parse(s), "parse(\"" + s + "\")");
+    }
+
+    @Test
+    @DisplayName("DateCodec matches DateTimeFormatter for every dd/MM pair, including clamped dates like 31-02")
+    void testAllDayMonthPairs_MatchFormatter() {
+        String[] years = { "2023", "2024", "1900", "2000", "0001", "0000", "9999" };
+        for (String year : years) {
+            for (int d = 0; d <= 39; d++) {
+                for (int m = 0; m <= 13; m++) {
+                    assertSameAsFormatter(String.format("%02d-%02d-%s", d, m, year));
+                }
+            }
+        }
+        assertEquals(LocalDate.of(2023, 2, 28).toEpochDay(), DateCodec.parse("31-02-2023"));
+    }
+
+    @Test
+    @DisplayName("DateCodec matches DateTimeFormatter on malformed and extended-year input")
+    void testMalformedAndExtendedYears_MatchFormatter() {
+        String[] cases = { "", "1-01-2023", "01-1-2023", "01-01-202", "01-01-12345", "01-01-2023 ",
+                " 01-01-2023", "01/01/2023", "2023-01-01", "01-01-+2023", "01-01-+12345",
+                "01-01-+00000", "01-01--2023", "01-01--12345", "01-01-+999999999",
+                "01-01-+1000000000", "01-01-+0000000000000000001", "01-01-+00000000000000000001",
+                "01-01-+1234567890123456789", "29-02-+10000", "+1-01-2023", "0a-01-2023",
+                "01-01-20a3", "١٢-01-2023", "26-02-2001231225" };
+        for (String s : cases) {
+            assertSameAsFormatter(s);
+        }
+        assertEquals(DateCodec.INVALID, DateCodec.parse(null));
+    }
+
+    @Test
+    @DisplayName("DateCodec matches DateTimeFormatter on random mutations of valid dates")
+    void testRandomMutations_MatchFormatter() {
+        Random rnd = new Random(3);
+        char[] alphabet = "0123456789-+/ a".toCharArray();
+        for (int i = 0; i < 100_000; i++) {
+            char[] s = String.format("%02d-%02d-%04d", 1 + rnd.nextInt(31), 1 + rnd.nextInt(12),
+                    1 + rnd.nextInt(9999)).toCharArray();
+            s[rnd.nextInt(s.length)] = alphabet[rnd.nextInt(alphabet.length)];
+            assertSameAsFormatter(new String(s));
+        }
+    }
+
+    @Test
+    @DisplayName("DateCodec.minusYears matches LocalDate.minusYears, including 29 February")
+    void testMinusYears_MatchesLocalDate() {
+        long from = LocalDate.of(1896, 1, 1).toEpochDay();
+        long to = LocalDate.of(2104, 12, 31).toEpochDay();
+        for (long day = from; day <= to; day++) {
+            assertEquals(LocalDate.ofEpochDay(day).minusYears(2).toEpochDay(),
+                    DateCodec.minusYears(day, 2), LocalDate.ofEpochDay(day).toString());
+        }
+    }
+
+    @Test
+    @DisplayName("DateCodec.yearsBetween matches Period.between and format matches DateTimeFormatter")
+    void testYearsBetweenAndFormat_MatchJavaTime() {
+        Random rnd = new Random(5);
+        long lo = LocalDate.of(1900, 1, 1).toEpochDay();
+        long hi = LocalDate.of(2100, 12, 31).toEpochDay();
+        for (int i = 0; i < 100_000; i++) {
+            long a = lo + rnd.nextInt((int) (hi - lo));
+            long b = lo + rnd.nextInt((int) (hi - lo));
+            assertEquals(Period.between(LocalDate.ofEpochDay(a), LocalDate.ofEpochDay(b)).getYears(),
+                    DateCodec.yearsBetween(a, b), LocalDate.ofEpochDay(a) + " → " + LocalDate.ofEpochDay(b));
+            assertEquals(LocalDate.ofEpochDay(a).format(DATE_FMT), DateCodec.format(a));
+        }
+        // 29 February birthdays turn 21 on 1 March in non-leap years
+        long born = LocalDate.of(2000, 2, 29).toEpochDay();
+        assertEquals(20, DateCodec.yearsBetween(born, LocalDate.of(2021, 2, 28).toEpochDay()));
+        assertEquals(21, DateCodec.yearsBetween(born, LocalDate.of(2021, 3, 1).toEpochDay()));
+        long farFuture = LocalDate.of(12345, 6, 7).toEpochDay();
+        assertEquals(LocalDate.ofEpochDay(farFuture).format(DATE_FMT), DateCodec.format(farFuture));
+        assertEquals(farFuture, DateCodec.parse(DateCodec.format(farFuture)));
+    }
+
+    @Test
+    @DisplayName("DateCodec.birthday is the first day Period.between counts the given whole years")
+    void testBirthday_MatchesPeriodBetween() {
+        Random rnd = new Random(19);
+        long lo = LocalDate.of(1896, 1, 1).toEpochDay();
+        long hi = LocalDate.of(2030, 12, 31).toEpochDay();
+        for (int i = 0; i < 20_000; i++) {
+            long born = lo + rnd.nextInt((int) (hi - lo));
+            int years = 1 + rnd.nextInt(99);
+            long day = DateCodec.birthday(born, years);
+            LocalDate b = LocalDate.ofEpochDay(born);
+            assertEquals(years, Period.between(b, LocalDate.ofEpochDay(day)).getYears(), b + " +" + years);
+            assertEquals(years - 1, Period.between(b, LocalDate.ofEpochDay(day - 1)).getYears(), b + " +" + years);
+        }
+        assertEquals(LocalDate.of(2026, 3, 1).toEpochDay(),
+                DateCodec.birthday(LocalDate.of(2008, 2, 29).toEpochDay(), 18));
+    }
+}
@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class DemeritLedgerTest {
+
+    @Test
+    @DisplayName("DemeritLedger.sumFrom is inclusive of the window start day")
+    void testSumFrom_InclusiveStart() {
+        DemeritLedger ledger = new DemeritLedger();
+        ledger.add(100, 3);
+        ledger.add(200, 4);
+        ledger.add(300, 5);
+        assertEquals(12, ledger.sumFrom(100));
+        assertEquals(9, ledger.sumFrom(101));
+        assertEquals(9, ledger.sumFrom(200));
+        assertEquals(0, ledger.sumFrom(301));
+    }
+
+    @Test
+    @DisplayName("DemeritLedger.add on an existing date adds to that day's points")
+    void testAdd_SameDateSums() {
+        DemeritLedger ledger = new DemeritLedger();
+        assertEquals(3, ledger.add(100, 3));
+        assertEquals(8, ledger.add(100, 5));
+        assertEquals(1, ledger.size());
+        assertEquals(8, ledger.sumFrom(0));
+        ledger.addAll(new int[] { 50, 100 }, new int[] { 1, 2 }, 2);
+        assertEquals(2, ledger.size());
+        assertEquals(10, ledger.sumFrom(100));
+        assertEquals(11, ledger.total());
+    }
+
+    @Test
+    @DisplayName("DemeritLedger.evictBefore archives old buckets oldest first and shrinks")
+    void testEvictBefore_ArchivesAndShrinks() {
+        DemeritLedger ledger = new DemeritLedger();
+        for (int day = 0; day < 1000; day++) {
+            ledger.add(day, 1 + day % 6);
+        }
+        List<Integer> archived = new ArrayList<>();
+        assertEquals(990, ledger.evictBefore(990, (day, pts) -> archived.add(day)));
+        assertEquals(990, archived.size());
+        assertEquals(0, (int) archived.get(0));
+        assertEquals(989, (int) archived.get(989));
+        assertEquals(10, ledger.size());
+        assertEquals(990, ledger.dayAt(0));
+        int expected = 0;
+        for (int day = 990; day < 1000; day++) {
+            expected += 1 + day % 6;
+        }
+        assertEquals(expected, ledger.total());
+        assertEquals(expected, ledger.sumFrom(0));
+        assertEquals(0, ledger.evictBefore(990, null));
+
+        // still a working Fenwick tree after the shrink
+        ledger.add(995, 4);
+        ledger.add(2000, 6);
+        assertEquals(expected + 10, ledger.sumFrom(990));
+        assertEquals(6, ledger.sumFrom(1000));
+        assertEquals(2000, ledger.lastDay());
+    }
+
+    @Test
+    @DisplayName("DemeritLedger matches a brute-force scan for random in-order and out-of-order inserts")
+    void testRandomInserts_MatchBruteForce() {
+        Random rnd = new Random(42);
+        DemeritLedger ledger = new DemeritLedger();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            // Mostly increasing dates, with some back-dated and repeated ones
+            int day = rnd.nextInt(10) == 0 ? rnd.nextInt(i + 1) : i * 3;
+            int pts = 1 + rnd.nextInt(6);
+            ledger.add(day, pts);
+            expected.merge(day, pts, Integer::sum);
+
+            int from = rnd.nextInt(i * 3 + 2) - 1;
+            int sum = 0;
+            for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+                if (e.getKey() >= from) {
+                    sum += e.getValue();
+                }
+            }
+            assertEquals(sum, ledger.sumFrom(from), "sumFrom(" + from + ") after " + i + " inserts");
+        }
+        assertEquals(expected.size(), ledger.size());
+    }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class DetailsImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private static String details(long n) {
+        return "ID: " + SyntheticData.id(n) + "\n"
+                + "First Name: " + SyntheticData.firstName(n) + "\n"
+                + "Last Name: " + SyntheticData.lastName(n) + "\n"
+                + "Address: " + SyntheticData.address(n) + "\n"
+                + "Birthdate: " + SyntheticData.birthdate(n) + "\n";
+    }
+
+    @Test
+    @DisplayName("DetailsImporter reads what Person.writeDetails writes, one file per record, into a registry")
+    void testPerFileImport_RoundTripsWriteDetails() throws IOException {
+        Path details = Path.of("Details.txt");
+        String original = Files.exists(details) ? Files.readString(details) : null;
+        try {
+            Path sub = Files.createDirectories(dir.resolve("archive/2024"));
+            Person p = new Person();
+            assertTrue(p.addPerson("56s_d%&fAB", "John", "Doe",
+                    "32|Highland Street|Melbourne|Victoria|Australia", "15-11-1990"));
+            Files.copy(details, dir.resolve("archive/a.txt"));
+            assertTrue(p.addPerson("35%_&ABXYZ", "Ann", "Lee", "5|Church Street|Ballarat|Victoria|Australia",
+                    "05-05-1995"));
+            Files.copy(details, sub.resolve("b.txt"));
+            Files.writeString(sub.resolve("c.txt"), "ID: 35%_&ABXYZ\r\nFirst Name: Ann\r\n"); // cut short
+
+            PersonRegistry registry = new PersonRegistry();
+            DetailsImporter.Result r = new DetailsImporter().importFiles(
+                    DetailsImporter.files(List.of(dir.resolve("archive"))), registry::addPerson);
+
+            assertEquals(2, r.records);
+            assertEquals(2, r.accepted);
+            assertEquals(1, r.malformed);
+            assertEquals("Doe", registry.read("56s_d%&fAB", Person::getLastName));
+            assertEquals("05-05-1995", registry.read("35%_&ABXYZ", Person::getBirthdate));
+        } finally {
+            if (original != null) {
+                Files.writeString(details, original);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("DetailsImporter re-validates concatenated records, resynchronises after junk, and never runs far ahead of a slow sink")
+    void testConcatenatedStream_ValidatesAndAppliesBackpressure() throws IOException {
+        int n = 4000;
+        StringBuilder in = new StringBuilder();
+        int invalid = 0;
+        int malformed = 0;
+        for (int i = 0; i < n; i++) {
+            if (i % 97 == 0) {
+                in.append("ID: 22222\nFirst Name: X\nLast Name: Y\nAddress: 1|A|B|Victoria|Australia\n"
+                        + "Birthdate: 31-02-2001\n");
+                invalid++;
+            }
+            if (i % 101 == 0) {
+                in.append("ID: ").append(SyntheticData.id(i)).append("\nAddress: oops\n");
+                malformed++;
+            }
+            if (i % 113 == 0) {
+                in.append("First Name: ").append("x".repeat(200)).append('\n'); // longer than the buffer
+                malformed++;
+            }
+            in.append(details(i));
+            if (i % 5 == 0) {
+                in.append('\n');
+            }
+        }
+        byte[] bytes = in.toString().getBytes(StandardCharsets.UTF_8);
+
+        int queueBatches = 2;
+        int batchSize = 16;
+        DetailsImporter importer = new DetailsImporter(128, queueBatches, batchSize);
+        PersonRegistry registry = new PersonRegistry();
+        AtomicLong consumed = new AtomicLong();
+        long[] maxAhead = new long[1];
+        DetailsImporter.Result r = importer.importStream(new ByteArrayInputStream(bytes),
+                (id, first, last, address, birthdate) -> {
+                    maxAhead[0] = Math.max(maxAhead[0], importer.produced - consumed.getAndIncrement());
+                    if (consumed.get() % 500 == 0) {
+                        try {
+                            Thread.sleep(5); // a slow sink
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return registry.addPerson(id, first, last, address, birthdate);
+                });
+
+        assertEquals(n + invalid, r.records);
+        assertEquals(n, r.accepted);
+        assertEquals(invalid, r.rejected);
+        assertEquals(invalid, r.ruleCounts[Validation.Rule.ID_LENGTH.ordinal()]);
+        assertEquals(malformed, r.malformed);
+        assertEquals(n, registry.size());
+        assertEquals(SyntheticData.address(1234), registry.read(SyntheticData.id(1234), Person::getAddress));
+        assertTrue(maxAhead[0] <= (queueBatches + 1) * batchSize, "reader ran " + maxAhead[0] + " ahead");
+    }
+}
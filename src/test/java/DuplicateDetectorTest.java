@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class DuplicateDetectorTest {
+
+    @TempDir
+    Path dir;
+
+    private static final String ADDRESS = "32|Highland Street|Melbourne|Victoria|Australia";
+
+    @Test
+    @DisplayName("DuplicateDetector groups same last name and birthdate with matching first names")
+    void testRegistryDuplicates_Grouped() {
+        PersonRegistry registry = new PersonRegistry();
+        registry.addPerson("35%_&ABXYZ", "David", "O'Brien", ADDRESS, "05-05-1995");
+        registry.addPerson("37#%ABXYZY", "david", "OBRIEN", ADDRESS, "05-05-1995");
+        registry.addPerson("39#%ABXYZY", "D", "o brien", ADDRESS, "05-05-1995");
+        registry.addPerson("45#%ABXYZY", "Eve", "O'Brien", ADDRESS, "05-05-1995"); // other first name
+        registry.addPerson("47#%ABXYZY", "David", "O'Brien", ADDRESS, "06-05-1995"); // other birthdate
+        registry.addPerson("49#%ABXYZY", "Jon", "Smith", ADDRESS, "01-01-1980");
+        registry.addPerson("55#%ABXYZY", "John", "Smith", ADDRESS, "01-01-1980");
+
+        List<DuplicateDetector.Group> groups = DuplicateDetector.of(registry).find(2);
+
+        assertEquals(2, groups.size());
+        DuplicateDetector.Group brien = groups.stream().filter(g -> g.IDs.length == 3).findFirst().get();
+        assertArrayEquals(new String[] { "35%_&ABXYZ", "37#%ABXYZY", "39#%ABXYZY" }, brien.IDs);
+        assertEquals(DateCodec.parse("05-05-1995"), brien.birthDay);
+        DuplicateDetector.Group smith = groups.stream().filter(g -> g.IDs.length == 2).findFirst().get();
+        assertArrayEquals(new String[] { "49#%ABXYZY", "55#%ABXYZY" }, smith.IDs);
+    }
+
+    @Test
+    @DisplayName("DuplicateDetector.Builder skips invalid birthdates and days beyond an int")
+    void testBuilder_SkipsUnrepresentableBirthdates() {
+        DuplicateDetector.Builder b = new DuplicateDetector.Builder(4);
+        assertTrue(b.add("35%_&ABXYZ", "David", "Lee", "05-05-1995"));
+        assertFalse(b.add("37%_&ABXYZ", "David", "Lee", "31-13-1995"));
+        assertNotEquals(DateCodec.INVALID, DateCodec.parse("01-01-+999999999"));
+        assertFalse(b.add("39%_&ABXYZ", "David", "Lee", "01-01-+999999999"));
+        assertTrue(b.build().find(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("DuplicateDetector first-name rule: initials and one-edit typos only")
+    void testSameFirstName() {
+        assertTrue(DuplicateDetector.sameFirstName("Anne-Marie", "annemarie"));
+        assertTrue(DuplicateDetector.sameFirstName("J", "John"));
+        assertTrue(DuplicateDetector.sameFirstName("Micheal", "Michael"));
+        assertTrue(DuplicateDetector.sameFirstName("Sara", "Sarah"));
+        assertFalse(DuplicateDetector.sameFirstName("Al", "Ed"));
+        assertFalse(DuplicateDetector.sameFirstName("Jo", "Jon"));
+        assertFalse(DuplicateDetector.sameFirstName("Mark", "Mira"));
+    }
+
+    @Test
+    @DisplayName("DuplicateDetector finds planted duplicates among many records, for any thread count")
+    void testPlantedDuplicates_AnyThreads() {
+        int records = 200_000;
+        DuplicateDetector.Builder b = new DuplicateDetector.Builder(records);
+        for (int n = 0; n < records; n++) {
+            b.add(SyntheticData.id(n), SyntheticData.firstName(n), SyntheticData.lastName(n) + letters(n),
+                    SyntheticData.birthdate(n));
+        }
+        // every 1000th record registered again under a new ID
+        for (int n = 0; n < records; n += 1000) {
+            b.add("dup" + n, SyntheticData.firstName(n).toUpperCase(), SyntheticData.lastName(n) + letters(n),
+                    SyntheticData.birthdate(n));
+        }
+        DuplicateDetector detector = b.build();
+
+        List<DuplicateDetector.Group> one = detector.find(1);
+        List<DuplicateDetector.Group> four = detector.find(4);
+        assertEquals(records / 1000, one.size());
+        assertEquals(one.size(), four.size());
+        for (int i = 0; i < one.size(); i++) {
+            assertArrayEquals(one.get(i).IDs, four.get(i).IDs);
+            assertEquals(2, one.get(i).IDs.length);
+            assertTrue(one.get(i).IDs[1].startsWith("dup") || one.get(i).IDs[0].startsWith("dup"));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    /** letters(n) spells n in base 26, so names stay distinct once normalized. */
+    private static String letters(int n) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append((char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return sb.toString();
+    }
+
+    @Test
+    @DisplayName("DuplicateDetector main scans an all-digit directory and takes threads only from --threads")
+    void testMain_ThreadsFlag() throws Exception {
+        Path year = Files.createDirectory(dir.resolve("2024"));
+        Files.writeString(year.resolve("Details.txt"),
+                "ID: 35%_&ABXYZ\nFirst Name: David\nLast Name: Lee\nAddress: " + ADDRESS
+                        + "\nBirthdate: 05-05-1995\n"
+                        + "ID: 37#%ABXYZY\nFirst Name: D\nLast Name: Lee\nAddress: " + ADDRESS
+                        + "\nBirthdate: 05-05-1995\n",
+                StandardCharsets.UTF_8);
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            DuplicateDetector.main(new String[] { "--threads", "2", year.toString() });
+        } finally {
+            System.setOut(out);
+        }
+        String printed = captured.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("35%_&ABXYZ 37#%ABXYZY"), printed);
+        assertTrue(printed.contains("2 records, 1 candidate groups"), printed);
+        assertTrue(printed.contains("on 2 threads"), printed);
+    }
+}
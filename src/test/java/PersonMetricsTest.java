@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.*;
+
+class PersonMetricsTest {
+
+    @Test
+    @DisplayName("LatencyHistogram buckets keep every value within 12.5% and answer percentiles")
+    void testHistogram_BucketsAndPercentiles() {
+        for (long v : new long[] { 0, 1, 7, 8, 9, 15, 16, 100, 1000, 123_456_789L, LatencyHistogram.MAX_TRACKED }) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.bucketOf(v));
+            assertTrue(upper >= v && upper - v <= v / LatencyHistogram.SUB_BUCKETS, v + " → " + upper);
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(LatencyHistogram.MAX_TRACKED));
+
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i * 1000L);
+        }
+        h.record(Long.MAX_VALUE); // clamped into the last bucket
+        LatencyHistogram.Snapshot s = h.snapshot();
+        assertEquals(1001, s.count());
+        long p50 = s.valueAt(0.5);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 9 / 8, "p50 " + p50);
+        long p99 = s.valueAt(0.99);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 9 / 8, "p99 " + p99);
+        assertEquals(LatencyHistogram.MAX_TRACKED, s.max());
+    }
+
+    @Test
+    @DisplayName("PersonMetrics counts Person operations per rule, times them, tracks suspensions and serves /metrics")
+    void testPersonOperations_AreCountedAndExposed() throws IOException {
+        Assumptions.assumeTrue(PersonMetrics.ENABLED, "run with -Dperson.metrics=true");
+        PersonMetrics.reset();
+
+        Person p = new Person((previousID, person) -> { });
+        assertEquals(Validation.Rule.ID_LENGTH.bit | Validation.Rule.DATE_FORMAT.bit, p.tryAddPerson("29!_%ABCD",
+                "Carl", "Jones", "29|Bourke Street|Melbourne|Victoria|Australia", "2001-02-03"));
+        assertEquals(0, p.tryAddPerson("24%_!ABCDY", "Carol", "Nguyen",
+                "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-2010"));
+        assertEquals(Validation.Rule.UPDATE_ID_EVEN_FIRST_DIGIT.bit, p.tryUpdatePersonalDetails("35#%ABXYZY",
+                "Carol", "Nguyen", "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-2010"));
+        assertEquals("Failure", p.addDemeritPoints("01-01-2024", 7));
+        assertEquals("Success", p.addDemeritPoints("01-01-2024", 4));
+        assertEquals("Success", p.addDemeritPoints("01-02-2024", 4)); // 8 > 6 while under 21
+        assertTrue(p.isSuspended);
+
+        PersonMetrics.Snapshot s = PersonMetrics.snapshot();
+        assertEquals(1, s.accepted(PersonMetrics.Op.ADD_PERSON));
+        assertEquals(1, s.rejected(PersonMetrics.Op.ADD_PERSON));
+        assertEquals(1, s.rejected(PersonMetrics.Op.ADD_PERSON, Validation.Rule.DATE_FORMAT));
+        assertEquals(1, s.rejected(PersonMetrics.Op.UPDATE_PERSONAL_DETAILS,
+                Validation.Rule.UPDATE_ID_EVEN_FIRST_DIGIT));
+        assertEquals(2, s.accepted(PersonMetrics.Op.ADD_DEMERIT_POINTS));
+        assertEquals(1, s.rejected(PersonMetrics.Op.ADD_DEMERIT_POINTS));
+        assertEquals(1, s.accepted(PersonMetrics.Op.WRITE_DETAILS));
+        // Latency is sampled, one call in SAMPLE_EVERY
+        assertTrue(s.latency(PersonMetrics.Op.ADD_DEMERIT_POINTS).count() <= 3);
+        for (int i = 0; i < 100 * PersonMetrics.SAMPLE_EVERY; i++) {
+            p.addDemeritPoints("01-03-2024", 1);
+        }
+        assertTrue(PersonMetrics.snapshot().latency(PersonMetrics.Op.ADD_DEMERIT_POINTS).count() > 0);
+        assertEquals(2, s.accepted(PersonMetrics.Op.CHECK_ID) + s.rejected(PersonMetrics.Op.CHECK_ID));
+        assertNull(s.latency(PersonMetrics.Op.CHECK_DATE));
+        assertEquals(1, s.suspendedDrivers());
+
+        HttpServer server = PersonMetrics.serve(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+            HttpURLConnection c = (HttpURLConnection) url.openConnection();
+            assertEquals(200, c.getResponseCode());
+            String body;
+            try (InputStream in = c.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(body.contains("person_operations_total{op=\"add_person\",outcome=\"accepted\"} 1\n"), body);
+            assertTrue(body.contains("person_rejections_total{op=\"add_person\",rule=\"ID_LENGTH\"} 1\n"), body);
+            assertTrue(body.contains("person_operation_duration_seconds_count{op=\"add_demerit_points\"} "
+                    + (3 + 100 * PersonMetrics.SAMPLE_EVERY) + "\n"), body);
+            assertTrue(body.contains("person_suspended_drivers 1\n"), body);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("PersonMetrics counts addPerson through a PersonRegistry once, rejections included")
+    void testRegistryAddPerson_CountedOnce() {
+        Assumptions.assumeTrue(PersonMetrics.ENABLED, "run with -Dperson.metrics=true");
+        PersonMetrics.reset();
+
+        PersonRegistry registry = new PersonRegistry();
+        assertEquals(Validation.Rule.DATE_FORMAT.bit, registry.addPerson("24%_!ABCDY", "Carol", "Nguyen",
+                "15|Oxford Street|Melbourne|Victoria|Australia", "2010-02-20"));
+        assertEquals(0, registry.addPerson("24%_!ABCDY", "Carol", "Nguyen",
+                "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-2010"));
+
+        PersonMetrics.Snapshot s = PersonMetrics.snapshot();
+        assertEquals(1, s.accepted(PersonMetrics.Op.ADD_PERSON));
+        assertEquals(1, s.rejected(PersonMetrics.Op.ADD_PERSON));
+        assertEquals(1, s.rejected(PersonMetrics.Op.ADD_PERSON, Validation.Rule.DATE_FORMAT));
+        assertEquals(2, s.accepted(PersonMetrics.Op.CHECK_ID) + s.rejected(PersonMetrics.Op.CHECK_ID));
+        assertEquals(2, s.accepted(PersonMetrics.Op.CHECK_ADDRESS) + s.rejected(PersonMetrics.Op.CHECK_ADDRESS));
+        assertEquals(2, s.accepted(PersonMetrics.Op.CHECK_DATE) + s.rejected(PersonMetrics.Op.CHECK_DATE));
+    }
+}
@@ -0,0 +1,122 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.*;
+
+class PersonRegistryTest {
+
+    private static final String ADDRESS = "32|Highland Street|Melbourne|Victoria|Australia";
+
+    @Test
+    @DisplayName("PersonRegistry rejects duplicate IDs and unknown IDs")
+    void testDuplicateAndUnknownIDs() {
+        PersonRegistry registry = new PersonRegistry();
+        assertEquals(0, registry.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995"));
+        assertEquals(Validation.Rule.REGISTRY_DUPLICATE_ID.bit,
+                registry.addPerson("35%_&ABXYZ", "Other", "Person", ADDRESS, "01-01-1990"));
+        assertEquals(Validation.Rule.ID_LENGTH.bit,
+                registry.addPerson("29!_%ABCD", "Jane", "Smith", ADDRESS, "15-11-1990"));
+        assertEquals(Validation.Rule.REGISTRY_UNKNOWN_ID.bit,
+                registry.updatePersonalDetails("24%_!ABCDY", "24%_!ABCDY", "A", "B", ADDRESS, "01-01-1990"));
+        assertEquals("Failure", registry.addDemeritPoints("24%_!ABCDY", "01-01-2024", 3));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("PersonRegistry re-keys a person whose ID changes, and refuses a taken new ID")
+    void testIDChange_Rekeys() {
+        PersonRegistry registry = new PersonRegistry();
+        assertEquals(0, registry.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995"));
+        assertEquals(0, registry.addPerson("37#%ABXYZY", "Eve", "Clark", ADDRESS, "10-10-2000"));
+
+        assertEquals(Validation.Rule.REGISTRY_DUPLICATE_ID.bit, registry.updatePersonalDetails(
+                "35%_&ABXYZ", "37#%ABXYZY", "David", "Lee", ADDRESS, "05-05-1995"));
+        assertEquals(0, registry.updatePersonalDetails(
+                "35%_&ABXYZ", "39#%ABXYZY", "David", "Lee", ADDRESS, "05-05-1995"));
+
+        assertFalse(registry.contains("35%_&ABXYZ"));
+        assertEquals("David", registry.read("39#%ABXYZY", Person::getFirstName));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    @DisplayName("PersonRegistry batch demerits group rows by person and reject unknown IDs")
+    void testBatchDemerits_GroupedByPerson() {
+        PersonRegistry registry = new PersonRegistry();
+        registry.addPerson("24%_#ABXYZ", "Isla", "Fisher", ADDRESS, "01-01-2006");
+        registry.addPerson("25%_#ABXYZ", "Jack", "Sparrow", ADDRESS, "01-01-1995");
+
+        boolean[] result = registry.addDemeritPoints(
+                new String[] { "24%_#ABXYZ", "25%_#ABXYZ", "99%_#ABXYZ", "24%_#ABXYZ", "25%_#ABXYZ" },
+                new String[] { "01-07-2023", "01-07-2023", "01-07-2023", "01-08-2023", "bad" },
+                new int[] { 5, 6, 1, 2, 1 });
+
+        assertArrayEquals(new boolean[] { true, true, false, true, false }, result);
+        assertTrue(registry.isSuspended("24%_#ABXYZ"));
+        assertFalse(registry.isSuspended("25%_#ABXYZ"));
+        assertNull(registry.isSuspended("99%_#ABXYZ"));
+    }
+
+    @Test
+    @DisplayName("PersonRegistry stays consistent under concurrent re-keys, updates and demerits")
+    void testConcurrentMutations_StayConsistent() throws Exception {
+        PersonRegistry registry = new PersonRegistry(PersonStore.NONE, 8);
+        int persons = 200;
+        for (int n = 0; n < persons; n++) {
+            assertEquals(0, registry.addPerson(SyntheticData.id(n), SyntheticData.firstName(n),
+                    SyntheticData.lastName(n), SyntheticData.address(n), SyntheticData.birthdate(n)));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    int n = (i * 7 + thread) % persons;
+                    String id = SyntheticData.id(n);
+                    registry.addDemeritPoints(id, SyntheticData.offenseDate(i), 1 + i % 6);
+                    // Odd IDs may move to a fresh odd ID, and back again
+                    String moved = SyntheticData.id(n + 1_000_000);
+                    registry.updatePersonalDetails(id, moved, SyntheticData.firstName(n),
+                            SyntheticData.lastName(n), SyntheticData.address(n), SyntheticData.birthdate(n));
+                    registry.updatePersonalDetails(moved, id, SyntheticData.firstName(n),
+                            SyntheticData.lastName(n), SyntheticData.address(n), SyntheticData.birthdate(n));
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(persons, registry.size());
+        for (String id : registry.ids()) {
+            assertEquals(id, registry.read(id, p -> p.personID), "registry key must match the person's ID");
+        }
+    }
+
+    @Test
+    @DisplayName("PersonRegistry applies the under-18 address rule against its injected clock")
+    void testInjectedClock_DecidesUnder18AddressRule() {
+        String moved = "7|Queen Street|Ballarat|Victoria|Australia";
+        // Born 29-02-2008: 18 on 1 March 2026 (no 29 February that year)
+        PersonRegistry before = new PersonRegistry(PersonStore.NONE, 16,
+                DayClock.fixed(java.time.LocalDate.of(2026, 2, 28)));
+        PersonRegistry after = new PersonRegistry(PersonStore.NONE, 16,
+                DayClock.fixed(java.time.LocalDate.of(2026, 3, 1)));
+        for (PersonRegistry r : new PersonRegistry[] { before, after }) {
+            assertEquals(0, r.addPerson("34*#d&ABCD", "Alice", "Smith", ADDRESS, "29-02-2008"));
+        }
+        assertEquals(Validation.Rule.UPDATE_ADDRESS_UNDER_18.bit, before.updatePersonalDetails("34*#d&ABCD",
+                "34*#d&ABCD", "Alice", "Smith", moved, "29-02-2008"));
+        assertEquals(0, after.updatePersonalDetails("34*#d&ABCD", "34*#d&ABCD", "Alice", "Smith", moved,
+                "29-02-2008"));
+        assertEquals(moved, after.read("34*#d&ABCD", Person::getAddress));
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.*;
+
+class PersonServerTest {
+
+    @Test
+    @DisplayName("PersonServer answers pipelined ADD / UPDATE / DEMERIT / SUSPENDED requests in order")
+    void testPipelinedRequests_AnsweredInOrder() throws IOException {
+        PersonRegistry registry = new PersonRegistry();
+        try (PersonServer server = new PersonServer(registry, 0)) {
+            assertTrue(server.address().isLoopbackAddress(), "loopback only unless asked otherwise");
+            server.start();
+            try (Socket socket = new Socket("127.0.0.1", server.port())) {
+                String requests = String.join("\n",
+                        "ADD\t35%_&ABXYZ\tDavid\tLee\t5|Church Street|Ballarat|Victoria|Australia\t05-05-1995",
+                        "ADD\t29!_%ABCD\tJane\tSmith\t5|Church Street|Ballarat|Victoria|Australia\t05-05-1995",
+                        "UPDATE\t35%_&ABXYZ\t37%_&ABXYZ\tDavid\tLee\t5|Church Street|Ballarat|Victoria|Australia"
+                                + "\t05-05-1995",
+                        "DEMERIT\t37%_&ABXYZ\t01-01-2024\t6",
+                        "DEMERIT\t37%_&ABXYZ\t01-02-2024\t6",
+                        "DEMERIT\t37%_&ABXYZ\t01-03-2024\t7",
+                        "SUSPENDED\t37%_&ABXYZ",
+                        "DEMERIT\t37%_&ABXYZ\t01-04-2024\t1",
+                        "SUSPENDED\t37%_&ABXYZ",
+                        "SUSPENDED\t35%_&ABXYZ",
+                        "DELETE\t37%_&ABXYZ") + "\n";
+                OutputStream out = socket.getOutputStream();
+                out.write(requests.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String[] expected = { "OK", "ERR ID_LENGTH", "OK", "OK", "OK", "ERR Failure", "false", "OK",
+                        "true", "ERR REGISTRY_UNKNOWN_ID", "ERR USAGE" };
+                for (String e : expected) {
+                    assertEquals(e, in.readLine());
+                }
+            }
+            assertEquals(4, server.latency(PersonServer.DEMERIT).count());
+            assertEquals("Lee", registry.read("37%_&ABXYZ", Person::getLastName));
+        }
+    }
+
+    @Test
+    @DisplayName("LoadGenerator drives a local PersonServer and reports latency percentiles")
+    void testLoadGenerator_RunsAgainstServer() throws Exception {
+        PersonRegistry registry = new PersonRegistry();
+        PersonServer.preload(registry, 1000);
+        try (PersonServer server = new PersonServer(registry, 0)) {
+            server.start();
+            LoadGenerator.Result r = LoadGenerator.run("127.0.0.1", server.port(), 1000, 1, 4, 8);
+            assertTrue(r.requests > 0);
+            assertEquals(r.requests, r.latency.count());
+            assertTrue(r.latency.valueAt(0.99) >= r.latency.valueAt(0.5));
+            assertTrue(LoadGenerator.stats("127.0.0.1", server.port()).startsWith("ADD n="));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class RecordFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("RecordFile overwrites a person's slot in place and reads everything back after reopening")
+    void testUpdateInPlace_ReopenReadsBack() throws IOException {
+        Path file = dir.resolve("persons.rec");
+        String longName = "Maximiliana-Alexandrina Wolfeschlegelsteinhausen";
+        try (RecordFile records = new RecordFile(file)) {
+            Person a = new Person(records);
+            Person b = new Person(records);
+            assertTrue(a.addPerson("35%_&ABXYZ", "David", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            assertTrue(b.addPerson("24%_!ABCDY", longName, null,
+                    "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-1980"));
+            assertTrue(a.updatePersonalDetails("39%_&ABXYZ", "David", "Leighton",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+
+            // The ID change reused slot 0 rather than taking a new one
+            assertEquals(2, records.slotCount());
+            assertEquals(0, records.slot("39%_&ABXYZ"));
+            assertEquals(-1, records.slot("35%_&ABXYZ"));
+            assertTrue(records.idEquals(0, "39%_&ABXYZ"));
+
+            ByteBuffer view = records.record(0);
+            assertEquals(RecordFile.RECORD_SIZE, view.remaining());
+            assertEquals('3', view.getChar(4));
+        }
+        assertEquals(RecordFile.HEADER_SIZE + 1024L * RecordFile.RECORD_SIZE, Files.size(file));
+
+        try (RecordFile reopened = new RecordFile(file)) {
+            assertEquals(2, reopened.size());
+            int david = reopened.slot("39%_&ABXYZ");
+            assertEquals("Leighton", reopened.lastName(david));
+            assertEquals("5|Church Street|Ballarat|Victoria|Australia", reopened.address(david));
+            assertEquals("05-05-1995", reopened.birthdate(david));
+
+            int carol = reopened.slot("24%_!ABCDY");
+            assertEquals(longName, reopened.firstName(carol));
+            assertNull(reopened.lastName(carol));
+
+            Person restored = reopened.toPerson(david, reopened);
+            assertTrue(restored.updatePersonalDetails("39%_&ABXYZ", "Dave", "Leighton",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            assertEquals("Dave", reopened.firstName(david));
+        }
+    }
+
+    @Test
+    @DisplayName("RecordFile grows past its initial slots and exports a log RegistryStore can read")
+    void testGrowthAndTextExport() throws IOException {
+        Path file = dir.resolve("persons.rec");
+        int n = 3000;
+        try (RecordFile records = new RecordFile(file)) {
+            for (int i = 0; i < n; i++) {
+                Person p = new Person(records);
+                assertTrue(p.addPerson(SyntheticData.id(i), SyntheticData.firstName(i),
+                        SyntheticData.lastName(i), SyntheticData.address(i), SyntheticData.birthdate(i)));
+            }
+            assertEquals(n, records.size());
+            records.exportText(dir.resolve("export.txt"));
+        }
+
+        try (RegistryStore text = new RegistryStore(dir.resolve("export.txt"))) {
+            assertEquals(n, text.size());
+            for (int i = 0; i < n; i += 101) {
+                RegistryStore.Record r = text.get(SyntheticData.id(i));
+                assertEquals(SyntheticData.firstName(i), r.firstName);
+                assertEquals(SyntheticData.address(i), r.address);
+                assertEquals(SyntheticData.birthdate(i), r.birthdate);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("RecordFile reopens from its index without a rebuild, and rebuilds after an unclean shutdown")
+    void testIndex_CleanReopenAndRebuild() throws IOException {
+        Path file = dir.resolve("persons.rec");
+        int n = 5000;
+        try (RecordFile records = new RecordFile(file)) {
+            assertTrue(records.indexRebuilt()); // new file, no index yet
+            for (int i = 0; i < n; i++) {
+                new Person(records).addPerson(SyntheticData.id(i), SyntheticData.firstName(i),
+                        SyntheticData.lastName(i), SyntheticData.address(i), SyntheticData.birthdate(i));
+            }
+        }
+
+        // Rekey every odd ID to one with '#' in place of '_'
+        try (RecordFile records = new RecordFile(file)) {
+            assertFalse(records.indexRebuilt());
+            assertEquals(n, records.size());
+            for (int i = 1; i < n; i += 2) {
+                String id = SyntheticData.id(i);
+                String newID = id.replace('_', '#');
+                Person p = records.toPerson(records.slot(id), records);
+                assertTrue(p.updatePersonalDetails(newID, p.getFirstName(), p.getLastName(), p.getAddress(),
+                        p.getBirthdate()), id + " → " + newID);
+            }
+        }
+
+        // Dirty index (as after a crash): the next open rebuilds it from the slots
+        try (RecordIndex index = new RecordIndex(RecordFile.indexPath(file))) {
+            index.remove(SyntheticData.id(0), 0);
+        }
+        try (RecordFile records = new RecordFile(file)) {
+            assertTrue(records.indexRebuilt());
+            assertEquals(n, records.size());
+            for (int i = 0; i < n; i++) {
+                String id = SyntheticData.id(i);
+                if (i % 2 == 1) {
+                    assertEquals(-1, records.slot(id), id);
+                    id = id.replace('_', '#');
+                }
+                int slot = records.slot(id);
+                assertTrue(slot >= 0, id);
+                assertEquals(SyntheticData.birthdate(i), records.birthdate(slot));
+            }
+        }
+    }
+}
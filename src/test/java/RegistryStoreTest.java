@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class RegistryStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("RegistryStore keeps many persons in one log and rebuilds the latest state on reopen")
+    void testManyPersons_ReopenRebuildsLatestState() throws IOException {
+        Path log = dir.resolve("registry.log");
+        try (RegistryStore store = new RegistryStore(log)) {
+            Person a = new Person(store);
+            Person b = new Person(store);
+            assertTrue(a.addPerson("35%_&ABXYZ", "David", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            assertTrue(b.addPerson("24%_!ABCDY", "Carol", "Nguyen",
+                    "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-1980"));
+            assertTrue(a.updatePersonalDetails("35%_&ABXYZ", "David", "Leighton",
+                    "55|High Street|Swan Hill|Victoria|Australia", "05-05-1995"));
+            assertEquals(2, store.size());
+            assertEquals(3, store.recordCount());
+        }
+
+        try (RegistryStore reopened = new RegistryStore(log)) {
+            assertEquals(2, reopened.size());
+            RegistryStore.Record david = reopened.get("35%_&ABXYZ");
+            assertEquals("Leighton", david.lastName);
+            assertEquals("55|High Street|Swan Hill|Victoria|Australia", david.address);
+            assertEquals("Carol", reopened.get("24%_!ABCDY").firstName);
+
+            Person restored = david.toPerson(reopened);
+            assertEquals("35%_&ABXYZ", restored.personID);
+            assertEquals("05-05-1995", restored.getBirthdate());
+        }
+    }
+
+    @Test
+    @DisplayName("RegistryStore re-keys a person whose ID changed")
+    void testIDChange_RekeysRecord() throws IOException {
+        Path log = dir.resolve("registry.log");
+        try (RegistryStore store = new RegistryStore(log)) {
+            Person p = new Person(store);
+            assertTrue(p.addPerson("35%_&ABXYZ", "David", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            assertTrue(p.updatePersonalDetails("37#%ABXYZY", "David", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+        }
+        try (RegistryStore reopened = new RegistryStore(log)) {
+            assertNull(reopened.get("35%_&ABXYZ"));
+            assertNotNull(reopened.get("37#%ABXYZY"));
+            assertEquals(1, reopened.size());
+        }
+    }
+
+    @Test
+    @DisplayName("RegistryStore drops a torn trailing record and keeps appending cleanly")
+    void testTornTail_IsCutOff() throws IOException {
+        Path log = dir.resolve("registry.log");
+        try (RegistryStore store = new RegistryStore(log)) {
+            new Person(store).addPerson("35%_&ABXYZ", "David", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995");
+        }
+        Files.writeString(log, "ID: 24%_!ABCDY\nFirst Name: Car", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (RegistryStore store = new RegistryStore(log)) {
+            assertEquals(1, store.size());
+            new Person(store).addPerson("24%_!ABCDY", "Carol", "Nguyen",
+                    "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-1980");
+        }
+        try (RegistryStore reopened = new RegistryStore(log)) {
+            assertEquals(2, reopened.size());
+            assertEquals("Carol", reopened.get("24%_!ABCDY").firstName);
+        }
+    }
+
+    @Test
+    @DisplayName("RegistryStore compacts superseded records once they outnumber live ones")
+    void testCompaction_DropsSupersededRecords() throws IOException {
+        Path log = dir.resolve("registry.log");
+        try (RegistryStore store = new RegistryStore(log, 8)) {
+            Person p = new Person(store);
+            assertTrue(p.addPerson("35%_&ABXYZ", "David", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            for (int i = 0; i < 20; i++) {
+                assertTrue(p.updatePersonalDetails("35%_&ABXYZ", "David", "Lee" + i,
+                        "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            }
+            assertTrue(store.recordCount() < 10, "log should have been compacted");
+        }
+        try (RegistryStore reopened = new RegistryStore(log)) {
+            assertEquals("Lee19", reopened.get("35%_&ABXYZ").lastName);
+        }
+    }
+
+    @Test
+    @DisplayName("RegistryStore replays a name holding line breaks without splitting or forging records")
+    void testLineBreakInName_CannotForgeRecord() throws IOException {
+        Path log = dir.resolve("registry.log");
+        String forged = "Eve\nID: 24%_!ABCDY\nFirst Name: Forged\r\nLast Name: X\\n";
+        try (RegistryStore store = new RegistryStore(log)) {
+            assertTrue(new Person(store).addPerson("35%_&ABXYZ", forged, "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+        }
+        try (RegistryStore reopened = new RegistryStore(log)) {
+            assertEquals(1, reopened.size());
+            assertNull(reopened.get("24%_!ABCDY"));
+            assertEquals(forged, reopened.get("35%_&ABXYZ").firstName);
+            assertEquals("Lee", reopened.get("35%_&ABXYZ").lastName);
+        }
+    }
+}
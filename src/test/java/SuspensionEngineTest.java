@@ -0,0 +1,144 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class SuspensionEngineTest {
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+
+    @Test
+    @DisplayName("SuspensionEngine un-suspends a driver exactly when their oldest counted offense expires")
+    void testExpiry_UnsuspendsOnTheRightDay() {
+        SuspensionEngine engine = new SuspensionEngine(day(2024, 1, 10));
+        engine.register("35%_&ABXYZ", day(1990, 1, 1));
+        engine.register("37#%ABXYZY", day(1990, 1, 1));
+        engine.addOffense("35%_&ABXYZ", day(2023, 1, 5), 6);
+        engine.addOffense("35%_&ABXYZ", day(2023, 6, 1), 6);
+        assertTrue(engine.addOffense("35%_&ABXYZ", day(2024, 1, 10), 1));
+        engine.addOffense("37#%ABXYZY", day(2024, 1, 1), 2);
+
+        List<String> changed = new ArrayList<>();
+        // 05-01-2023 still counts on 05-01-2025 (inclusive bound) ...
+        assertEquals(0, engine.advanceTo(day(2025, 1, 5), (id, s) -> changed.add(id + "=" + s)));
+        assertTrue(engine.isSuspended("35%_&ABXYZ"));
+        // ... and drops out the next day
+        assertEquals(1, engine.advanceTo(day(2025, 1, 6), (id, s) -> changed.add(id + "=" + s)));
+        assertEquals(List.of("35%_&ABXYZ=false"), changed);
+        assertEquals(7, engine.windowSum("35%_&ABXYZ"));
+        assertEquals(2, engine.windowSum("37#%ABXYZY"));
+        // Only the one expiry was applied; the other driver was never touched
+        assertEquals(1, engine.eventsProcessed());
+    }
+
+    @Test
+    @DisplayName("SuspensionEngine raises the threshold on the 21st birthday, 1 March for 29 February births")
+    void testTwentyFirstBirthday_RaisesThreshold() {
+        SuspensionEngine engine = new SuspensionEngine(day(2020, 6, 1));
+        engine.register("24%_#ABXYZ", day(2000, 2, 29));
+        assertFalse(engine.addOffense("24%_#ABXYZ", day(2020, 6, 1), 4));
+        assertTrue(engine.addOffense("24%_#ABXYZ", day(2020, 7, 1), 4));
+
+        assertEquals(0, engine.advanceTo(day(2021, 2, 28), null));
+        assertTrue(engine.isSuspended("24%_#ABXYZ"));
+        assertEquals(1, engine.advanceTo(day(2021, 3, 1), null));
+        assertFalse(engine.isSuspended("24%_#ABXYZ"));
+    }
+
+    @Test
+    @DisplayName("SuspensionEngine matches a full recount after random offenses and random time steps")
+    void testRandomTimeline_MatchesRecount() {
+        Random rnd = new Random(21);
+        int start = day(2020, 1, 1);
+        SuspensionEngine engine = new SuspensionEngine(start);
+        int drivers = 300;
+        int[] births = new int[drivers];
+        List<Map<Integer, Integer>> offenses = new ArrayList<>();
+        for (int i = 0; i < drivers; i++) {
+            births[i] = day(1998 + rnd.nextInt(6), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28));
+            if (i % 10 == 0) {
+                births[i] = day(2000 + 4 * rnd.nextInt(2), 2, 29);
+            }
+            engine.register(SyntheticData.id(i), births[i]);
+            offenses.add(new HashMap<>());
+        }
+
+        int today = start;
+        for (int step = 0; step < 400; step++) {
+            for (int k = 0; k < 20; k++) {
+                int i = rnd.nextInt(drivers);
+                int offense = today - rnd.nextInt(900);
+                int points = 1 + rnd.nextInt(6);
+                offenses.get(i).merge(offense, points, Integer::sum);
+                engine.addOffense(SyntheticData.id(i), offense, points);
+            }
+            today += rnd.nextInt(10);
+            engine.advanceTo(today, null);
+
+            int windowStart = (int) DateCodec.minusYears(today, 2);
+            for (int i = 0; i < drivers; i++) {
+                int sum = 0;
+                for (Map.Entry<Integer, Integer> e : offenses.get(i).entrySet()) {
+                    if (e.getKey() >= windowStart) {
+                        sum += e.getValue();
+                    }
+                }
+                int threshold = DateCodec.yearsBetween(births[i], today) < 21 ? 6 : 12;
+                assertEquals(sum, engine.windowSum(SyntheticData.id(i)));
+                assertEquals(sum > threshold, engine.isSuspended(SyntheticData.id(i)),
+                        "driver " + i + " on " + LocalDate.ofEpochDay(today));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("SuspensionEngine follows a PersonRegistry it listens to, including ID changes")
+    void testRegistryListener_TracksPersons() {
+        PersonRegistry registry = new PersonRegistry();
+        SuspensionEngine engine = new SuspensionEngine(day(2024, 3, 1));
+        registry.addListener(engine);
+        String address = "32|Highland Street|Melbourne|Victoria|Australia";
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", address, "05-05-1995");
+        registry.addDemeritPoints("35%_&ABXYZ", "01-02-2024", 6);
+        registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 3);
+        registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 2); // adds to the 3
+        assertEquals(11, engine.windowSum("35%_&ABXYZ"));
+
+        registry.updatePersonalDetails("35%_&ABXYZ", "39%_&ABXYZ", "David", "Lee", address, "05-05-1995");
+        assertNull(engine.isSuspended("35%_&ABXYZ"));
+        assertEquals(11, engine.windowSum("39%_&ABXYZ"));
+        assertFalse(engine.isSuspended("39%_&ABXYZ"));
+
+        // 6 + 5 + 2 = 13 points suspend an adult until the 01-02-2024 offense expires
+        registry.addDemeritPoints("39%_&ABXYZ", "15-03-2024", 2);
+        assertTrue(registry.isSuspended("39%_&ABXYZ"));
+        assertTrue(engine.isSuspended("39%_&ABXYZ"));
+        assertEquals(1, engine.advanceTo(day(2026, 2, 2), registry::setSuspended));
+        assertFalse(registry.isSuspended("39%_&ABXYZ"));
+    }
+
+    @Test
+    @DisplayName("SuspensionEngine does not track a person whose birthdate is past the int day range")
+    void testRegistryListener_SkipsUnrepresentableBirthdate() {
+        PersonRegistry registry = new PersonRegistry();
+        SuspensionEngine engine = new SuspensionEngine(day(2024, 3, 1));
+        registry.addListener(engine);
+        String address = "32|Highland Street|Melbourne|Victoria|Australia";
+        assertEquals(0, registry.addPerson("35%_&ABXYZ", "David", "Lee", address, "05-05-+10000000"));
+        assertEquals("Success", registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 3));
+        assertNull(engine.isSuspended("35%_&ABXYZ"));
+
+        assertEquals(0, registry.addPerson("39%_&ABXYZ", "Ana", "Lee", address, "05-05-1995"));
+        registry.addDemeritPoints("39%_&ABXYZ", "01-03-2024", 6);
+        assertEquals(0, registry.updatePersonalDetails("39%_&ABXYZ", "39%_&ABXYZ", "Ana", "Lee", address,
+                "05-05-+10000000"));
+        assertNull(engine.isSuspended("39%_&ABXYZ"));
+        assertEquals(0, engine.advanceTo(day(2027, 1, 1), registry::setSuspended));
+    }
+}
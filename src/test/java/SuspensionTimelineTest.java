@@ -0,0 +1,186 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class SuspensionTimelineTest {
+
+    @Test
+    @DisplayName("SuspensionTimeline answers past dates, including after points leave the window")
+    void testPastDates_WindowAndExpiry() {
+        SuspensionTimeline timeline = new SuspensionTimeline();
+        timeline.register("35%_&ABXYZ", day(1990, 5, 5));
+        timeline.addOffense("35%_&ABXYZ", day(2020, 2, 1), 6);
+        timeline.addOffense("35%_&ABXYZ", day(2020, 3, 1), 4);
+        timeline.addOffense("35%_&ABXYZ", day(2020, 3, 1), 3); // same day: both count
+
+        assertEquals(0, timeline.pointsOn("35%_&ABXYZ", day(2020, 1, 31)));
+        assertFalse(timeline.isSuspendedOn("35%_&ABXYZ", day(2020, 2, 29)));
+        assertEquals(13, timeline.pointsOn("35%_&ABXYZ", day(2020, 3, 1)));
+        assertTrue(timeline.isSuspendedOn("35%_&ABXYZ", day(2020, 3, 1)));
+        assertTrue(timeline.isSuspendedOn("35%_&ABXYZ", day(2022, 2, 1)), "window start is inclusive");
+        assertFalse(timeline.isSuspendedOn("35%_&ABXYZ", day(2022, 2, 2)));
+        assertEquals(7, timeline.pointsOn("35%_&ABXYZ", day(2022, 2, 2)));
+        assertEquals(0, timeline.pointsOn("35%_&ABXYZ", day(2022, 3, 2)));
+        assertArrayEquals(new int[] { day(2020, 3, 1), day(2022, 2, 2) }, timeline.transitions("35%_&ABXYZ"));
+
+        assertNull(timeline.isSuspendedOn("99%_&ABXYZ", day(2020, 3, 1)));
+        assertEquals(-1, timeline.pointsOn("99%_&ABXYZ", day(2020, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("SuspensionTimeline raises the threshold on the 21st birthday, 1 March for 29 February births")
+    void testTwentyFirstBirthday_Threshold() {
+        SuspensionTimeline timeline = new SuspensionTimeline();
+        timeline.register("24%_#ABXYZ", day(2000, 2, 29));
+        timeline.addOffense("24%_#ABXYZ", day(2020, 6, 1), 4);
+        timeline.addOffense("24%_#ABXYZ", day(2020, 7, 1), 4);
+        assertTrue(timeline.isSuspendedOn("24%_#ABXYZ", day(2021, 2, 28)));
+        assertFalse(timeline.isSuspendedOn("24%_#ABXYZ", day(2021, 3, 1)));
+        assertEquals(8, timeline.pointsOn("24%_#ABXYZ", day(2021, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("SuspensionTimeline follows a PersonRegistry, including ID and birthdate changes")
+    void testRegistryListener_TracksPersons() {
+        PersonRegistry registry = new PersonRegistry(null, 4, DayClock.fixed(LocalDate.of(2024, 6, 1)));
+        SuspensionTimeline timeline = new SuspensionTimeline();
+        registry.addListener(timeline);
+        String address = "32|Highland Street|Melbourne|Victoria|Australia";
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", address, "05-05-2004");
+        registry.addDemeritPoints("35%_&ABXYZ", "01-02-2024", 4);
+        registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 3);
+        assertTrue(timeline.isSuspendedOn("35%_&ABXYZ", day(2024, 3, 1)));
+
+        // only the birthdate changes: now 21 well before the offenses
+        assertEquals(0, registry.updatePersonalDetails("35%_&ABXYZ", "35%_&ABXYZ", "David", "Lee", address,
+                "05-05-1995"));
+        assertFalse(timeline.isSuspendedOn("35%_&ABXYZ", day(2024, 3, 1)));
+
+        assertEquals(0, registry.updatePersonalDetails("35%_&ABXYZ", "39%_&ABXYZ", "David", "Lee", address,
+                "05-05-1995"));
+        assertNull(timeline.isSuspendedOn("35%_&ABXYZ", day(2024, 3, 1)));
+        assertEquals(7, timeline.pointsOn("39%_&ABXYZ", day(2024, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("SuspensionTimeline single and batch queries match a recount for random histories")
+    void testRandomHistories_MatchRecount() {
+        Random rnd = new Random(25);
+        SuspensionTimeline timeline = new SuspensionTimeline();
+        int drivers = 200;
+        int[] births = new int[drivers];
+        List<Map<Integer, Integer>> offenses = new ArrayList<>();
+        for (int i = 0; i < drivers; i++) {
+            births[i] = day(1995 + rnd.nextInt(10), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28));
+            if (i % 10 == 0) {
+                births[i] = day(2000 + 4 * rnd.nextInt(2), 2, 29);
+            }
+            timeline.register(SyntheticData.id(i), births[i]);
+            offenses.add(new HashMap<>());
+        }
+        int start = day(2015, 1, 1);
+        for (int k = 0; k < 4000; k++) {
+            int i = rnd.nextInt(drivers);
+            int offense = start + rnd.nextInt(3650); // any order, back-dated too
+            int points = 1 + rnd.nextInt(6);
+            offenses.get(i).merge(offense, points, Integer::sum);
+            timeline.addOffense(SyntheticData.id(i), offense, points);
+        }
+
+        int queries = 20_000;
+        String[] ids = new String[queries];
+        int[] driver = new int[queries];
+        int[] days = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            driver[q] = rnd.nextInt(drivers);
+            ids[q] = q % 1000 == 0 ? "99%_&ABXYZ" : SyntheticData.id(driver[q]);
+            days[q] = start - 30 + rnd.nextInt(3650 + 800);
+        }
+        int[] points = new int[queries];
+        boolean[] suspended = new boolean[queries];
+        assertEquals(queries - queries / 1000, timeline.query(ids, days, points, suspended));
+
+        for (int q = 0; q < queries; q++) {
+            if (ids[q].equals("99%_&ABXYZ")) {
+                assertEquals(-1, points[q]);
+                continue;
+            }
+            int i = driver[q];
+            int from = (int) DateCodec.minusYears(days[q], 2);
+            int sum = 0;
+            for (Map.Entry<Integer, Integer> e : offenses.get(i).entrySet()) {
+                if (e.getKey() >= from && e.getKey() <= days[q]) {
+                    sum += e.getValue();
+                }
+            }
+            int threshold = DateCodec.yearsBetween(births[i], days[q]) < 21 ? 6 : 12;
+            String at = "driver " + i + " on " + LocalDate.ofEpochDay(days[q]);
+            assertEquals(sum, points[q], at);
+            assertEquals(sum > threshold, suspended[q], at);
+            assertEquals(sum, timeline.pointsOn(ids[q], days[q]), at);
+            assertEquals(sum > threshold, timeline.isSuspendedOn(ids[q], days[q]), at);
+        }
+    }
+
+    @Test
+    @DisplayName("SuspensionTimeline agrees with Person.isSuspended on in-order offenses, not back-dated ones")
+    void testPersonIsSuspended_Relationship() {
+        PersonRegistry registry = new PersonRegistry(null, 4, DayClock.fixed(LocalDate.of(2030, 1, 1)));
+        SuspensionTimeline timeline = new SuspensionTimeline();
+        registry.addListener(timeline);
+        String address = "32|Highland Street|Melbourne|Victoria|Australia";
+        Random rnd = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            String ID = SyntheticData.id(i);
+            int birthYear = 1995 + rnd.nextInt(12);
+            assertEquals(0, registry.addPerson(ID, "Ana", "Lee", address, "15-06-" + birthYear));
+            int offense = day(2016, 1, 1);
+            for (int k = 0; k < 30; k++) {
+                offense += rnd.nextInt(90); // date order, same day too
+                int points = 1 + rnd.nextInt(6);
+                assertEquals("Success", registry.addDemeritPoints(ID, DateCodec.format(offense), points));
+                assertEquals(registry.isSuspended(ID), timeline.isSuspendedOn(ID, offense),
+                        ID + " after " + DateCodec.format(offense));
+            }
+        }
+
+        // back-dated: Person counts the later offense too, the timeline as of the date does not
+        registry.addPerson("35%_&ABXYZ", "David", "Lee", address, "05-05-1990");
+        registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 6);
+        registry.addDemeritPoints("35%_&ABXYZ", "01-01-2024", 6);
+        registry.addDemeritPoints("35%_&ABXYZ", "01-01-2024", 1);
+        assertTrue(registry.isSuspended("35%_&ABXYZ"));
+        assertFalse(timeline.isSuspendedOn("35%_&ABXYZ", day(2024, 1, 1)));
+        assertTrue(timeline.isSuspendedOn("35%_&ABXYZ", day(2024, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("SuspensionTimeline does not track a person whose birthdate is past the int day range")
+    void testRegistryListener_SkipsUnrepresentableBirthdate() {
+        PersonRegistry registry = new PersonRegistry(null, 4, DayClock.fixed(LocalDate.of(2024, 6, 1)));
+        SuspensionTimeline timeline = new SuspensionTimeline();
+        registry.addListener(timeline);
+        String address = "32|Highland Street|Melbourne|Victoria|Australia";
+        assertEquals(0, registry.addPerson("35%_&ABXYZ", "David", "Lee", address, "05-05-+10000000"));
+        assertEquals("Success", registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 3));
+        assertNull(timeline.isSuspendedOn("35%_&ABXYZ", day(2024, 3, 1)));
+
+        assertEquals(0, registry.addPerson("39%_&ABXYZ", "Ana", "Lee", address, "05-05-1995"));
+        assertEquals(0, registry.updatePersonalDetails("39%_&ABXYZ", "39%_&ABXYZ", "Ana", "Lee", address,
+                "05-05-+10000000"));
+        assertNull(timeline.isSuspendedOn("39%_&ABXYZ", day(2024, 3, 1)));
+    }
+
+    // ─────────────────────────────────────────────────────────────────
+    // H E L P E R M E T H O D S
+    // ─────────────────────────────────────────────────────────────────
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
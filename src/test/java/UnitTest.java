@@ -3,6 +3,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Random;
 import org.junit.jupiter.api.*;
 
 class UnitTest {
@@ -117,7 +119,8 @@ class UnitTest {
     @Test
     @DisplayName("TC 1.1.1-F: updatePersonalDetails denies address change if under 18 → returns false")
     void testUpdatePersonalDetails_Under18ChangeAddress_ReturnsFalse() throws IOException {
-        Person p = new Person();
+        // Pin "today" so the person below stays 16
+        Person p = new Person(null, DayClock.fixed(LocalDate.of(2024, 6, 1)));
         // Add a 16-year-old person
         boolean added = p.addPerson(
                 "34*#d&ABCD",
@@ -410,4 +413,138 @@ class UnitTest {
         assertEquals("Failure", result, "Expected Failure for invalid date values");
         assertFalse(p.isSuspended, "No suspension if the date is invalid");
     }
-}
\ No newline at end of file
+
+    // -------------------------------------------------------
+    // TESTS FOR bulk addDemeritPoints(String[], int[])
+    // -------------------------------------------------------
+
+    @Test
+    @DisplayName("TC 1.1.1-R: bulk addDemeritPoints flags invalid rows and suspends like the single-offense loop")
+    void testAddDemeritPointsBulk_MixedRows_MatchesSingleCalls() throws IOException {
+        Person p = new Person();
+        boolean added = p.addPerson(
+                "24%_#ABXYZ",
+                "Isla",
+                "Fisher",
+                "20|Queen Street|Melbourne|Victoria|Australia",
+                "01-01-2006");
+        assertTrue(added, "Precondition: Should be able to add Isla");
+
+        // Unsorted batch with a bad date, an out-of-range points value and a repeated date
+        String[] dates = { "01-08-2023", "2023/07/01", "01-07-2023", "15-07-2023", "01-07-2023" };
+        int[] points = { 2, 3, 1, 7, 5 };
+        boolean[] result = p.addDemeritPoints(dates, points);
+
+        assertArrayEquals(new boolean[] { true, false, true, false, true }, result);
+        // 01-07-2023 ends up with 1 + 5 (same-day rows add up) + 2 on 01-08-2023 = 8 > 6
+        assertTrue(p.isSuspended, "Should be suspended once total > 6 within 2 years");
+    }
+
+    @Test
+    @DisplayName("TC 1.1.1-S: bulk addDemeritPoints ends in the same suspension state as repeated single calls")
+    void testAddDemeritPointsBulk_RandomBatches_MatchSingleCalls() throws IOException {
+        Random rnd = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            Person single = new Person();
+            Person bulk = new Person();
+            assertTrue(single.addPerson("25%_#ABXYZ", "Jack", "Sparrow",
+                    "1|Pirate Way|Geelong|Victoria|Australia", "01-01-2002"));
+            assertTrue(bulk.addPerson("25%_#ABXYZ", "Jack", "Sparrow",
+                    "1|Pirate Way|Geelong|Victoria|Australia", "01-01-2002"));
+
+            int n = 1 + rnd.nextInt(20);
+            String[] dates = new String[n];
+            int[] points = new int[n];
+            boolean[] expected = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                dates[i] = String.format("%02d-%02d-%d", 1 + rnd.nextInt(28), 1 + rnd.nextInt(12),
+                        2019 + rnd.nextInt(7));
+                points[i] = rnd.nextInt(8);
+                expected[i] = "Success".equals(single.addDemeritPoints(dates[i], points[i]));
+            }
+            assertArrayEquals(expected, bulk.addDemeritPoints(dates, points));
+            assertEquals(single.isSuspended, bulk.isSuspended, "trial " + trial);
+        }
+    }
+
+    @Test
+    @DisplayName("TC 1.1.1-T: two offenses on the same date both count → under-21 4 + 3 points suspends")
+    void testAddDemeritPoints_SameDayOffenses_Sum() throws IOException {
+        Person p = new Person();
+        assertTrue(p.addPerson("24%_#ABXYZ", "Isla", "Fisher", "3|Ocean Road|Geelong|Victoria|Australia",
+                "01-01-2006"));
+
+        assertEquals("Success", p.addDemeritPoints("01-07-2023", 4));
+        assertFalse(p.isSuspended);
+        assertEquals("Success", p.addDemeritPoints("01-07-2023", 3));
+        assertTrue(p.isSuspended, "4 + 3 = 7 > 6 on one date");
+        assertEquals(1, p.offenseDays());
+    }
+
+    @Test
+    @DisplayName("TC 1.1.1-U: offenses older than two years before the newest are evicted")
+    void testAddDemeritPoints_OldOffensesEvicted() throws IOException {
+        Person p = new Person();
+        assertTrue(p.addPerson("25%_#ABXYZ", "Jack", "Sparrow", "1|Pirate Way|Geelong|Victoria|Australia",
+                "01-01-1980"));
+
+        // one offense a month for 20 years: the ledger stays within two years
+        for (int year = 2000; year < 2020; year++) {
+            for (int month = 1; month <= 12; month++) {
+                assertEquals("Success", p.addDemeritPoints(String.format("15-%02d-%d", month, year), 1));
+                assertTrue(p.offenseDays() <= 25, "held " + p.offenseDays() + " dates");
+            }
+        }
+        // 15-12-2017 .. 15-12-2019 inclusive: 25 offenses of 1 point
+        assertEquals(25, p.offenseDays());
+        assertTrue(p.isSuspended, "25 > 12 points in the window");
+    }
+
+    @Test
+    @DisplayName("TC 1.1.1-V: with History.TWO_YEARS, an offense back-dated before the horizon → Failure")
+    void testAddDemeritPoints_BeforeHorizon_Rejected() throws IOException {
+        Person p = new Person(null, DayClock.SYSTEM, Person.History.TWO_YEARS);
+        assertTrue(p.addPerson("26%_#ABXYZ", "Isla", "Fisher", "3|Ocean Road|Geelong|Victoria|Australia",
+                "01-01-2006"));
+
+        assertEquals("Success", p.addDemeritPoints("01-01-2020", 5));
+        assertEquals("Success", p.addDemeritPoints("01-01-2023", 1)); // evicts 01-01-2020
+        assertEquals(1, p.offenseDays());
+        // its window would have to count the evicted 5 points
+        assertEquals("Failure", p.addDemeritPoints("01-06-2020", 2));
+        assertFalse(p.isSuspended);
+        assertEquals(1, p.offenseDays());
+        // on the horizon itself is still accepted
+        assertEquals("Success", p.addDemeritPoints("01-01-2021", 6));
+        assertTrue(p.isSuspended, "1 + 6 = 7 > 6");
+
+        boolean[] accepted = p.addDemeritPoints(new String[] { "01-06-2020", "01-01-2025", "01-06-2022" },
+                new int[] { 1, 1, 1 });
+        assertArrayEquals(new boolean[] { false, true, false }, accepted, "horizon moves with the batch");
+    }
+
+    @Test
+    @DisplayName("TC 1.1.1-W: by default an offense back-dated before the horizon → Success, judged with archived ones")
+    void testAddDemeritPoints_BeforeHorizon_JudgedWithArchive() throws IOException {
+        Person p = new Person();
+        assertTrue(p.addPerson("26%_#ABXYZ", "Isla", "Fisher", "3|Ocean Road|Geelong|Victoria|Australia",
+                "01-01-2006"));
+
+        assertEquals("Success", p.addDemeritPoints("01-01-2020", 5));
+        assertEquals("Success", p.addDemeritPoints("01-01-2023", 1)); // archives 01-01-2020
+        assertEquals(1, p.offenseDays());
+        // window from 01-06-2018: the archived 5 + 2 + the later 1 = 8 > 6
+        assertEquals("Success", p.addDemeritPoints("01-06-2020", 2));
+        assertTrue(p.isSuspended);
+        assertEquals(1, p.offenseDays(), "the back-dated offense is archived too");
+
+        // the bulk form accepts the same rows in any order
+        Person q = new Person();
+        assertTrue(q.addPerson("26%_#ABXYZ", "Isla", "Fisher", "3|Ocean Road|Geelong|Victoria|Australia",
+                "01-01-2006"));
+        boolean[] accepted = q.addDemeritPoints(new String[] { "01-01-2023", "01-06-2020", "01-01-2020" },
+                new int[] { 1, 2, 5 });
+        assertArrayEquals(new boolean[] { true, true, true }, accepted);
+        assertTrue(q.isSuspended, "01-01-2020 window: 5 + 2 + 1 = 8 > 6");
+    }
+}
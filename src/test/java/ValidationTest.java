@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+class ValidationTest {
+
+    @Test
+    @DisplayName("Validation.checkID reports every failed rule once the length is right")
+    void testCheckID_ReportsEachFailedRule() {
+        assertEquals(0, Validation.checkID("56_ada&fAB"));
+        assertEquals(Validation.Rule.ID_LENGTH.bit, Validation.checkID("29!_%ABCD"));
+        assertEquals(Validation.Rule.ID_LENGTH.bit, Validation.checkID(null));
+        int errors = Validation.checkID("a2bcdefgh9");
+        assertTrue(Validation.Rule.ID_LEADING_DIGITS.isSet(errors));
+        assertTrue(Validation.Rule.ID_SPECIAL_CHARS.isSet(errors));
+        assertTrue(Validation.Rule.ID_TRAILING_UPPERCASE.isSet(errors));
+        assertEquals("ID_LEADING_DIGITS,ID_SPECIAL_CHARS,ID_TRAILING_UPPERCASE", Validation.describe(errors));
+        assertEquals("First two digits are not ints!", Validation.message(errors));
+    }
+
+    @Test
+    @DisplayName("Validation.checkPerson combines ID, address and date failures")
+    void testCheckPerson_CombinesRules() {
+        assertEquals(0, Validation.checkPerson("56_ada&fAB",
+                "32|Highland Street|Melbourne|Victoria|Australia", "27-02-2015"));
+        int errors = Validation.checkPerson("56_ada&fAB",
+                "32|Highland Street|Sydney|NewSouthWales|Australia", "2015-02-27");
+        assertEquals(Validation.Rule.ADDRESS_STATE_COUNTRY.bit | Validation.Rule.DATE_FORMAT.bit, errors);
+        assertEquals(Validation.Rule.ADDRESS_NULL.bit | Validation.Rule.DATE_NULL.bit,
+                Validation.checkPerson("56_ada&fAB", null, null));
+    }
+
+    @Test
+    @DisplayName("tryAddPerson/tryUpdatePersonalDetails return rule bits and print nothing")
+    void testTryMethods_AreSilent() {
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured));
+        try {
+            Person p = new Person((previousID, person) -> { });
+            assertEquals(Validation.Rule.ID_TRAILING_UPPERCASE.bit, p.tryAddPerson("29%_d&Abc9", "Carl",
+                    "Jones", "29|Bourke Street|Melbourne|Victoria|Australia", "01-01-2000"));
+            assertEquals(0, p.tryAddPerson("24%_!ABCDY", "Carol", "Nguyen",
+                    "15|Oxford Street|Melbourne|Victoria|Australia", "20-02-1980"));
+            assertEquals(Validation.Rule.UPDATE_ID_EVEN_FIRST_DIGIT.bit, p.tryUpdatePersonalDetails(
+                    "35#%ABXYZY", "Carol", "Nguyen", "15|Oxford Street|Melbourne|Victoria|Australia",
+                    "20-02-1980"));
+            assertEquals(Validation.Rule.UPDATE_ADDRESS_FORMAT.bit | Validation.Rule.ADDRESS_PART_COUNT.bit,
+                    p.tryUpdatePersonalDetails("24%_!ABCDY", "Carol", "Nguyen", "15|Oxford Street",
+                            "20-02-1980"));
+            // A rejected update leaves every field untouched
+            assertEquals("15|Oxford Street|Melbourne|Victoria|Australia", p.getAddress());
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals(0, captured.size(), "silent methods must not print");
+    }
+
+    /** The original Character-based checkID rules, as the reference. */
+    private static int referenceCheckID(String ID) {
+        if (ID == null || ID.length() != 10) {
+            return Validation.Rule.ID_LENGTH.bit;
+        }
+        int errors = 0;
+        if (!Character.isDigit(ID.charAt(0)) || !Character.isDigit(ID.charAt(1))) {
+            errors |= Validation.Rule.ID_LEADING_DIGITS.bit;
+        }
+        int specialCount = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!Character.isLetterOrDigit(ID.charAt(i))) {
+                specialCount++;
+            }
+        }
+        if (specialCount < 2) {
+            errors |= Validation.Rule.ID_SPECIAL_CHARS.bit;
+        }
+        char c8 = ID.charAt(8);
+        char c9 = ID.charAt(9);
+        if (!(c8 >= 'A' && c8 <= 'Z') || !(c9 >= 'A' && c9 <= 'Z')) {
+            errors |= Validation.Rule.ID_TRAILING_UPPERCASE.bit;
+        }
+        return errors;
+    }
+
+    @Test
+    @DisplayName("Validation.checkID and checkIDs agree with the Character-based rules, ASCII and not")
+    void testCheckIDTable_MatchesCharacterRules() {
+        // ASCII, Latin-1 letters and digits (é, ²), Arabic-Indic and fullwidth digits, a lone surrogate
+        String alphabet = "09AZaz_%&#!@ ~\u007f\u00e9\u00b2\u00c0\u0663\uff11\ud800";
+        Random rnd = new Random(17);
+        int n = 20000;
+        byte[] packed = new byte[n * 10];
+        String[] latin1 = new String[n];
+        for (int k = 0; k < n; k++) {
+            char[] id = new char[10];
+            for (int i = 0; i < 10; i++) {
+                id[i] = rnd.nextInt(4) == 0 ? (char) rnd.nextInt(256) : alphabet.charAt(rnd.nextInt(alphabet.length()));
+            }
+            String s = new String(id);
+            assertEquals(referenceCheckID(s), Validation.checkID(s), s);
+
+            for (int i = 0; i < 10; i++) {
+                id[i] = (char) (id[i] & 0xFF);
+            }
+            latin1[k] = new String(id);
+            System.arraycopy(latin1[k].getBytes(StandardCharsets.ISO_8859_1), 0, packed, k * 10, 10);
+        }
+
+        int[] results = new int[n];
+        int valid = Validation.checkIDs(packed, 0, n, results);
+        int expectedValid = 0;
+        for (int k = 0; k < n; k++) {
+            assertEquals(referenceCheckID(latin1[k]), results[k], latin1[k]);
+            expectedValid += results[k] == 0 ? 1 : 0;
+        }
+        assertEquals(expectedValid, valid);
+
+        byte[] two = "xx56_ada&fAB35%_&ABXYZ".getBytes(StandardCharsets.ISO_8859_1);
+        int[] r = new int[1];
+        assertEquals(1, Validation.checkIDs(two, 12, 1, r));
+        assertEquals(0, r[0]);
+    }
+}
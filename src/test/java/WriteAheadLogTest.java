@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteAheadLogTest {
+
+    private static final String ADDRESS = "32|Highland Street|Melbourne|Victoria|Australia";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("WriteAheadLog replay rebuilds details, demerit history and suspension")
+    void testReplay_RebuildsRegistry() throws IOException {
+        Path log = dir.resolve("registry.wal");
+        PersonRegistry registry = new PersonRegistry();
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.Durability.SYNC)) {
+            registry.addListener(wal);
+            assertEquals(0, registry.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995"));
+            assertEquals(0, registry.addPerson("24%_#ABXYZ", "Isla", null, ADDRESS, "01-01-2006"));
+            assertEquals(0, registry.updatePersonalDetails("35%_&ABXYZ", "39%_&ABXYZ", "Dave", "Lee",
+                    "5|Church Street|Ballarat|Victoria|Australia", "05-05-1995"));
+            // Rejected changes are not logged
+            assertNotEquals(0, registry.addPerson("39%_&ABXYZ", "Dup", "Licate", ADDRESS, "01-01-1990"));
+            assertEquals("Failure", registry.addDemeritPoints("39%_&ABXYZ", "01-01-2024", 9));
+
+            assertEquals("Success", registry.addDemeritPoints("39%_&ABXYZ", "01-01-2024", 6));
+            registry.addDemeritPoints(new String[] { "24%_#ABXYZ", "24%_#ABXYZ", "39%_&ABXYZ" },
+                    new String[] { "01-07-2023", "01-08-2023", "01-02-2024" }, new int[] { 5, 2, 6 });
+            assertEquals(7, wal.appended());
+        }
+
+        PersonRegistry recovered = new PersonRegistry();
+        assertEquals(7, WriteAheadLog.replay(log, recovered));
+        assertArrayEquals(registry.ids(), recovered.ids());
+        for (String id : registry.ids()) {
+            assertEquals(registry.read(id, WriteAheadLogTest::describe), recovered.read(id, WriteAheadLogTest::describe));
+        }
+        assertTrue(recovered.isSuspended("24%_#ABXYZ"));
+        assertNull(recovered.read("24%_#ABXYZ", Person::getLastName));
+
+        // History survived: one more offense flips the adult over 12 points
+        assertEquals("Success", recovered.addDemeritPoints("39%_&ABXYZ", "01-03-2024", 1));
+        assertTrue(recovered.isSuspended("39%_&ABXYZ"));
+    }
+
+    @Test
+    @DisplayName("WriteAheadLog replay restores suspension flips made through setSuspended")
+    void testReplay_RestoresSetSuspended() throws IOException {
+        Path log = dir.resolve("registry.wal");
+        PersonRegistry registry = new PersonRegistry();
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.Durability.SYNC)) {
+            registry.addListener(wal);
+            registry.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995");
+            registry.addDemeritPoints("35%_&ABXYZ", "01-01-2024", 6);
+            registry.addDemeritPoints("35%_&ABXYZ", "01-02-2024", 6);
+            registry.addDemeritPoints("35%_&ABXYZ", "01-03-2024", 6);
+            assertTrue(registry.isSuspended("35%_&ABXYZ"));
+            // e.g. SuspensionEngine once the points age out
+            assertTrue(registry.setSuspended("35%_&ABXYZ", false));
+            assertTrue(registry.setSuspended("35%_&ABXYZ", false)); // no flip: not logged
+            assertEquals(5, wal.appended());
+        }
+
+        PersonRegistry recovered = new PersonRegistry();
+        assertEquals(5, WriteAheadLog.replay(log, recovered));
+        assertFalse(recovered.isSuspended("35%_&ABXYZ"));
+    }
+
+    @Test
+    @DisplayName("WriteAheadLog replay cuts off a torn final record")
+    void testReplay_TruncatesTornTail() throws IOException {
+        Path log = dir.resolve("registry.wal");
+        PersonRegistry registry = new PersonRegistry();
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.Durability.ASYNC)) {
+            registry.addListener(wal);
+            registry.addPerson("35%_&ABXYZ", "David", "Lee", ADDRESS, "05-05-1995");
+            registry.addDemeritPoints("35%_&ABXYZ", "01-01-2024", 3);
+        }
+        long good = Files.size(log);
+        Files.write(log, new byte[] { 0, 0, 0, 40, 1, 2, 3, 4, 1, 9 }, StandardOpenOption.APPEND);
+
+        PersonRegistry recovered = new PersonRegistry();
+        assertEquals(2, WriteAheadLog.replay(log, recovered));
+        assertEquals(good, Files.size(log));
+        assertEquals(1, recovered.size());
+    }
+
+    @Test
+    @DisplayName("WriteAheadLog group-commits concurrent BATCHED writers into fewer flushes")
+    void testConcurrentWriters_ShareFlushes() throws Exception {
+        Path log = dir.resolve("registry.wal");
+        PersonRegistry registry = new PersonRegistry();
+        int threads = 8;
+        int perThread = 200;
+        try (WriteAheadLog wal = new WriteAheadLog(log, WriteAheadLog.Durability.BATCHED, 2, 1024)) {
+            registry.addListener(wal);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int base = t * perThread;
+                futures.add(pool.submit(() -> {
+                    for (int i = base; i < base + perThread; i++) {
+                        assertEquals(0, registry.addPerson(SyntheticData.id(i), SyntheticData.firstName(i),
+                                SyntheticData.lastName(i), SyntheticData.address(i), SyntheticData.birthdate(i)));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            pool.shutdown();
+            assertEquals(threads * perThread, wal.appended());
+            assertTrue(wal.batches() < wal.appended(), "batches: " + wal.batches());
+        }
+
+        PersonRegistry recovered = new PersonRegistry();
+        assertEquals(threads * perThread, WriteAheadLog.replay(log, recovered));
+        assertEquals(threads * perThread, recovered.size());
+    }
+
+    private static String describe(Person p) {
+        return p.personID + "|" + p.getFirstName() + "|" + p.getLastName() + "|" + p.getAddress() + "|"
+                + p.getBirthdate() + "|" + p.isSuspended;
+    }
+}